@@ -0,0 +1,51 @@
+package com.example.flashcards.bench;
+
+import com.example.flashcards.common.AnswerText;
+import com.example.flashcards.service.AnswerGrader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grading a typed answer against a precomputed answer key. Run with {@code -prof gc} to confirm
+ * the short-key path does not allocate beyond the result record.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnswerGradingBenchmark {
+
+    @Param({"Crème brûlée (dessert)", "house, home, dwelling; residence"})
+    public String sideB;
+
+    private String key;
+    private String exact;
+    private String typo;
+    private String wrong;
+
+    @Setup
+    public void setUp() {
+        key = AnswerText.answerKey(sideB);
+        exact = sideB.toUpperCase();
+        typo = sideB.substring(0, sideB.length() - 2) + "x";
+        wrong = "something entirely different";
+    }
+
+    @Benchmark
+    public AnswerGrader.Result exact() {
+        return AnswerGrader.grade(key, exact);
+    }
+
+    @Benchmark
+    public AnswerGrader.Result typo() {
+        return AnswerGrader.grade(key, typo);
+    }
+
+    @Benchmark
+    public AnswerGrader.Result wrong() {
+        return AnswerGrader.grade(key, wrong);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.flashcards.bench;
+
+import com.example.flashcards.FlashcardsApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A local Postgres database seeded with a realistic dataset, plus the application context on top of
+ * it. Connection settings come from system properties {@code bench.db.server} (default
+ * {@code jdbc:postgresql://localhost:5432/}), {@code bench.db.name}, {@code bench.db.username} and
+ * {@code bench.db.password}. The database is created and seeded on first use and reused afterwards.
+ */
+public final class BenchDatabase {
+    public static final int COURSES = 50;
+    public static final int LEVELS_PER_COURSE = 20;
+    public static final int CARDS_PER_LEVEL = 100;
+    public static final int REVIEWED_CARDS = 20_000;
+    public static final String USERNAME = "bench-user";
+
+    private BenchDatabase() {
+    }
+
+    public static ConfigurableApplicationContext start() {
+        String server = System.getProperty("bench.db.server", "jdbc:postgresql://localhost:5432/");
+        String name = System.getProperty("bench.db.name", "flashcards_bench");
+        String username = System.getProperty("bench.db.username", "postgres");
+        String password = System.getProperty("bench.db.password", "postgres");
+        createIfMissing(server, name, username, password);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FlashcardsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + server + name + "?reWriteBatchedInserts=true",
+                        "spring.datasource.username=" + username,
+                        "spring.datasource.password=" + password,
+                        "spring.jpa.show-sql=false",
+                        // measure the queries, not the second-level cache in front of them
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "logging.level.root=WARN")
+                .run();
+        seed(context.getBean(JdbcTemplate.class));
+        return context;
+    }
+
+    private static void createIfMissing(String server, String name, String username, String password) {
+        try (Connection connection = DriverManager.getConnection(server + "postgres", username, password);
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("select 1 from pg_database where datname = '" + name.replace("'", "''") + "'")) {
+                if (rs.next()) return;
+            }
+            statement.execute("create database \"" + name.replace("\"", "\"\"") + "\"");
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot prepare benchmark database " + name, ex);
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        Integer existing = jdbc.queryForObject("select count(*) from users where username = ?", Integer.class, USERNAME);
+        if (existing != null && existing > 0) return;
+        jdbc.update("insert into users(username, email, password_hash) values (?, 'bench@example.com', 'x')", USERNAME);
+        jdbc.update("""
+                insert into courses(name, description, taught_language, learning_language, is_public, created_by_user_id)
+                select 'Course ' || c, 'Benchmark course ' || c, 'es', 'en', true, u.id
+                from generate_series(1, ?) c, users u where u.username = ?
+                """, COURSES, USERNAME);
+        jdbc.update("""
+                insert into levels(course_id, name, description, order_position)
+                select c.id, 'Level ' || l, 'Phrases for situation ' || l, l
+                from courses c join users u on u.id = c.created_by_user_id and u.username = ?, generate_series(1, ?) l
+                """, USERNAME, LEVELS_PER_COURSE);
+        jdbc.update("""
+                insert into flashcards(level_id, side_a, side_b, example_sentence, order_position)
+                select l.id, 'palabra ' || l.id || '-' || f, 'word ' || l.id || '-' || f,
+                       'Una frase de ejemplo bastante larga para la palabra ' || f || '.', f
+                from levels l join courses c on c.id = l.course_id
+                join users u on u.id = c.created_by_user_id and u.username = ?, generate_series(1, ?) f
+                """, USERNAME, CARDS_PER_LEVEL);
+        // Reviews spread from a month ago to a month ahead, so roughly half are due.
+        jdbc.update("""
+                insert into user_progress(user_id, flashcard_id, correct_answers, incorrect_answers, last_reviewed,
+                                          next_review, ease_factor, interval_days, repetitions)
+                select u.id, f.id, 3, 1, now() - interval '10 days',
+                       now() + (random() * 60 - 30) * interval '1 day', 2.5, 6, 2
+                from users u, (select id from flashcards order by id limit ?) f
+                where u.username = ?
+                """, REVIEWED_CARDS, USERNAME);
+        jdbc.execute("analyze");
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.flashcards.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs JMH with machine-readable output. Unless the caller chooses a result format or file,
+ * results go to {@code target/jmh-result.json} so runs can be diffed between releases.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(List.of(args));
+        if (!jmhArgs.contains("-rf")) jmhArgs.addAll(List.of("-rf", "json"));
+        if (!jmhArgs.contains("-rff")) jmhArgs.addAll(List.of("-rff", "target/jmh-result.json"));
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.flashcards.bench;
+
+import com.example.flashcards.model.Course;
+import com.example.flashcards.model.Flashcard;
+import com.example.flashcards.model.Level;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/** In-memory entity graphs shaped like real course content, for benchmarks that do not touch the database. */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    public static Course course(int levels, int cardsPerLevel) {
+        Course course = new Course();
+        setId(course, 1L);
+        course.setName("Spanish for travellers");
+        course.setDescription("Everyday phrases for getting around, ordering food and asking for directions.");
+        course.setTaughtLanguage("es");
+        course.setLearningLanguage("en");
+        course.setPublic(true);
+        long cardId = 1;
+        for (int l = 0; l < levels; l++) {
+            Level level = new Level();
+            setId(level, (long) l + 1);
+            level.setCourse(course);
+            level.setName("Level " + (l + 1));
+            level.setDescription("Phrases for situation " + (l + 1));
+            level.setOrderPosition(l);
+            for (int c = 0; c < cardsPerLevel; c++) {
+                Flashcard card = flashcard(level, cardId++, c);
+                level.getFlashcards().add(card);
+            }
+            course.getLevels().add(level);
+        }
+        return course;
+    }
+
+    public static List<Flashcard> flashcards(Level level, int count) {
+        List<Flashcard> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cards.add(flashcard(level, i + 1, i));
+        }
+        return cards;
+    }
+
+    private static Flashcard flashcard(Level level, long id, int position) {
+        Flashcard card = new Flashcard();
+        setId(card, id);
+        card.setLevel(level);
+        card.setSideA("¿Dónde está la estación de tren número " + id + "?");
+        card.setSideB("Where is train station number " + id + "?");
+        card.setExampleSentence("Perdone, ¿dónde está la estación de tren? Tengo que tomar el tren de las ocho.");
+        card.setAudioMp3Url("https://cdn.example.com/audio/" + id + ".mp3");
+        card.setOrderPosition(position);
+        return card;
+    }
+
+    /** Entities only get ids from the database, so set them the way Hibernate does. */
+    public static void setId(Object entity, Long id) {
+        try {
+            Field field = entity.getClass().getDeclaredField("id");
+            field.setAccessible(true);
+            field.set(entity, id);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
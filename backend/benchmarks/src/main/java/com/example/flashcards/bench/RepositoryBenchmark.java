@@ -0,0 +1,89 @@
+package com.example.flashcards.bench;
+
+import com.example.flashcards.repository.CourseRepository;
+import com.example.flashcards.repository.FlashcardRepository;
+import com.example.flashcards.repository.LevelRepository;
+import com.example.flashcards.repository.UserProgressRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Repository finders on the request hot paths, against the seeded {@link BenchDatabase}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+    private static final OffsetDateTime EPOCH = OffsetDateTime.parse("1970-01-01T00:00:00Z");
+
+    private ConfigurableApplicationContext context;
+    private CourseRepository courseRepository;
+    private LevelRepository levelRepository;
+    private FlashcardRepository flashcardRepository;
+    private UserProgressRepository userProgressRepository;
+    private long courseId;
+    private long levelId;
+    private long userId;
+    private List<Long> coursePage;
+
+    @Setup
+    public void setUp() {
+        context = BenchDatabase.start();
+        courseRepository = context.getBean(CourseRepository.class);
+        levelRepository = context.getBean(LevelRepository.class);
+        flashcardRepository = context.getBean(FlashcardRepository.class);
+        userProgressRepository = context.getBean(UserProgressRepository.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        userId = jdbc.queryForObject("select id from users where username = ?", Long.class, BenchDatabase.USERNAME);
+        coursePage = jdbc.queryForList("select id from courses where created_by_user_id = ? order by id", Long.class, userId);
+        courseId = coursePage.get(coursePage.size() / 2);
+        levelId = jdbc.queryForObject("select min(id) from levels where course_id = ?", Long.class, courseId);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object publicCoursePage() {
+        return courseRepository.findByIsPublicTrueAndDeletedAtIsNullAndIdGreaterThanOrderByIdAsc(0L, Limit.of(50));
+    }
+
+    @Benchmark
+    public Object levelSummariesForCoursePage() {
+        return levelRepository.findSummariesByCourseIdIn(coursePage);
+    }
+
+    @Benchmark
+    public Object levelsOfCourse() {
+        return levelRepository.findByCourseIdOrderByOrderPositionAscIdAsc(courseId);
+    }
+
+    @Benchmark
+    public Object flashcardSummariesOfCourse() {
+        return flashcardRepository.findSummariesByCourseId(courseId);
+    }
+
+    @Benchmark
+    public Object flashcardPageOfLevel() {
+        return flashcardRepository.findPageByLevelId(levelId, Integer.MIN_VALUE, 0L, Limit.of(100));
+    }
+
+    @Benchmark
+    public Object dueCards() {
+        return userProgressRepository.findDue(userId, OffsetDateTime.now(), EPOCH, 0L, 100);
+    }
+
+    @Benchmark
+    public Object courseContentVersion() {
+        return courseRepository.findContentVersionById(courseId);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.flashcards.bench;
+
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cost of a cold course tree response in each negotiable format, serialized alone and then gzipped
+ * the way VersionedResponses does before caching. The encoded sizes are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    /** Flashcards per level; the tree has 20 levels. */
+    @Param({"100", "1000"})
+    public int cardsPerLevel;
+
+    private ObjectMapper objectMapper;
+    private CourseDtos.Tree tree;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        objectMapper = switch (format) {
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> builder.build();
+        };
+        List<LevelDtos.Response> levels = new ArrayList<>();
+        long cardId = 1;
+        for (int l = 0; l < 20; l++) {
+            List<LevelDtos.FlashcardSummary> cards = new ArrayList<>(cardsPerLevel);
+            for (int i = 0; i < cardsPerLevel; i++, cardId++) {
+                cards.add(new LevelDtos.FlashcardSummary(cardId,
+                        "¿Dónde está la estación de tren número " + i + "?", "Where is train station number " + i + "?", i));
+            }
+            levels.add(new LevelDtos.Response((long) l + 1, 1L, "Level " + (l + 1), "Phrases for the station", l, cards));
+        }
+        tree = new CourseDtos.Tree(1L, "Spanish for travellers",
+                "Everyday phrases for getting around, ordering food and asking for directions.",
+                "es", "en", true, 1L, levels);
+        System.out.printf("course tree as %s, %d cards per level: %d bytes, %d gzipped%n",
+                format, cardsPerLevel, serialize().length, gzip().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(tree);
+    }
+
+    @Benchmark
+    public byte[] gzip() throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(tree);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream zipped = new GZIPOutputStream(out, 8192)) {
+            zipped.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.flashcards.bench;
+
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Jackson serialization of the largest read responses, configured the way Spring MVC configures it. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    /** Levels in the course response and flashcards in the level response. */
+    @Param({"20", "1000", "10000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private CourseDtos.Response course;
+    private LevelDtos.Response level;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<CourseDtos.LevelSummary> levels = new ArrayList<>(size);
+        List<LevelDtos.FlashcardSummary> cards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            levels.add(new CourseDtos.LevelSummary((long) i + 1, "Level " + (i + 1), i));
+            cards.add(new LevelDtos.FlashcardSummary((long) i + 1,
+                    "¿Dónde está la estación de tren número " + i + "?", "Where is train station number " + i + "?", i));
+        }
+        course = new CourseDtos.Response(1L, "Spanish for travellers",
+                "Everyday phrases for getting around, ordering food and asking for directions.",
+                "es", "en", true, 1L, levels);
+        level = new LevelDtos.Response(1L, 1L, "Level 1", "Phrases for the station", 0, cards);
+    }
+
+    @Benchmark
+    public byte[] courseResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(course);
+    }
+
+    @Benchmark
+    public byte[] levelResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(level);
+    }
+}
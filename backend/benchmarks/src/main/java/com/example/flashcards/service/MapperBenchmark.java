@@ -0,0 +1,73 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.bench.Fixtures;
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.model.Course;
+import com.example.flashcards.model.Flashcard;
+import com.example.flashcards.model.Level;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping in the services, without the repositories. Lives in the service package
+ * because the mappers are package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"10", "200"})
+    public int levels;
+
+    @Param({"20", "1000"})
+    public int cardsPerLevel;
+
+    private CourseService courseService;
+    private LevelService levelService;
+    private FlashcardService flashcardService;
+    private Course course;
+    private Level level;
+    private List<Flashcard> cards;
+
+    @Setup
+    public void setUp() {
+        courseService = new CourseService(null, null, null, null, null, null, 0);
+        levelService = new LevelService(null, null, null, null);
+        flashcardService = new FlashcardService(null, null, null);
+        course = Fixtures.course(levels, 0);
+        level = course.getLevels().getFirst();
+        cards = Fixtures.flashcards(level, cardsPerLevel);
+    }
+
+    @Benchmark
+    public CourseDtos.Response courseResponse() {
+        return courseService.toResponse(course);
+    }
+
+    @Benchmark
+    public LevelDtos.Response levelResponse() {
+        List<LevelDtos.FlashcardSummary> summaries = new ArrayList<>(cards.size());
+        for (Flashcard f : cards) {
+            summaries.add(new LevelDtos.FlashcardSummary(f.getId(), f.getSideA(), f.getSideB(), f.getOrderPosition()));
+        }
+        return levelService.toResponse(level, course.getId(), summaries);
+    }
+
+    @Benchmark
+    public void flashcardResponses(Blackhole bh) {
+        for (Flashcard f : cards) {
+            FlashcardDtos.Response response = flashcardService.toResponse(f);
+            bh.consume(response);
+        }
+    }
+}
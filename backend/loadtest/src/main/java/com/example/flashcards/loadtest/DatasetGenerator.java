@@ -0,0 +1,129 @@
+package com.example.flashcards.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Fills the backend's schema with synthetic users, courses, levels, flashcards and review state.
+ * Everything hangs off users named {@code synthetic-<n>}, so {@code --reset} can remove a previous
+ * dataset through the ON DELETE CASCADE chain. The schema itself comes from the backend's Liquibase
+ * migrations; start the backend once against the database before seeding.
+ */
+final class DatasetGenerator {
+    static final String USER_PREFIX = "synthetic-";
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int users;
+    private final int courses;
+    private final int levelsPerCourse;
+    private final int cardsPerLevel;
+    private final int progressPerUser;
+    private final boolean reset;
+
+    DatasetGenerator(Options options) {
+        this.url = options.string("db-url", "jdbc:postgresql://localhost:5432/flashcards");
+        this.username = options.string("db-username", "postgres");
+        this.password = options.string("db-password", "postgres");
+        this.users = options.integer("users", 1000);
+        this.courses = options.integer("courses", 100);
+        this.levelsPerCourse = options.integer("levels", 20);
+        this.cardsPerLevel = options.integer("cards", 100);
+        this.progressPerUser = options.integer("progress", 500);
+        this.reset = options.flag("reset");
+    }
+
+    void run() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            connection.setAutoCommit(false);
+            requireSchema(connection);
+            if (reset) {
+                step(connection, "Removing previous synthetic dataset",
+                        "delete from users where username like '" + USER_PREFIX + "%'");
+            } else if (count(connection, "select count(*) from users where username like '" + USER_PREFIX + "%'") > 0) {
+                throw new IllegalStateException("A synthetic dataset already exists; pass --reset to replace it");
+            }
+            step(connection, "Inserting " + users + " users", """
+                    insert into users(username, email, password_hash)
+                    select '%1$s' || u, '%1$s' || u || '@example.com', 'x' from generate_series(1, %2$d) u
+                    """.formatted(USER_PREFIX, users));
+            // Courses are spread over the first tenth of the users, the authors.
+            step(connection, "Inserting " + courses + " courses", """
+                    insert into courses(name, description, taught_language, learning_language, is_public, created_by_user_id)
+                    select 'Synthetic course ' || c, 'Generated course number ' || c,
+                           (array['es','de','fr','it','pl'])[1 + c %% 5], 'en', c %% 10 <> 0, a.id
+                    from generate_series(1, %d) c
+                    join (select id, row_number() over (order by id) - 1 as rn from users where username like '%s%%') a
+                      on a.rn = c %% greatest(%d / 10, 1)
+                    """.formatted(courses, USER_PREFIX, users));
+            step(connection, "Inserting " + (long) courses * levelsPerCourse + " levels", """
+                    insert into levels(course_id, name, description, order_position)
+                    select c.id, 'Level ' || l, 'Generated level ' || l, l
+                    from %s, generate_series(1, %d) l
+                    """.formatted(syntheticCourses(), levelsPerCourse));
+            step(connection, "Inserting " + (long) courses * levelsPerCourse * cardsPerLevel + " flashcards", """
+                    insert into flashcards(level_id, side_a, side_b, example_sentence, order_position)
+                    select l.id, 'palabra ' || l.id || '-' || f, 'word ' || l.id || '-' || f,
+                           'Una frase de ejemplo para la palabra ' || f || ' del nivel ' || l.id || '.', f
+                    from levels l join %s on c.id = l.course_id, generate_series(1, %d) f
+                    """.formatted(syntheticCourses(), cardsPerLevel));
+            step(connection, "Indexing synthetic flashcards", """
+                    create temporary table synthetic_cards on commit drop as
+                    select row_number() over (order by f.id) as rn, f.id
+                    from flashcards f join levels l on l.id = f.level_id join %s on c.id = l.course_id;
+                    create index on synthetic_cards(rn);
+                    analyze synthetic_cards
+                    """.formatted(syntheticCourses()));
+            long cards = count(connection, "select count(*) from synthetic_cards");
+            int perUser = (int) Math.min(progressPerUser, cards);
+            // Each user reviewed a distinct window of cards, next reviews spread over +-30 days so about half are due.
+            step(connection, "Inserting " + (long) users * perUser + " user_progress rows", """
+                    insert into user_progress(user_id, flashcard_id, correct_answers, incorrect_answers, last_reviewed,
+                                              next_review, ease_factor, interval_days, repetitions)
+                    select u.id, sc.id, 1 + k %% 5, k %% 3, now() - (k %% 20) * interval '1 day',
+                           now() + ((u.rn * 31 + k) %% 61 - 30) * interval '1 day', 2.5, 1 + k %% 30, 1 + k %% 6
+                    from (select id, row_number() over (order by id) as rn from users where username like '%s%%') u
+                    cross join generate_series(0, %d) k
+                    join synthetic_cards sc on sc.rn = 1 + (u.rn * 7919 + k) %% %d
+                    """.formatted(USER_PREFIX, perUser - 1, cards));
+            connection.commit();
+            step(connection, "Analyzing", "analyze");
+            connection.commit();
+        }
+    }
+
+    private static String syntheticCourses() {
+        return "(select c.id from courses c join users u on u.id = c.created_by_user_id and u.username like '"
+                + USER_PREFIX + "%') c";
+    }
+
+    private static void requireSchema(Connection connection) throws SQLException {
+        if (count(connection, "select count(*) from information_schema.tables where table_name = 'user_progress'") == 0) {
+            throw new IllegalStateException("Schema not found; start the backend once against this database to run its migrations");
+        }
+    }
+
+    private static void step(Connection connection, String description, String sql) throws SQLException {
+        long start = System.nanoTime();
+        System.out.print(description + "... ");
+        System.out.flush();
+        try (Statement statement = connection.createStatement()) {
+            for (String part : sql.split(";\\s*\\n")) {
+                statement.execute(part);
+            }
+        }
+        System.out.printf("%d ms%n", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static long count(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql); ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.flashcards.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Latency and outcome counts for one endpoint. Latencies are in microseconds. */
+final class EndpointStats {
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    final String name;
+    private final Recorder recorder = new Recorder(MAX_TRACKABLE_MICROS, 3);
+    private final Histogram total = new Histogram(MAX_TRACKABLE_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    private Histogram interval;
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long latencyNanos, boolean ok) {
+        recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_TRACKABLE_MICROS));
+        if (!ok) errors.increment();
+    }
+
+    /** Moves everything recorded since the last call into the totals; returns that interval. */
+    synchronized Histogram roll() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        return interval;
+    }
+
+    /** Drops everything recorded so far, e.g. at the end of the warm-up. */
+    synchronized void reset() {
+        recorder.reset();
+        total.reset();
+        errors.reset();
+    }
+
+    Histogram total() {
+        return total;
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.flashcards.loadtest;
+
+/**
+ * Entry point: {@code seed} generates a synthetic dataset, {@code run} drives HTTP load against a
+ * running backend seeded with it.
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String command = args.length == 0 ? "help" : args[0];
+        Options options = new Options(args, Math.min(1, args.length));
+        switch (command) {
+            case "seed" -> new DatasetGenerator(options).run();
+            case "run" -> new WorkloadRunner(options).run();
+            default -> System.out.println("""
+                    Usage: LoadTestMain seed|run [--key=value ...]
+
+                    seed   --users=1000 --courses=100 --levels=20 --cards=100 --progress=500 [--reset]
+                    run    --base-url=http://localhost:8080/api --rate=100 --duration=60s --warmup=10s
+                           --mix=browse=10,tree=15,card=45,edit=5,review=25 --arrivals=poisson|uniform
+                           --max-in-flight=10000 --report=target/loadtest-report.json
+                    both   --db-url=jdbc:postgresql://localhost:5432/flashcards --db-username=postgres --db-password=postgres
+                    """);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.flashcards.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** {@code --key=value} command line options with typed, defaulted lookups. */
+final class Options {
+    private final Map<String, String> values = new LinkedHashMap<>();
+
+    Options(String[] args, int from) {
+        for (int i = from; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) throw new IllegalArgumentException("Expected --key=value but got " + arg);
+            int eq = arg.indexOf('=');
+            if (eq < 0) values.put(arg.substring(2), "true");
+            else values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+    }
+
+    String string(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    int integer(String key, int defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    double decimal(String key, double defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    boolean flag(String key) {
+        return Boolean.parseBoolean(values.getOrDefault(key, "false"));
+    }
+
+    /** Accepts {@code 90s}, {@code 5m}, {@code 1h} or an ISO-8601 duration. */
+    Duration duration(String key, Duration defaultValue) {
+        String value = values.get(key);
+        if (value == null) return defaultValue;
+        if (value.startsWith("P") || value.startsWith("p")) return Duration.parse(value);
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration " + value);
+        };
+    }
+
+    /** Parses {@code a=1,b=2} into an ordered map of weights. */
+    Map<String, Double> weights(String key, String defaultValue) {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (String pair : string(key, defaultValue).split(",")) {
+            String[] kv = pair.split("=", 2);
+            if (kv.length != 2) throw new IllegalArgumentException("Expected name=weight in --" + key + " but got " + pair);
+            weights.put(kv[0].trim(), Double.parseDouble(kv[1].trim()));
+        }
+        return weights;
+    }
+}
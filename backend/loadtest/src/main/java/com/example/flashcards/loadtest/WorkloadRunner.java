@@ -0,0 +1,270 @@
+package com.example.flashcards.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model workload: requests are started on a fixed arrival schedule (Poisson by default)
+ * regardless of how fast earlier ones complete, and latency is measured from each request's
+ * intended start, so a stalled server shows up as latency rather than as a lower request rate.
+ */
+final class WorkloadRunner {
+    private static final String DEFAULT_MIX = "browse=10,tree=15,card=45,edit=5,review=25";
+    private static final Duration REPORT_INTERVAL = Duration.ofSeconds(10);
+
+    private final String baseUrl;
+    private final double rate;
+    private final Duration duration;
+    private final Duration warmup;
+    private final boolean poisson;
+    private final int maxInFlight;
+    private final Path reportPath;
+    private final Options options;
+    private final Map<String, Double> mix;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final HttpClient client;
+    private long[] userIds;
+    private long[] courseIds;
+    private long[] flashcardIds;
+
+    WorkloadRunner(Options options) {
+        this.options = options;
+        this.baseUrl = options.string("base-url", "http://localhost:8080/api");
+        this.rate = options.decimal("rate", 100);
+        this.duration = options.duration("duration", Duration.ofSeconds(60));
+        this.warmup = options.duration("warmup", Duration.ofSeconds(10));
+        this.poisson = !"uniform".equals(options.string("arrivals", "poisson"));
+        this.maxInFlight = options.integer("max-in-flight", 10_000);
+        this.reportPath = Path.of(options.string("report", "target/loadtest-report.json"));
+        this.mix = options.weights("mix", DEFAULT_MIX);
+        for (String endpoint : mix.keySet()) {
+            if (!List.of("browse", "tree", "card", "edit", "review").contains(endpoint)) {
+                throw new IllegalArgumentException("Unknown endpoint in --mix: " + endpoint);
+            }
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    void run() throws Exception {
+        loadIds();
+        System.out.printf("Driving %.0f req/s for %s (+%s warm-up) against %s, mix %s%n", rate, duration, warmup, baseUrl, mix);
+        String[] endpoints = mix.keySet().toArray(String[]::new);
+        double[] cumulative = new double[endpoints.length];
+        double sum = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            sum += mix.get(endpoints[i]);
+            cumulative[i] = sum;
+        }
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long nextReport = measureFrom + REPORT_INTERVAL.toNanos();
+        boolean measuring = false;
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long intended = start;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (intended < end) {
+                long now = System.nanoTime();
+                if (intended > now) LockSupport.parkNanos(intended - now);
+                if (!measuring && intended >= measureFrom) {
+                    stats.values().forEach(EndpointStats::reset);
+                    dropped.reset();
+                    measuring = true;
+                }
+                if (measuring && System.nanoTime() >= nextReport) {
+                    printInterval();
+                    nextReport += REPORT_INTERVAL.toNanos();
+                }
+                double pick = random.nextDouble() * sum;
+                int i = 0;
+                while (cumulative[i] < pick) i++;
+                EndpointStats endpoint = stats.get(endpoints[i]);
+                if (inFlight.tryAcquire()) {
+                    long scheduledAt = intended;
+                    executor.execute(() -> {
+                        try {
+                            execute(endpoint, scheduledAt);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } else {
+                    dropped.increment();
+                }
+                intended += poisson ? (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos) : (long) meanGapNanos;
+            }
+        }
+        printSummary();
+        writeReport();
+    }
+
+    private void execute(EndpointStats endpoint, long intendedStart) {
+        boolean ok;
+        try {
+            HttpResponse<Void> response = client.send(request(endpoint.name), HttpResponse.BodyHandlers.discarding());
+            ok = response.statusCode() < 400;
+        } catch (IOException | RuntimeException ex) {
+            ok = false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        endpoint.record(System.nanoTime() - intendedStart, ok);
+    }
+
+    private HttpRequest request(String endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(30));
+        return switch (endpoint) {
+            case "browse" -> {
+                String path = "/courses?limit=50";
+                if (random.nextBoolean()) {
+                    String after = String.valueOf(courseIds[random.nextInt(courseIds.length)]);
+                    path += "&after=" + Base64.getUrlEncoder().withoutPadding().encodeToString(after.getBytes(StandardCharsets.US_ASCII));
+                }
+                yield builder.uri(uri(path)).GET().build();
+            }
+            case "tree" -> builder.uri(uri("/courses/" + pick(courseIds) + "/tree")).GET().build();
+            case "card" -> builder.uri(uri("/flashcards/" + pick(flashcardIds))).GET().build();
+            case "edit" -> builder.uri(uri("/flashcards/" + pick(flashcardIds)))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"sideB\":\"edited " + random.nextInt(1_000_000) + "\"}"))
+                    .build();
+            case "review" -> builder.uri(uri("/users/" + pick(userIds) + "/reviews"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"flashcardId\":" + pick(flashcardIds) + ",\"grade\":" + random.nextInt(6) + "}"))
+                    .build();
+            default -> throw new IllegalStateException(endpoint);
+        };
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static long pick(long[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private void loadIds() throws SQLException {
+        String like = DatasetGenerator.USER_PREFIX + "%";
+        try (Connection connection = DriverManager.getConnection(options.string("db-url", "jdbc:postgresql://localhost:5432/flashcards"),
+                options.string("db-username", "postgres"), options.string("db-password", "postgres"))) {
+            userIds = ids(connection, "select id from users where username like ?", like);
+            courseIds = ids(connection, "select c.id from courses c join users u on u.id = c.created_by_user_id "
+                    + "where u.username like ? and c.is_public", like);
+            flashcardIds = ids(connection, "select f.id from flashcards f join levels l on l.id = f.level_id "
+                    + "join courses c on c.id = l.course_id join users u on u.id = c.created_by_user_id where u.username like ?", like);
+        }
+        if (userIds.length == 0 || courseIds.length == 0 || flashcardIds.length == 0) {
+            throw new IllegalStateException("No synthetic dataset found; run the seed command first");
+        }
+    }
+
+    private static long[] ids(Connection connection, String sql, String like) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, like);
+            statement.setFetchSize(10_000);
+            connection.setAutoCommit(false);
+            try (ResultSet rs = statement.executeQuery()) {
+                List<Long> ids = new ArrayList<>();
+                while (rs.next()) ids.add(rs.getLong(1));
+                return ids.stream().mapToLong(Long::longValue).toArray();
+            }
+        }
+    }
+
+    private void printInterval() {
+        StringBuilder line = new StringBuilder();
+        for (EndpointStats s : stats.values()) {
+            Histogram h = s.roll();
+            line.append(String.format("  %s %.0f/s p99 %.1fms", s.name,
+                    h.getTotalCount() / (double) REPORT_INTERVAL.toSeconds(), h.getValueAtPercentile(99) / 1000.0));
+        }
+        System.out.println(line.toString().trim());
+    }
+
+    private void printSummary() {
+        System.out.printf("%n%-8s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms");
+        for (EndpointStats s : stats.values()) {
+            s.roll();
+            Histogram h = s.total();
+            System.out.printf("%-8s %9d %8d %8.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", s.name, h.getTotalCount(), s.errors(),
+                    h.getTotalCount() / (double) duration.toSeconds(), ms(h, 50), ms(h, 90), ms(h, 95), ms(h, 99), h.getMaxValue() / 1000.0);
+        }
+        if (dropped.sum() > 0) {
+            System.out.printf("%d requests not sent: more than %d were already in flight%n", dropped.sum(), maxInFlight);
+        }
+    }
+
+    private void writeReport() throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", baseUrl);
+        report.put("targetRate", rate);
+        report.put("durationSeconds", duration.toSeconds());
+        report.put("arrivals", poisson ? "poisson" : "uniform");
+        report.put("dropped", dropped.sum());
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (EndpointStats s : stats.values()) {
+            Histogram h = s.total();
+            Map<String, Object> e = new LinkedHashMap<>();
+            e.put("requests", h.getTotalCount());
+            e.put("errors", s.errors());
+            e.put("throughput", h.getTotalCount() / (double) duration.toSeconds());
+            e.put("p50Ms", ms(h, 50));
+            e.put("p90Ms", ms(h, 90));
+            e.put("p95Ms", ms(h, 95));
+            e.put("p99Ms", ms(h, 99));
+            e.put("p999Ms", ms(h, 99.9));
+            e.put("maxMs", h.getMaxValue() / 1000.0);
+            endpoints.put(s.name, e);
+        }
+        report.put("endpoints", endpoints);
+        if (reportPath.getParent() != null) Files.createDirectories(reportPath.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportPath.toFile(), report);
+        System.out.println("Report written to " + reportPath);
+    }
+
+    private static double ms(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
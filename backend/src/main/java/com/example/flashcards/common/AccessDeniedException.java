@@ -0,0 +1,8 @@
+package com.example.flashcards.common;
+
+/** The caller may see the resource but not change it; answered with 403. */
+public class AccessDeniedException extends RuntimeException {
+    public AccessDeniedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.flashcards.common;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Normal form used to compare typed answers: lower case, diacritics folded to the base letter,
+ * apostrophes dropped and any run of other punctuation or whitespace collapsed to one space.
+ * {@link #next} walks that form one character at a time without allocating, so answers can be
+ * graded straight from the request string.
+ */
+public final class AnswerText {
+    /** Separates the accepted alternatives inside an answer key. */
+    public static final char ALTERNATIVE_SEPARATOR = '\n';
+    public static final long END = -1L;
+
+    private static final int FOLD_FROM = 0x00C0;
+    private static final int FOLD_TO = 0x0250;
+    private static final char[] FOLD = new char[FOLD_TO - FOLD_FROM];
+
+    private static final long INDEX_MASK = 0x3FFF_FFFFL;
+    private static final long SPACE = 1L << 30;
+    private static final long STARTED = 1L << 31;
+
+    static {
+        for (int c = FOLD_FROM; c < FOLD_TO; c++) {
+            String decomposed = Normalizer.normalize(String.valueOf((char) c), Normalizer.Form.NFD);
+            char base = decomposed.charAt(0);
+            FOLD[c - FOLD_FROM] = Character.toLowerCase(decomposed.length() > 1 && base < 0x80 ? base : (char) c);
+        }
+        fold('Ø', 'o');
+        fold('ø', 'o');
+        fold('Ł', 'l');
+        fold('ł', 'l');
+        fold('Đ', 'd');
+        fold('đ', 'd');
+        fold('Ħ', 'h');
+        fold('ħ', 'h');
+        fold('ı', 'i');
+    }
+
+    private AnswerText() {
+    }
+
+    private static void fold(char from, char to) {
+        FOLD[from - FOLD_FROM] = to;
+    }
+
+    /**
+     * Advances a cursor over the normal form of {@code s}. Start from {@code 0}; each call returns
+     * a cursor whose {@link #charAt} is the next normalized character, or {@link #END}.
+     */
+    public static long next(CharSequence s, long cursor) {
+        int i = (int) (cursor & INDEX_MASK);
+        boolean started = (cursor & STARTED) != 0;
+        boolean space = (cursor & SPACE) != 0;
+        char pending = (char) (cursor >>> 32);
+        if (pending != 0) return pack(pending, (char) 0, i, true, false);
+        for (int n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '\'' || c == '’' || c == 'ʼ' || c == '`' || (c >= 0x0300 && c <= 0x036F)) continue;
+            if (!Character.isLetterOrDigit(c) && !Character.isSurrogate(c)) {
+                space = true;
+                continue;
+            }
+            if (space && started) return pack(' ', (char) 0, i, true, false);
+            return switch (c) {
+                case 'ß' -> pack('s', 's', i + 1, true, false);
+                case 'æ', 'Æ' -> pack('a', 'e', i + 1, true, false);
+                case 'œ', 'Œ' -> pack('o', 'e', i + 1, true, false);
+                case 'þ', 'Þ' -> pack('t', 'h', i + 1, true, false);
+                default -> pack(fold(c), (char) 0, i + 1, true, false);
+            };
+        }
+        return END;
+    }
+
+    public static char charAt(long cursor) {
+        return (char) (cursor >>> 48);
+    }
+
+    /** Length of the normal form of {@code s}, without building it. */
+    public static int normalizedLength(CharSequence s) {
+        int length = 0;
+        for (long c = next(s, 0); c != END; c = next(s, c)) length++;
+        return length;
+    }
+
+    public static String normalize(CharSequence s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (long c = next(s, 0); c != END; c = next(s, c)) sb.append(charAt(c));
+        return sb.toString();
+    }
+
+    /**
+     * Accepted answers for a card back, normalized and joined by {@link #ALTERNATIVE_SEPARATOR}:
+     * the whole text, each part of a list separated by , ; / or |, and each of those with
+     * parenthesised hints such as "(to)" left out.
+     */
+    public static String answerKey(String sideB) {
+        if (sideB == null) return null;
+        Set<String> alternatives = new LinkedHashSet<>();
+        addAlternative(alternatives, sideB);
+        String[] parts = sideB.split("[,;/|]");
+        if (parts.length > 1) {
+            for (String part : parts) addAlternative(alternatives, part);
+        }
+        return String.join(String.valueOf(ALTERNATIVE_SEPARATOR), alternatives);
+    }
+
+    private static void addAlternative(Set<String> alternatives, String raw) {
+        String normalized = normalize(raw);
+        if (!normalized.isEmpty()) alternatives.add(normalized);
+        if (raw.indexOf('(') >= 0) {
+            String withoutHints = normalize(raw.replaceAll("\\([^)]*\\)", " "));
+            if (!withoutHints.isEmpty()) alternatives.add(withoutHints);
+        }
+    }
+
+    private static char fold(char c) {
+        if (c < 0x80) return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+        if (c >= FOLD_FROM && c < FOLD_TO) return FOLD[c - FOLD_FROM];
+        return Character.toLowerCase(c);
+    }
+
+    private static long pack(char emitted, char pending, int index, boolean started, boolean space) {
+        return ((long) emitted << 48) | ((long) pending << 32) | (started ? STARTED : 0) | (space ? SPACE : 0) | index;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.flashcards.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque pagination cursor: the sort key of the last row of a page, encoded so clients
+ * pass it back verbatim as {@code after} instead of an offset.
+ */
+public final class KeysetCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private KeysetCursor() {
+    }
+
+    /** Validates a requested page size, falling back to {@code defaultLimit} when absent. */
+    public static int limit(Integer requested, int defaultLimit, int maxLimit) {
+        int limit = requested == null ? defaultLimit : requested;
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+        return limit;
+    }
+
+    public static String encode(long... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) sb.append(':');
+            sb.append(keys[i]);
+        }
+        return ENCODER.encodeToString(sb.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static long[] decode(String cursor, int expectedKeys) {
+        try {
+            String[] parts = new String(DECODER.decode(cursor), StandardCharsets.US_ASCII).split(":");
+            if (parts.length != expectedKeys) throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            long[] keys = new long[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                keys[i] = Long.parseLong(parts[i]);
+            }
+            return keys;
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
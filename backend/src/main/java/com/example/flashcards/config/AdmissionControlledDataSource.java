@@ -0,0 +1,128 @@
+package com.example.flashcards.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets at most {@code permits} callers hold a connection at once and parks the rest on a fair
+ * semaphore. With virtual threads that wait is nearly free, so thousands of requests can queue
+ * here instead of each spinning up a pool borrow that times out. A permit is returned when the
+ * connection is closed.
+ */
+public class AdmissionControlledDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final long timeoutNanos;
+    private volatile Timer acquiredTimer;
+    private volatile Timer timedOutTimer;
+
+    public AdmissionControlledDataSource(DataSource target, int maxPermits, Duration timeout) {
+        super(target);
+        this.permits = new Semaphore(maxPermits, true);
+        this.maxPermits = maxPermits;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /** Registers this gate's meters, tagged with {@code pool} to keep them apart from other pools' gates. */
+    public void bindTo(MeterRegistry registry, String pool) {
+        acquiredTimer = Timer.builder("jdbc.admission.wait")
+                .description("Time spent queued for a database permit")
+                .tag("pool", pool)
+                .tag("outcome", "acquired")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        timedOutTimer = Timer.builder("jdbc.admission.wait")
+                .description("Time spent queued for a database permit")
+                .tag("pool", pool)
+                .tag("outcome", "timeout")
+                .register(registry);
+        Gauge.builder("jdbc.admission.queued", permits, Semaphore::getQueueLength)
+                .description("Callers waiting for a database permit")
+                .tag("pool", pool)
+                .register(registry);
+        Gauge.builder("jdbc.admission.active", permits, p -> maxPermits - p.availablePermits())
+                .description("Database permits in use")
+                .tag("pool", pool)
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database permit", ex);
+        }
+        long waited = System.nanoTime() - start;
+        Timer timer = acquired ? acquiredTimer : timedOutTimer;
+        if (timer != null) timer.record(waited, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            throw new SQLTransientConnectionException("No database permit after " + Duration.ofNanos(waited).toMillis()
+                    + " ms (" + maxPermits + " in use, " + permits.getQueueLength() + " queued)");
+        }
+    }
+
+    private Connection releasingOnClose(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        try {
+                            target.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) permits.release();
+                        }
+                        yield null;
+                    }
+                    case "unwrap" -> Connection.class.equals(args[0]) ? proxy : target.unwrap((Class<?>) args[0]);
+                    case "isWrapperFor" -> Connection.class.equals(args[0]) || target.isWrapperFor((Class<?>) args[0]);
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Admitted[" + target + "]";
+                    default -> {
+                        try {
+                            yield method.invoke(target, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getTargetException();
+                        }
+                    }
+                });
+    }
+}
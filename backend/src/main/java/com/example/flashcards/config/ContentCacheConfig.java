@@ -0,0 +1,62 @@
+package com.example.flashcards.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Second-level cache for course content. Regions are created up front with bounded size and a
+ * write TTL so heap use stays predictable; Hibernate is told to fail rather than silently create
+ * an unbounded region for anything not listed here.
+ */
+@Configuration
+@EnableConfigurationProperties(ContentCacheProperties.class)
+public class ContentCacheConfig {
+    public static final String COURSE_REGION = "course";
+    public static final String COURSE_LEVELS_REGION = "course.levels";
+    public static final String LEVEL_REGION = "level";
+    public static final String LEVEL_FLASHCARDS_REGION = "level.flashcards";
+    public static final String FLASHCARD_REGION = "flashcard";
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    public static final List<String> BOUNDED_REGIONS = List.of(
+            COURSE_REGION, COURSE_LEVELS_REGION, LEVEL_REGION, LEVEL_FLASHCARDS_REGION, FLASHCARD_REGION, QUERY_RESULTS_REGION);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager contentCacheManager(ContentCacheProperties properties) {
+        // A private manager per application context; the provider's default one is a JVM-wide singleton.
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager(
+                URI.create("urn:flashcards:content-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : BOUNDED_REGIONS) {
+            CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+            config.setMaximumSize(OptionalLong.of(properties.maxEntries(region)));
+            config.setExpireAfterWrite(OptionalLong.of(properties.ttl(region).toNanos()));
+            config.setStatisticsEnabled(true);
+            cacheManager.createCache(region, config);
+        }
+        // One entry per table; must never be evicted before the query results it guards.
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStatisticsEnabled(true);
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, timestamps);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer contentCacheHibernateProperties(CacheManager contentCacheManager) {
+        return props -> {
+            props.put(ConfigSettings.CACHE_MANAGER, contentCacheManager);
+            props.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
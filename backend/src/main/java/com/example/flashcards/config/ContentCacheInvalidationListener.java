@@ -0,0 +1,237 @@
+package com.example.flashcards.config;
+
+import com.example.flashcards.controller.VersionedResponses;
+import com.example.flashcards.model.Course;
+import com.example.flashcards.model.Flashcard;
+import com.example.flashcards.model.Level;
+import com.example.flashcards.service.CourseAccessService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps this node's second-level cache and cached versioned responses coherent with writes made by
+ * other nodes (and by set-based SQL on this one). Listens on a dedicated connection outside the pool
+ * for the messages published by the notify_content_cache() triggers.
+ * <p>
+ * With a read replica, a read that runs on the replica just after the eviction can put the old row
+ * back, so every invalidation is applied a second time once the replica may have caught up.
+ */
+@Component
+public class ContentCacheInvalidationListener implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(ContentCacheInvalidationListener.class);
+    private static final int POLL_MILLIS = 1000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final ContentCacheProperties properties;
+    private final Cache cache;
+    private final CourseAccessService courseAccessService;
+    private final VersionedResponses versionedResponses;
+    private final AtomicLong messagesReceived = new AtomicLong();
+    private final AtomicLong entriesEvicted = new AtomicLong();
+    private final AtomicLong fullEvictions = new AtomicLong();
+    private final Duration reapplyAfter;
+    private ScheduledExecutorService reapplier;
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread thread;
+
+    public ContentCacheInvalidationListener(DataSourceProperties dataSourceProperties,
+                                            ContentCacheProperties properties,
+                                            ReplicaProperties replicaProperties,
+                                            EntityManagerFactory entityManagerFactory,
+                                            CourseAccessService courseAccessService,
+                                            VersionedResponses versionedResponses) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.properties = properties;
+        this.reapplyAfter = replicaProperties.enabled() ? replicaProperties.maxLag().plus(replicaProperties.checkInterval()) : null;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.courseAccessService = courseAccessService;
+        this.versionedResponses = versionedResponses;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (reapplyAfter != null) {
+            reapplier = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("content-cache-reapply").daemon().factory());
+        }
+        thread = Thread.ofPlatform().name("content-cache-listener").daemon().start(this::listenLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) thread.interrupt();
+        if (reapplier != null) reapplier.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isListening() {
+        return listening;
+    }
+
+    public long getMessagesReceived() {
+        return messagesReceived.get();
+    }
+
+    public long getEntriesEvicted() {
+        return entriesEvicted.get();
+    }
+
+    public long getFullEvictions() {
+        return fullEvictions.get();
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.channel());
+                }
+                // Anything published while we were not listening is lost, so start from a clean cache.
+                evictAll();
+                listening = true;
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) {
+                        apply(notification.getParameter());
+                    }
+                }
+            } catch (SQLException ex) {
+                listening = false;
+                if (!running) return;
+                log.warn("Cache invalidation listener lost its connection, retrying in {}: {}", properties.reconnectDelay(), ex.getMessage());
+                try {
+                    Thread.sleep(properties.reconnectDelay());
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+        listening = false;
+    }
+
+    /** Payload format: {@code <table>|<comma separated ids>|<comma separated parent ids>}, or {@code <table>|*|*}. */
+    void apply(String payload) {
+        messagesReceived.incrementAndGet();
+        evict(payload);
+        if (reapplier != null) reapplier.schedule(() -> evict(payload), reapplyAfter.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void evict(String payload) {
+        String[] parts = payload.split("\\|", -1);
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed cache invalidation: {}", payload);
+            return;
+        }
+        if ("user_course_access".equals(parts[0])) {
+            evictEntitlements(parts[2]);
+            return;
+        }
+        Class<?> entity;
+        String parentCollection;
+        // versioned responses are named after the resource whose version they carry
+        String resource;
+        String parentResource;
+        switch (parts[0]) {
+            case "courses" -> {
+                entity = Course.class;
+                parentCollection = null;
+                resource = "course-";
+                parentResource = null;
+            }
+            case "levels" -> {
+                entity = Level.class;
+                parentCollection = Course.class.getName() + ".levels";
+                resource = "level-";
+                parentResource = "course-";
+            }
+            case "flashcards" -> {
+                entity = Flashcard.class;
+                parentCollection = Level.class.getName() + ".flashcards";
+                resource = null;
+                parentResource = "level-";
+            }
+            default -> {
+                return;
+            }
+        }
+        if ("*".equals(parts[1])) {
+            fullEvictions.incrementAndGet();
+            cache.evictEntityData(entity);
+            if (parentCollection != null) cache.evictCollectionData(parentCollection);
+            versionedResponses.evictAll();
+        } else {
+            List<String> resources = new ArrayList<>();
+            for (String id : split(parts[1])) {
+                cache.evictEntityData(entity, Long.valueOf(id));
+                entriesEvicted.incrementAndGet();
+                if (resource != null) resources.add(resource + id);
+            }
+            if (parentCollection != null) {
+                for (String parentId : split(parts[2])) {
+                    cache.evictCollectionData(parentCollection, Long.valueOf(parentId));
+                    entriesEvicted.incrementAndGet();
+                    resources.add(parentResource + parentId);
+                }
+            }
+            versionedResponses.evict(resources);
+        }
+        cache.evictQueryRegions();
+    }
+
+    private void evictEntitlements(String userIds) {
+        if ("*".equals(userIds)) {
+            fullEvictions.incrementAndGet();
+            courseAccessService.invalidateAll();
+            return;
+        }
+        for (String userId : split(userIds)) {
+            courseAccessService.invalidate(Long.parseLong(userId));
+            entriesEvicted.incrementAndGet();
+        }
+    }
+
+    private void evictAll() {
+        fullEvictions.incrementAndGet();
+        cache.evictAllRegions();
+        courseAccessService.invalidateAll();
+        versionedResponses.evictAll();
+    }
+
+    private static String[] split(String ids) {
+        return ids.isEmpty() ? new String[0] : ids.split(",");
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.flashcards.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Bounds for the Hibernate second-level cache regions. Every region gets {@code maxEntries}
+ * and {@code ttl} unless overridden under {@code regions.<name>}.
+ */
+@ConfigurationProperties("flashcards.cache")
+public record ContentCacheProperties(
+        @DefaultValue("10000") long maxEntries,
+        @DefaultValue("10m") Duration ttl,
+        @DefaultValue("content_cache") String channel,
+        @DefaultValue("5s") Duration reconnectDelay,
+        Map<String, Region> regions
+) {
+    public record Region(Long maxEntries, Duration ttl) {}
+
+    public long maxEntries(String region) {
+        Region r = regions == null ? null : regions.get(region);
+        return r != null && r.maxEntries() != null ? r.maxEntries() : maxEntries;
+    }
+
+    public Duration ttl(String region) {
+        Region r = regions == null ? null : regions.get(region);
+        return r != null && r.ttl() != null ? r.ttl() : ttl;
+    }
+}
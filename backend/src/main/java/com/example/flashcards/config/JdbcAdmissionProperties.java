@@ -0,0 +1,17 @@
+package com.example.flashcards.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Admission gate in front of the connection pool, active with virtual threads. {@code permits}
+ * defaults to the pool's maximum size; {@code timeout} is how long a request may queue for one.
+ */
+@ConfigurationProperties("flashcards.jdbc.admission")
+public record JdbcAdmissionProperties(
+        @DefaultValue("true") boolean enabled,
+        Integer permits,
+        @DefaultValue("30s") Duration timeout
+) {}
@@ -0,0 +1,49 @@
+package com.example.flashcards.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Request-level metrics on top of what Actuator already binds (JVM, Hikari, Hibernate statistics):
+ * a {@code handler} tag on http.server.requests naming the controller method, and a per-request
+ * Hibernate statement count.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public DefaultServerRequestObservationConvention handlerTaggingObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+                return super.getLowCardinalityKeyValues(context).and(KeyValue.of("handler",
+                        handler instanceof HandlerMethod method ? handlerName(method) : "none"));
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterHibernateProperties() {
+        return props -> props.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestStatementMetricsFilter> requestStatementMetricsFilter(MeterRegistry meterRegistry) {
+        return new FilterRegistrationBean<>(new RequestStatementMetricsFilter(meterRegistry));
+    }
+
+    static String handlerName(HandlerMethod method) {
+        return method.getBeanType().getSimpleName() + "#" + method.getMethod().getName();
+    }
+}
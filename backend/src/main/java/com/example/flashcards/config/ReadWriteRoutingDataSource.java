@@ -0,0 +1,97 @@
+package com.example.flashcards.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary; only read-write
+ * transactions count as writes for {@link ReadYourWritesFilter}. Meant to sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so the
+ * choice is made at the first statement, once the transaction's read-only flag is known.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor monitor;
+    private final Counter writes;
+    private final Counter nonTransactional;
+    private final Counter pinnedReads;
+    private final Counter fallbackReads;
+    private final Counter replicaReads;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor monitor, MeterRegistry registry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+        this.writes = counter(registry, "primary", "read-write");
+        this.nonTransactional = counter(registry, "primary", "no-transaction");
+        this.pinnedReads = counter(registry, "primary", "read-your-writes");
+        this.fallbackReads = counter(registry, "primary", "replica-unavailable");
+        this.replicaReads = counter(registry, "replica", "read-only");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = route();
+        if (target == primary) return primary.getConnection();
+        try {
+            return replica.getConnection();
+        } catch (SQLException ex) {
+            // nothing has run on it yet, so the primary can take over until the monitor notices
+            fallbackReads.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route().getConnection(username, password);
+    }
+
+    private DataSource route() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            nonTransactional.increment();
+            return primary;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            ReadYourWritesFilter.recordWrite();
+            return primary;
+        }
+        if (ReadYourWritesFilter.isPinned()) {
+            pinnedReads.increment();
+            return primary;
+        }
+        if (!monitor.isUsable()) {
+            fallbackReads.increment();
+            return primary;
+        }
+        replicaReads.increment();
+        return replica;
+    }
+
+    /** Unwraps through the primary, so pool metadata and the admission gate stay reachable. */
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    private static Counter counter(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out by the read/write router")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.flashcards.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Pins a client's reads to the primary for a while after it wrote. The first read-write connection
+ * a request takes marks it as writing: later transactions of the same request stay on the primary,
+ * and the response carries a cookie holding the end of the window, so the client's next requests
+ * do too (on any node). Requests without the cookie read from the replica.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String COOKIE = "flashcards-primary-until";
+
+    private static final ThreadLocal<State> STATE = new ThreadLocal<>();
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    /** Whether the current request must read from the primary. */
+    public static boolean isPinned() {
+        State state = STATE.get();
+        return state != null && state.pinned;
+    }
+
+    /** Called when the current request takes a read-write connection. */
+    public static void recordWrite() {
+        State state = STATE.get();
+        if (state == null || state.wrote) return;
+        state.wrote = true;
+        state.pinned = true;
+        if (state.response.isCommitted()) return;
+        Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis() + state.window.toMillis()));
+        cookie.setPath(state.path);
+        cookie.setMaxAge((int) Math.max(1, state.window.toSeconds()));
+        cookie.setHttpOnly(true);
+        state.response.addCookie(cookie);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getContextPath().isEmpty() ? "/" : request.getContextPath();
+        STATE.set(new State(response, window, path, pinnedByCookie(request)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            STATE.remove();
+        }
+    }
+
+    private boolean pinnedByCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return false;
+        long now = System.currentTimeMillis();
+        for (Cookie cookie : cookies) {
+            if (!COOKIE.equals(cookie.getName())) continue;
+            try {
+                long until = Long.parseLong(cookie.getValue());
+                // a forged far-future value only buys one window
+                return until > now && until - now <= window.toMillis();
+            } catch (NumberFormatException ex) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static final class State {
+        final HttpServletResponse response;
+        final Duration window;
+        final String path;
+        boolean pinned;
+        boolean wrote;
+
+        State(HttpServletResponse response, Duration window, String path, boolean pinned) {
+            this.response = response;
+            this.window = window;
+            this.path = path;
+            this.pinned = pinned;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.flashcards.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Estimates how far the replica is behind the primary. Every check samples the primary's current
+ * WAL position; the lag is the age of the newest sample the replica has already replayed, so it is
+ * accurate to one {@code checkInterval} and, unlike the replay timestamp, does not grow while the
+ * primary is idle. A database that is not in recovery (a local stand-in) counts as current. The
+ * replica is not used until a check has shown it within {@code maxLag}.
+ */
+public class ReplicaLagMonitor implements SmartLifecycle, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    /** (WAL position, System.nanoTime()) pairs, oldest first; only touched by the checking thread. */
+    private final ArrayDeque<long[]> samples = new ArrayDeque<>();
+    private final int maxSamples;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean usable;
+    private volatile boolean running;
+    private Thread thread;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, Duration checkInterval) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.maxSamples = (int) (maxLag.toMillis() / Math.max(1, checkInterval.toMillis())) + 2;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    /** Last estimated lag in seconds, NaN while the replica is unreachable. */
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        check();
+        thread = Thread.ofPlatform().name("replica-lag-monitor").daemon().start(this::pollLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) thread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.replica.lag", this, ReplicaLagMonitor::getLagSeconds)
+                .description("Estimated replay lag of the read replica, saturating just above max-lag; NaN while it is unreachable")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("datasource.replica.usable", this, m -> m.isUsable() ? 1 : 0)
+                .description("Whether read-only transactions are currently sent to the replica")
+                .register(registry);
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                Thread.sleep(checkInterval);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            check();
+        }
+    }
+
+    void check() {
+        boolean wasUsable = usable;
+        long now = System.nanoTime();
+        try {
+            String primaryLsn = queryLsn(primary, "select pg_current_wal_lsn()::text");
+            if (primaryLsn == null) return;
+            samples.addLast(new long[]{parseLsn(primaryLsn), now});
+            if (samples.size() > maxSamples) samples.removeFirst();
+        } catch (SQLException ex) {
+            // the primary's own health is reported elsewhere; keep the last verdict
+            return;
+        }
+        String replayed;
+        try {
+            replayed = queryLsn(replica, "select case when pg_is_in_recovery() then pg_last_wal_replay_lsn()::text end");
+        } catch (SQLException ex) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (wasUsable) log.warn("Read replica unreachable, reading from the primary: {}", ex.getMessage());
+            return;
+        }
+        Long caughtUpAt = null;
+        if (replayed == null) {
+            caughtUpAt = now;
+        } else {
+            long replayedLsn = parseLsn(replayed);
+            for (Iterator<long[]> it = samples.descendingIterator(); it.hasNext(); ) {
+                long[] sample = it.next();
+                if (sample[0] <= replayedLsn) {
+                    caughtUpAt = sample[1];
+                    break;
+                }
+            }
+        }
+        if (caughtUpAt == null) {
+            lagSeconds = (now - samples.getFirst()[1]) / 1e9;
+            usable = false;
+        } else {
+            lagSeconds = (now - caughtUpAt) / 1e9;
+            usable = lagSeconds <= maxLag.toNanos() / 1e9;
+        }
+        if (wasUsable && !usable) log.warn("Read replica is at least {}s behind, reading from the primary", lagSeconds);
+        else if (!wasUsable && usable) log.info("Read replica is current, routing read-only transactions to it");
+    }
+
+    private static String queryLsn(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    /** pg_lsn text form {@code X/Y}, both halves hex. */
+    static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+}
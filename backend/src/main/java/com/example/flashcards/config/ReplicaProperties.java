@@ -0,0 +1,23 @@
+package com.example.flashcards.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Read replica for read-only transactions. Username and password default to the primary's; the
+ * replica pool itself is tuned under {@code hikari}. After a write the client's reads stay on the
+ * primary for {@code readYourWritesWindow}, and reads fall back to the primary while the replica
+ * is unreachable or more than {@code maxLag} behind, as measured every {@code checkInterval}.
+ */
+@ConfigurationProperties("flashcards.datasource.replica")
+public record ReplicaProperties(
+        @DefaultValue("false") boolean enabled,
+        String url,
+        String username,
+        String password,
+        @DefaultValue("5s") Duration readYourWritesWindow,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("2s") Duration checkInterval
+) {}
@@ -0,0 +1,92 @@
+package com.example.flashcards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Optional read replica ({@code flashcards.datasource.replica.enabled=true}). Replaces Boot's single
+ * pool with a primary and a replica pool behind a read/write router. Both pools are Hikari beans,
+ * so they get the usual pool metrics and, with virtual threads, their own admission gates.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "flashcards.datasource.replica", name = "enabled", havingValue = "true")
+    static class Routing {
+
+        @Bean(defaultCandidate = false)
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            dataSource.setPoolName("primary");
+            return dataSource;
+        }
+
+        @Bean(defaultCandidate = false)
+        @ConfigurationProperties("flashcards.datasource.replica.hikari")
+        public HikariDataSource replicaDataSource(ReplicaProperties replica, DataSourceProperties primary) {
+            if (replica.url() == null) throw new IllegalStateException("flashcards.datasource.replica.url is required");
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(primary.determineDriverClassName())
+                    .url(replica.url())
+                    .username(replica.username() != null ? replica.username() : primary.determineUsername())
+                    .password(replica.password() != null ? replica.password() : primary.determinePassword())
+                    .build();
+            dataSource.setPoolName("replica");
+            dataSource.setReadOnly(true);
+            return dataSource;
+        }
+
+        @Bean
+        public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                                   @Qualifier("replicaDataSource") DataSource replica,
+                                                   ReplicaProperties properties) {
+            return new ReplicaLagMonitor(primary, replica, properties.maxLag(), properties.checkInterval());
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                     @Qualifier("replicaDataSource") DataSource replica,
+                                     ReplicaLagMonitor monitor, MeterRegistry meterRegistry) {
+            return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, monitor, meterRegistry));
+        }
+
+        @Bean
+        public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaProperties properties) {
+            return new FilterRegistrationBean<>(new ReadYourWritesFilter(properties.readYourWritesWindow()));
+        }
+
+        /** Readiness follows the primary alone; a lagging or missing replica only costs read capacity. */
+        @Bean
+        public HealthIndicator dbHealthIndicator(@Qualifier("primaryDataSource") DataSource primary) {
+            return new DataSourceHealthIndicator(primary);
+        }
+
+        @Bean
+        public HealthIndicator replicaHealthIndicator(ReplicaLagMonitor monitor) {
+            return () -> (monitor.isUsable() ? Health.up() : Health.unknown())
+                    .withDetail("lagSeconds", monitor.getLagSeconds())
+                    .build();
+        }
+    }
+}
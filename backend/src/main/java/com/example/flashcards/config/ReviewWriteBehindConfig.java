@@ -0,0 +1,22 @@
+package com.example.flashcards.config;
+
+import com.example.flashcards.repository.UserProgressBatchRepository;
+import com.example.flashcards.service.ReviewWriteBehindBuffer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(ReviewWriteBehindProperties.class)
+public class ReviewWriteBehindConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "flashcards.reviews.write-behind.enabled", havingValue = "true")
+    public ReviewWriteBehindBuffer reviewWriteBehindBuffer(ReviewWriteBehindProperties properties,
+                                                           UserProgressBatchRepository repository,
+                                                           TransactionTemplate transactionTemplate) {
+        return new ReviewWriteBehindBuffer(properties, repository, transactionTemplate);
+    }
+}
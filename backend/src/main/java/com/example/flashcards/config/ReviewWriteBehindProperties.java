@@ -0,0 +1,25 @@
+package com.example.flashcards.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Write-behind for review answers. Acknowledged answers are logged to segments of
+ * {@code segmentSize} under {@code logDir} and written to the database every {@code flushInterval},
+ * or sooner once {@code maxPending} cards are waiting, in transactions of {@code flushBatchSize} rows.
+ * {@code fsync} forces the log to disk before an answer is acknowledged.
+ */
+@ConfigurationProperties("flashcards.reviews.write-behind")
+public record ReviewWriteBehindProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data/review-log") Path logDir,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("1s") Duration flushInterval,
+        @DefaultValue("100000") int maxPending,
+        @DefaultValue("5000") int flushBatchSize,
+        @DefaultValue("true") boolean fsync
+) {}
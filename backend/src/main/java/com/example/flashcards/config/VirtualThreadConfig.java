@@ -0,0 +1,51 @@
+package com.example.flashcards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Extras for {@code spring.threads.virtual.enabled=true}: Boot already runs Tomcat and async
+ * requests on virtual threads, this adds the JDBC admission gate and pinning reports.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    // each gate is bound as it is made, tagged with its pool, so a replica gets meters of its own
+    @Bean
+    @ConditionalOnProperty(prefix = "flashcards.jdbc.admission", name = "enabled", matchIfMissing = true)
+    public static BeanPostProcessor jdbcAdmissionGate(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) return bean;
+                // bound by hand: post-processors are created before configuration properties beans
+                JdbcAdmissionProperties properties = Binder.get(environment)
+                        .bindOrCreate("flashcards.jdbc.admission", JdbcAdmissionProperties.class);
+                int permits = properties.permits() != null ? properties.permits() : hikari.getMaximumPoolSize();
+                AdmissionControlledDataSource gate = new AdmissionControlledDataSource(hikari, permits, properties.timeout());
+                // Boot leaves its own pool unnamed until the first connection
+                String pool = hikari.getPoolName() != null ? hikari.getPoolName() : beanName;
+                meterRegistry.ifAvailable(registry -> gate.bindTo(registry, pool));
+                return gate;
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    public VirtualThreadPinningReporter virtualThreadPinningReporter(MeterRegistry meterRegistry, Environment environment) {
+        return new VirtualThreadPinningReporter(meterRegistry,
+                environment.getProperty("flashcards.virtual-threads.pinned-threshold", Duration.class, Duration.ofMillis(20)));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.flashcards.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Watches JFR's jdk.VirtualThreadPinned events and attributes each one to the Hikari pool, the
+ * Postgres driver or other code, as the counter {@code jvm.threads.virtual.pinned.source}. The first
+ * pin at each distinct frame is logged with its stack. Since JDK 24 monitors no longer pin, so
+ * any report here points at native frames or class initialisation on the request path.
+ */
+public class VirtualThreadPinningReporter implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningReporter.class);
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private final RecordingStream stream;
+
+    public VirtualThreadPinningReporter(MeterRegistry meterRegistry, Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        String source = "other";
+        String site = "unknown";
+        for (RecordedFrame frame : frames) {
+            if (!frame.isJavaFrame()) continue;
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.")) continue;
+            site = type + "." + frame.getMethod().getName();
+            source = type.startsWith("com.zaxxer.hikari.") ? "hikari" : type.startsWith("org.postgresql.") ? "pgjdbc" : "other";
+            break;
+        }
+        Counter.builder("jvm.threads.virtual.pinned.source")
+                .description("Virtual thread pins by the first non-JDK frame on the stack")
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
+        if (reportedSites.add(site)) {
+            StringBuilder stack = new StringBuilder();
+            for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+                RecordedFrame frame = frames.get(i);
+                stack.append("\n\tat ").append(frame.getMethod().getType().getName()).append('.')
+                        .append(frame.getMethod().getName()).append(':').append(frame.getLineNumber());
+            }
+            log.warn("Virtual thread pinned its carrier for {} ms in {} ({}){}",
+                    event.getDuration().toMillis(), site, source, stack);
+        }
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
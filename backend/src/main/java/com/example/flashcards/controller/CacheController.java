@@ -0,0 +1,25 @@
+package com.example.flashcards.controller;
+
+import com.example.flashcards.dto.CacheDtos;
+import com.example.flashcards.service.CacheStatsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    private final CacheStatsService cacheStatsService;
+
+    public CacheController(CacheStatsService cacheStatsService) {
+        this.cacheStatsService = cacheStatsService;
+    }
+
+    @StatementBudget(0)
+    @GetMapping("/stats")
+    public ResponseEntity<CacheDtos.Stats> stats() {
+        return ResponseEntity.ok(cacheStatsService.stats());
+    }
+}
@@ -2,13 +2,26 @@ package com.example.flashcards.controller;
 
 import com.example.flashcards.dto.CourseDtos;
 import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.dto.PageDtos;
+import com.example.flashcards.dto.ReorderDtos;
+import com.example.flashcards.service.CourseAccessService;
+import com.example.flashcards.service.CourseCloneService;
+import com.example.flashcards.service.CourseExportService;
+import com.example.flashcards.service.CoursePackService;
 import com.example.flashcards.service.CourseService;
 import com.example.flashcards.service.LevelService;
+import com.example.flashcards.service.ReorderService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/courses")
@@ -16,43 +29,105 @@ public class CoursesController {
 
     private final CourseService courseService;
     private final LevelService levelService;
+    private final CourseExportService courseExportService;
+    private final CourseCloneService courseCloneService;
+    private final CoursePackService coursePackService;
+    private final ReorderService reorderService;
+    private final CourseAccessService courseAccessService;
 
-    public CoursesController(CourseService courseService, LevelService levelService) {
+    private final VersionedResponses versionedResponses;
+
+    public CoursesController(CourseService courseService, LevelService levelService, CourseExportService courseExportService,
+                             CourseCloneService courseCloneService, CoursePackService coursePackService, ReorderService reorderService,
+                             CourseAccessService courseAccessService, VersionedResponses versionedResponses) {
         this.courseService = courseService;
         this.levelService = levelService;
+        this.courseExportService = courseExportService;
+        this.courseCloneService = courseCloneService;
+        this.coursePackService = coursePackService;
+        this.reorderService = reorderService;
+        this.courseAccessService = courseAccessService;
+        this.versionedResponses = versionedResponses;
     }
 
+    @StatementBudget(2)
     @GetMapping
-    public ResponseEntity<List<CourseDtos.Response>> listPublic() {
-        return ResponseEntity.ok(courseService.listPublic());
+    public ResponseEntity<PageDtos.Page<CourseDtos.Response>> listPublic(@RequestParam(required = false) Integer limit,
+                                                                         @RequestParam(required = false) String after) {
+        return ResponseEntity.ok(courseService.listPublic(limit, after));
     }
 
+    @StatementBudget(2)
     @PostMapping
     public ResponseEntity<CourseDtos.Response> create(@RequestBody @Valid CourseDtos.Create req) {
         return ResponseEntity.ok(courseService.create(req));
     }
 
+    @StatementBudget(3)
     @GetMapping("/{id}")
-    public ResponseEntity<CourseDtos.Response> get(@PathVariable Long id) {
-        return ResponseEntity.ok(courseService.getById(id));
+    public void get(@PathVariable Long id, @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId,
+                    HttpServletRequest request, HttpServletResponse response) throws IOException {
+        versionedResponses.write(() -> courseService.contentETag(id, viewerId), () -> courseService.getById(id), request, response);
     }
 
+    @StatementBudget(3)
     @PutMapping("/{id}")
     public ResponseEntity<CourseDtos.Response> update(@PathVariable Long id, @RequestBody CourseDtos.Update req) {
         return ResponseEntity.ok(courseService.update(id, req));
     }
 
+    @StatementBudget(3)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        courseService.delete(id);
-        return ResponseEntity.noContent().build();
+        return courseService.delete(id) ? ResponseEntity.noContent().build() : ResponseEntity.accepted().build();
     }
 
+    // one INSERT ... SELECT each for the course, its levels and its flashcards, however large it is
+    @StatementBudget(3)
+    @PostMapping("/{id}/clone")
+    public ResponseEntity<CourseDtos.Response> clone(@PathVariable Long id, @RequestBody @Valid CourseDtos.Clone req) {
+        return ResponseEntity.ok(courseCloneService.clone(id, req));
+    }
+
+    @StatementBudget(4)
+    @GetMapping("/{id}/tree")
+    public void tree(@PathVariable Long id, @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        versionedResponses.write(() -> courseService.contentETag(id, viewerId), () -> levelService.getCourseTree(id), request, response);
+    }
+
+    @StatementBudget(2)
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean gzip,
+                                                        @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId) {
+        StreamingResponseBody body = courseExportService.export(id, gzip, viewerId);
+        String filename = "course-" + id + (gzip ? ".ndjson.gz" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    // the course version, then levels and cards of changed levels when the pack has to be rebuilt
+    @StatementBudget(3)
+    @GetMapping("/{id}/pack")
+    public void pack(@PathVariable Long id, @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CoursePackService.Pack pack = coursePackService.get(id, viewerId);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("course-" + id + ".fcpk").build().toString());
+        FileResponses.write(pack.file(), CoursePackService.CONTENT_TYPE, pack.etag(), request, response);
+    }
+
+    @StatementBudget(3)
     @GetMapping("/{courseId}/levels")
-    public ResponseEntity<List<LevelDtos.Response>> listLevels(@PathVariable Long courseId) {
-        return ResponseEntity.ok(levelService.listByCourse(courseId));
+    public void listLevels(@PathVariable Long courseId, @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        versionedResponses.write(() -> courseService.contentETag(courseId, viewerId), () -> levelService.listByCourse(courseId), request, response);
     }
 
+    @StatementBudget(3)
     @PostMapping("/{courseId}/levels")
     public ResponseEntity<LevelDtos.Response> createLevel(@PathVariable Long courseId, @RequestBody @Valid LevelDtos.Create req) {
         if (!courseId.equals(req.courseId())) {
@@ -60,4 +135,29 @@ public class CoursesController {
         }
         return ResponseEntity.ok(levelService.create(req));
     }
+
+    // the course lock, then a neighbour read and an update per move; a move between levels numbered 1 apart
+    // adds the rebalance, a second neighbour read and the final position read (1 such move in the budget test)
+    @StatementBudget(6)
+    @PatchMapping("/{courseId}/levels:reorder")
+    public ResponseEntity<ReorderDtos.Result> reorderLevels(@PathVariable Long courseId, @RequestBody @Valid ReorderDtos.Request req) {
+        return ResponseEntity.ok(reorderService.reorderLevels(courseId, req));
+    }
+
+    // the course, the caller's grant unless they created it, the user, any existing grant, then the insert or update
+    @StatementBudget(5)
+    @PutMapping("/{courseId}/access/{userId}")
+    public ResponseEntity<CourseDtos.Access> grantAccess(@PathVariable Long courseId, @PathVariable Long userId,
+                                                         @RequestBody(required = false) CourseDtos.Grant req,
+                                                         @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId) {
+        return ResponseEntity.ok(courseAccessService.grant(courseId, userId, req != null ? req.accessType() : null, viewerId));
+    }
+
+    @StatementBudget(3)
+    @DeleteMapping("/{courseId}/access/{userId}")
+    public ResponseEntity<Void> revokeAccess(@PathVariable Long courseId, @PathVariable Long userId,
+                                             @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId) {
+        courseAccessService.revoke(courseId, userId, viewerId);
+        return ResponseEntity.noContent().build();
+    }
 }
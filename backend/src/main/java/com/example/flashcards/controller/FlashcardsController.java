@@ -16,16 +16,27 @@ public class FlashcardsController {
         this.flashcardService = flashcardService;
     }
 
+    // the flashcard, then its level and course for the access check unless they are cached
+    @StatementBudget(3)
     @GetMapping("/{id}")
-    public ResponseEntity<FlashcardDtos.Response> get(@PathVariable Long id) {
-        return ResponseEntity.ok(flashcardService.getById(id));
+    public ResponseEntity<FlashcardDtos.Response> get(@PathVariable Long id, @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId) {
+        return ResponseEntity.ok(flashcardService.getById(id, viewerId));
     }
 
+    @StatementBudget(2)
     @PutMapping("/{id}")
     public ResponseEntity<FlashcardDtos.Response> update(@PathVariable Long id, @RequestBody @Valid FlashcardDtos.Update req) {
         return ResponseEntity.ok(flashcardService.update(id, req));
     }
 
+    @StatementBudget(3)
+    @PostMapping("/{id}/check")
+    public ResponseEntity<FlashcardDtos.CheckResult> check(@PathVariable Long id, @RequestBody @Valid FlashcardDtos.Check req,
+                                                           @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId) {
+        return ResponseEntity.ok(flashcardService.check(id, req.answer(), viewerId));
+    }
+
+    @StatementBudget(3)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         flashcardService.delete(id);
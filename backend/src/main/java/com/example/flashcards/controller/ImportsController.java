@@ -0,0 +1,34 @@
+package com.example.flashcards.controller;
+
+import com.example.flashcards.dto.ImportDtos;
+import com.example.flashcards.service.ImportJobRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/imports")
+public class ImportsController {
+
+    private final ImportJobRegistry importJobRegistry;
+
+    public ImportsController(ImportJobRegistry importJobRegistry) {
+        this.importJobRegistry = importJobRegistry;
+    }
+
+    @StatementBudget(0)
+    @GetMapping
+    public ResponseEntity<List<ImportDtos.Report>> list() {
+        return ResponseEntity.ok(importJobRegistry.list());
+    }
+
+    @StatementBudget(0)
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportDtos.Report> get(@PathVariable String jobId) {
+        return ResponseEntity.ok(importJobRegistry.get(jobId));
+    }
+}
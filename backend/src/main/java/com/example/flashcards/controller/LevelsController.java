@@ -1,14 +1,23 @@
 package com.example.flashcards.controller;
 
 import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.ImportDtos;
 import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.dto.ReorderDtos;
+import com.example.flashcards.service.FlashcardImportService;
 import com.example.flashcards.service.FlashcardService;
 import com.example.flashcards.service.LevelService;
+import com.example.flashcards.service.ReorderService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/levels")
@@ -16,22 +25,39 @@ public class LevelsController {
 
     private final LevelService levelService;
     private final FlashcardService flashcardService;
+    private final FlashcardImportService flashcardImportService;
+    private final ReorderService reorderService;
 
-    public LevelsController(LevelService levelService, FlashcardService flashcardService) {
+    private final VersionedResponses versionedResponses;
+
+    public LevelsController(LevelService levelService, FlashcardService flashcardService, FlashcardImportService flashcardImportService,
+                            ReorderService reorderService, VersionedResponses versionedResponses) {
         this.levelService = levelService;
         this.flashcardService = flashcardService;
+        this.flashcardImportService = flashcardImportService;
+        this.reorderService = reorderService;
+        this.versionedResponses = versionedResponses;
     }
 
+    @StatementBudget(3)
     @GetMapping("/{id}")
-    public ResponseEntity<LevelDtos.Response> get(@PathVariable Long id) {
-        return ResponseEntity.ok(levelService.getById(id));
+    public void get(@PathVariable Long id, @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId,
+                    HttpServletRequest request, HttpServletResponse response) throws IOException {
+        versionedResponses.write(() -> levelService.contentETag(id, viewerId), () -> levelService.getById(id), request, response);
     }
 
+    @StatementBudget(2)
     @GetMapping("/{levelId}/flashcards")
-    public ResponseEntity<List<FlashcardDtos.Response>> listFlashcards(@PathVariable Long levelId) {
-        return ResponseEntity.ok(flashcardService.listByLevel(levelId));
+    public void listFlashcards(@PathVariable Long levelId,
+                               @RequestParam(required = false) Integer limit,
+                               @RequestParam(required = false) String after,
+                               @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        versionedResponses.write(() -> levelService.contentETag(levelId, viewerId), () -> flashcardService.listByLevel(levelId, limit, after),
+                request, response);
     }
 
+    @StatementBudget(2)
     @PostMapping("/{levelId}/flashcards")
     public ResponseEntity<FlashcardDtos.Response> createFlashcard(@PathVariable Long levelId, @RequestBody @Valid FlashcardDtos.Create req) {
         if (!levelId.equals(req.levelId())) {
@@ -39,4 +65,20 @@ public class LevelsController {
         }
         return ResponseEntity.ok(flashcardService.create(req));
     }
+
+    @StatementBudget(3)
+    @PostMapping(value = "/{levelId}/flashcards:import", consumes = {"text/csv", "application/x-ndjson", "application/ndjson"})
+    public ResponseEntity<ImportDtos.Report> importFlashcards(@PathVariable Long levelId,
+                                                             @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                             InputStream body) {
+        ImportDtos.Format format = "csv".equalsIgnoreCase(contentType.getSubtype()) ? ImportDtos.Format.CSV : ImportDtos.Format.NDJSON;
+        return ResponseEntity.ok(flashcardImportService.importInto(levelId, format, body));
+    }
+
+    // the level lock, then a neighbour read and an update per move (3 moves in the budget test)
+    @StatementBudget(7)
+    @PatchMapping("/{levelId}/flashcards:reorder")
+    public ResponseEntity<ReorderDtos.Result> reorderFlashcards(@PathVariable Long levelId, @RequestBody @Valid ReorderDtos.Request req) {
+        return ResponseEntity.ok(reorderService.reorderFlashcards(levelId, req));
+    }
 }
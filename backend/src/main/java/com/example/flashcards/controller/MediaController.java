@@ -0,0 +1,42 @@
+package com.example.flashcards.controller;
+
+import com.example.flashcards.dto.MediaDtos;
+import com.example.flashcards.service.MediaStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/media")
+public class MediaController {
+    private static final String CACHE_FOREVER = "public, max-age=31536000, immutable";
+
+    private final MediaStore mediaStore;
+
+    public MediaController(MediaStore mediaStore) {
+        this.mediaStore = mediaStore;
+    }
+
+    @StatementBudget(0)
+    @PostMapping(consumes = {"image/*", "audio/*"})
+    public ResponseEntity<MediaDtos.Response> upload(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        MediaDtos.Response stored = mediaStore.store(contentType.split(";")[0].trim(), body);
+        return stored.deduplicated()
+                ? ResponseEntity.ok(stored)
+                : ResponseEntity.created(URI.create(stored.url())).body(stored);
+    }
+
+    @StatementBudget(0)
+    @GetMapping("/{name}")
+    public void get(@PathVariable String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MediaStore.StoredFile file = mediaStore.resolve(name);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_FOREVER);
+        FileResponses.write(file.path(), file.contentType(), file.etag(), request, response);
+    }
+}
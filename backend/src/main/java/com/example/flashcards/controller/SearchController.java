@@ -0,0 +1,32 @@
+package com.example.flashcards.controller;
+
+import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.PageDtos;
+import com.example.flashcards.service.FlashcardSearchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+
+    private final FlashcardSearchService flashcardSearchService;
+
+    public SearchController(FlashcardSearchService flashcardSearchService) {
+        this.flashcardSearchService = flashcardSearchService;
+    }
+
+    @StatementBudget(2)
+    @GetMapping("/flashcards")
+    public ResponseEntity<PageDtos.Page<FlashcardDtos.SearchHit>> searchFlashcards(@RequestParam String q,
+                                                                                   @RequestParam(required = false) Long courseId,
+                                                                                   @RequestParam(required = false) Integer limit,
+                                                                                   @RequestParam(required = false) String after,
+                                                                                   @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId) {
+        return ResponseEntity.ok(flashcardSearchService.search(q, courseId, limit, after, viewerId));
+    }
+}
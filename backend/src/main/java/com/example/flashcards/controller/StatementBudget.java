@@ -0,0 +1,20 @@
+package com.example.flashcards.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most SQL statements one request to the annotated endpoint may execute, with a cold second-level
+ * cache. Every handler method must declare one; EndpointStatementBudgetTest runs each endpoint
+ * against content where every collection has several rows and fails when a budget is exceeded, so
+ * a query per row shows up as an overrun. A JDBC batch counts as one statement.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+    int value();
+}
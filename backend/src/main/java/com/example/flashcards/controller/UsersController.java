@@ -1,7 +1,13 @@
 package com.example.flashcards.controller;
 
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.PageDtos;
+import com.example.flashcards.dto.ReviewDtos;
 import com.example.flashcards.dto.UserDtos;
+import com.example.flashcards.service.CourseService;
+import com.example.flashcards.service.ReviewService;
 import com.example.flashcards.service.UserService;
+import com.example.flashcards.service.UserStatsService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,18 +17,66 @@ import org.springframework.web.bind.annotation.*;
 public class UsersController {
 
     private final UserService userService;
+    private final ReviewService reviewService;
+    private final UserStatsService userStatsService;
+    private final CourseService courseService;
 
-    public UsersController(UserService userService) {
+    public UsersController(UserService userService, ReviewService reviewService, UserStatsService userStatsService,
+                           CourseService courseService) {
         this.userService = userService;
+        this.reviewService = reviewService;
+        this.userStatsService = userStatsService;
+        this.courseService = courseService;
     }
 
+    @StatementBudget(1)
     @PostMapping
     public ResponseEntity<UserDtos.Response> create(@RequestBody @Valid UserDtos.Create req) {
         return ResponseEntity.ok(userService.create(req));
     }
 
+    @StatementBudget(1)
     @GetMapping("/{id}")
     public ResponseEntity<UserDtos.Response> get(@PathVariable Long id) {
         return ResponseEntity.ok(userService.getById(id));
     }
+
+    @StatementBudget(1)
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<UserDtos.Stats> stats(@PathVariable Long id,
+                                                @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId) {
+        return ResponseEntity.ok(userStatsService.get(id, viewerId));
+    }
+
+    // the user, then the courses visible to them; the grants come from memory once loaded
+    @StatementBudget(4)
+    @GetMapping("/{id}/courses")
+    public ResponseEntity<PageDtos.Page<CourseDtos.Response>> listCourses(@PathVariable Long id,
+                                                                          @RequestParam(required = false) Integer limit,
+                                                                          @RequestParam(required = false) String after,
+                                                                          @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId) {
+        return ResponseEntity.ok(courseService.listForUser(id, viewerId, limit, after));
+    }
+
+    @StatementBudget(4)
+    @PostMapping("/{id}/reviews")
+    public ResponseEntity<ReviewDtos.Result> submitReview(@PathVariable Long id, @RequestBody @Valid ReviewDtos.Submit req) {
+        return ResponseEntity.ok(reviewService.submit(id, req));
+    }
+
+    @StatementBudget(4)
+    @PostMapping("/{id}/reviews:batch")
+    public ResponseEntity<ReviewDtos.BatchResult> submitReviewBatch(@PathVariable Long id, @RequestBody @Valid ReviewDtos.Batch req) {
+        return ResponseEntity.ok(reviewService.submitBatch(id, req.items()));
+    }
+
+    @StatementBudget(2)
+    @GetMapping("/{id}/due")
+    public ResponseEntity<ReviewDtos.DuePage> listDue(@PathVariable Long id,
+                                                      @RequestParam(required = false) Long courseId,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      @RequestParam(required = false) String after,
+                                                      @RequestHeader(name = Viewer.HEADER, required = false) Long viewerId) {
+        return ResponseEntity.ok(reviewService.listDue(id, viewerId, courseId, limit, after));
+    }
 }
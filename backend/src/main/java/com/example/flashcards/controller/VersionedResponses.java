@@ -0,0 +1,178 @@
+package com.example.flashcards.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes read responses identified by a content-version ETag. Their bytes can only change along
+ * with the version, so the serialized and, above the threshold, gzip-compressed body is cached per
+ * URI, version, format and encoding: a repeated read runs the version query and nothing else. Tomcat's
+ * own compression skips responses with a strong ETag, which is why these are compressed here.
+ * Each format and encoding is a separate representation with its own ETag.
+ * <p>
+ * The version and the body are read in one repeatable-read transaction with the second-level cache
+ * ignored. Set-based SQL bumps the version at once but reaches that cache only through an
+ * asynchronous notification, so a body built from it could be cached under a version it predates.
+ */
+@Component
+public class VersionedResponses {
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final List<Format> formats;
+    private final int compressionThreshold;
+    private final Cache<Key, Encoded> cache;
+    private final TransactionTemplate snapshot;
+    private final EntityManager entityManager;
+
+    private record Format(MediaType mediaType, String tag, ObjectMapper mapper) {}
+
+    // resource is the ETag up to its version, e.g. course-42, so a change to it drops every version
+    private record Key(String uri, String etag, String resource) {}
+
+    private record Encoded(byte[] body, boolean gzip) {}
+
+    private record Snapshot(String tag, boolean notModified, Encoded cached, Object body) {}
+
+    VersionedResponses(ObjectMapper objectMapper,
+                       MappingJackson2CborHttpMessageConverter cbor,
+                       MappingJackson2SmileHttpMessageConverter smile,
+                       MeterRegistry registry,
+                       PlatformTransactionManager transactionManager,
+                       EntityManager entityManager,
+                       @Value("${flashcards.responses.compression-threshold:2KB}") DataSize compressionThreshold,
+                       @Value("${flashcards.responses.cache-size:64MB}") DataSize cacheSize) {
+        // in order of preference when the client accepts several equally
+        this.formats = List.of(
+                new Format(MediaType.APPLICATION_JSON, "", objectMapper),
+                new Format(MediaType.APPLICATION_CBOR, "-cbor", cbor.getObjectMapper()),
+                new Format(new MediaType("application", "x-jackson-smile"), "-smile", smile.getObjectMapper()));
+        this.compressionThreshold = (int) compressionThreshold.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(cacheSize.toBytes())
+                .<Key, Encoded>weigher((key, value) -> value.body().length + key.uri().length() + ENTRY_OVERHEAD)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "versioned_responses");
+        this.snapshot = new TransactionTemplate(transactionManager);
+        this.snapshot.setReadOnly(true);
+        this.snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Answers 304 for a matching If-None-Match, otherwise writes the body for the version, built only on a
+     * cache miss. {@code etag} reads the version and checks access; {@code body} runs in the same snapshot.
+     */
+    void write(Supplier<String> etag, Supplier<?> body, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Format format = negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String query = request.getQueryString();
+        String uri = query == null ? request.getRequestURI() : request.getRequestURI() + "?" + query;
+        Snapshot read = snapshot.execute(status -> {
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            String version = etag.get();
+            String tag = version.substring(0, version.length() - 1) + format.tag() + (gzip ? "-gz" : "") + "\"";
+            if (FileResponses.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), tag)) return new Snapshot(tag, true, null, null);
+            // not computeIfAbsent: the body runs queries, which must not block other keys or pin a virtual thread
+            Encoded cached = cache.getIfPresent(new Key(uri, tag, resource(version)));
+            return new Snapshot(tag, false, cached, cached == null ? body.get() : null);
+        });
+        response.setHeader(HttpHeaders.ETAG, read.tag());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING + ", " + Viewer.HEADER);
+        if (read.notModified()) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        Encoded encoded = read.cached();
+        if (encoded == null) {
+            encoded = encode(format.mapper().writeValueAsBytes(read.body()), gzip);
+            cache.put(new Key(uri, read.tag(), resource(read.tag())), encoded);
+        }
+        response.setContentType(format.mediaType().toString());
+        if (encoded.gzip()) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setContentLength(encoded.body().length);
+        response.getOutputStream().write(encoded.body());
+    }
+
+    /** Drops every cached version of the given resources, e.g. {@code course-42} or {@code level-7}. */
+    public void evict(Collection<String> resources) {
+        if (resources.isEmpty()) return;
+        cache.asMap().keySet().removeIf(key -> resources.contains(key.resource()));
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    private static String resource(String etag) {
+        return etag.substring(1, etag.indexOf("-v"));
+    }
+
+    private Encoded encode(byte[] bytes, boolean gzip) throws IOException {
+        if (!gzip || bytes.length < compressionThreshold) return new Encoded(bytes, false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream zipped = new GZIPOutputStream(out, 8192)) {
+            zipped.write(bytes);
+        }
+        return new Encoded(out.toByteArray(), true);
+    }
+
+    /** The most preferred format the client accepts; JSON when it accepts none of them. */
+    private Format negotiate(String accept) {
+        if (accept == null || accept.isBlank()) return formats.getFirst();
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException ex) {
+            return formats.getFirst();
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) continue;
+            for (Format format : formats) {
+                if (type.includes(format.mediaType())) return format;
+            }
+        }
+        return formats.getFirst();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) continue;
+            if (parts.length > 1 && parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?")) continue;
+            return true;
+        }
+        return false;
+    }
+}
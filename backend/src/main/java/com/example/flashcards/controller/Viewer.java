@@ -0,0 +1,12 @@
+package com.example.flashcards.controller;
+
+/**
+ * Who is reading. There is no authentication yet, so the caller names themselves in a header;
+ * without it a request sees public courses only.
+ */
+final class Viewer {
+    static final String HEADER = "X-User-Id";
+
+    private Viewer() {
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.flashcards.dto;
+
+import java.util.List;
+
+public class CacheDtos {
+    public record RegionStats(
+            String region,
+            long size,
+            long hits,
+            long misses,
+            long puts,
+            long removals,
+            long evictions
+    ) {}
+
+    public record Invalidation(
+            boolean listening,
+            long messagesReceived,
+            long entriesEvicted,
+            long fullEvictions
+    ) {}
+
+    public record Stats(
+            List<RegionStats> regions,
+            Invalidation invalidation
+    ) {}
+}
@@ -1,8 +1,10 @@
 package com.example.flashcards.dto;
 
+import com.example.flashcards.model.UserCourseAccess;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 public class CourseDtos {
@@ -23,6 +25,13 @@ public class CourseDtos {
             Boolean isPublic
     ) {}
 
+    /** A copy owned by {@code createdByUserId}; the name defaults to the source's, and the copy is private unless asked otherwise. */
+    public record Clone(
+            @NotNull Long createdByUserId,
+            String name,
+            Boolean isPublic
+    ) {}
+
     public record LevelSummary(
             Long id,
             String name,
@@ -39,4 +48,27 @@ public class CourseDtos {
             Long createdByUserId,
             List<LevelSummary> levels
     ) {}
+
+    public record Tree(
+            Long id,
+            String name,
+            String description,
+            String taughtLanguage,
+            String learningLanguage,
+            boolean isPublic,
+            Long createdByUserId,
+            List<LevelDtos.Response> levels
+    ) {}
+
+    /** Lets a user read a private course; the access type defaults to STUDENT. */
+    public record Grant(
+            UserCourseAccess.AccessType accessType
+    ) {}
+
+    public record Access(
+            Long courseId,
+            Long userId,
+            UserCourseAccess.AccessType accessType,
+            OffsetDateTime grantedAt
+    ) {}
 }
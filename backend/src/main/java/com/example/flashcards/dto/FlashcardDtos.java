@@ -2,6 +2,7 @@ package com.example.flashcards.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 public class FlashcardDtos {
     public record Create(
@@ -33,4 +34,28 @@ public class FlashcardDtos {
             String exampleSentence,
             Integer orderPosition
     ) {}
+
+    public record SearchHit(
+            Long id,
+            Long levelId,
+            Long courseId,
+            String sideA,
+            String sideB,
+            String exampleSentence,
+            float rank
+    ) {}
+
+    public record Check(@NotNull @Size(max = 500) String answer) {}
+
+    public enum Verdict {
+        EXACT,
+        CLOSE,
+        WRONG
+    }
+
+    public record CheckResult(
+            Verdict verdict,
+            int distance,
+            String expected
+    ) {}
 }
@@ -0,0 +1,48 @@
+package com.example.flashcards.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public class ImportDtos {
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public record Row(
+            @NotBlank String sideA,
+            @NotBlank String sideB,
+            String imageUrl,
+            String audioMp3Url,
+            String exampleSentence,
+            Integer orderPosition
+    ) {}
+
+    public record RowError(
+            long row,
+            String message
+    ) {}
+
+    public record Report(
+            String jobId,
+            Long levelId,
+            Format format,
+            Status status,
+            OffsetDateTime startedAt,
+            long rowsRead,
+            long rowsImported,
+            long rowsRejected,
+            long elapsedMillis,
+            double rowsPerSecond,
+            List<RowError> errors,
+            String failure
+    ) {}
+}
@@ -0,0 +1,22 @@
+package com.example.flashcards.dto;
+
+import java.util.Map;
+
+public class MediaDtos {
+    public enum Kind {
+        IMAGE,
+        AUDIO
+    }
+
+    public record Response(
+            String id,
+            Kind kind,
+            String contentType,
+            long size,
+            String url,
+            Integer width,
+            Integer height,
+            Map<Integer, String> thumbnails,
+            boolean deduplicated
+    ) {}
+}
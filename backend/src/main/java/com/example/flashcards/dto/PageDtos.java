@@ -0,0 +1,10 @@
+package com.example.flashcards.dto;
+
+import java.util.List;
+
+public class PageDtos {
+    public record Page<T>(
+            List<T> items,
+            String nextCursor
+    ) {}
+}
@@ -0,0 +1,31 @@
+package com.example.flashcards.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class ReorderDtos {
+    /** Moves {@code id} directly before {@code beforeId} or directly after {@code afterId}; exactly one is set. */
+    public record Move(
+            @NotNull Long id,
+            Long beforeId,
+            Long afterId
+    ) {}
+
+    public record Request(
+            @NotEmpty @Size(max = 1000) List<@Valid @NotNull Move> moves
+    ) {}
+
+    public record Position(
+            Long id,
+            Integer orderPosition
+    ) {}
+
+    public record Result(
+            List<Position> positions,
+            boolean rebalanced
+    ) {}
+}
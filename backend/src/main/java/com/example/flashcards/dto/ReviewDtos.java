@@ -0,0 +1,72 @@
+package com.example.flashcards.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public class ReviewDtos {
+    public record Submit(
+            @NotNull Long flashcardId,
+            @NotNull @Min(0) @Max(5) Integer grade,
+            OffsetDateTime answeredAt
+    ) {}
+
+    public record Result(
+            Long flashcardId,
+            int repetitions,
+            int intervalDays,
+            float easeFactor,
+            OffsetDateTime nextReview
+    ) {}
+
+    public record BatchItem(
+            @NotNull Long flashcardId,
+            @NotNull @Min(0) @Max(5) Integer grade,
+            @NotNull OffsetDateTime answeredAt
+    ) {}
+
+    public record Batch(
+            @NotEmpty @Size(max = 1000) List<@Valid @NotNull BatchItem> items
+    ) {}
+
+    public enum ItemStatus {
+        APPLIED,
+        DUPLICATE,
+        OUT_OF_DATE,
+        UNKNOWN_FLASHCARD
+    }
+
+    public record ItemResult(
+            Long flashcardId,
+            OffsetDateTime answeredAt,
+            ItemStatus status,
+            Result schedule
+    ) {}
+
+    public record BatchResult(
+            int applied,
+            List<ItemResult> results
+    ) {}
+
+    public record DueCard(
+            Long flashcardId,
+            Long levelId,
+            String sideA,
+            String sideB,
+            int timesSeen,
+            int intervalDays,
+            float easeFactor,
+            OffsetDateTime nextReview
+    ) {}
+
+    public record DuePage(
+            List<DueCard> cards,
+            String nextCursor
+    ) {}
+}
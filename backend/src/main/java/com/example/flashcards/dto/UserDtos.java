@@ -3,6 +3,9 @@ package com.example.flashcards.dto;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
+import java.time.LocalDate;
+import java.util.List;
+
 public class UserDtos {
     public record Create(
             @NotBlank String username,
@@ -15,4 +18,27 @@ public class UserDtos {
             String username,
             String email
     ) {}
+
+    public record CourseStats(
+            Long courseId,
+            int cardsSeen,
+            int cardsLearned,
+            int dueToday,
+            long reviews,
+            double accuracy,
+            int streakDays,
+            LocalDate lastActiveDay
+    ) {}
+
+    public record Stats(
+            Long userId,
+            int cardsSeen,
+            int cardsLearned,
+            int dueToday,
+            long reviews,
+            double accuracy,
+            int streakDays,
+            int coursesStarted,
+            List<CourseStats> courses
+    ) {}
 }
@@ -1,11 +1,17 @@
 package com.example.flashcards.model;
 
+import com.example.flashcards.config.ContentCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ContentCacheConfig.COURSE_REGION)
 @Table(name = "courses")
 public class Course extends BaseEntity {
 
@@ -31,7 +37,11 @@ public class Course extends BaseEntity {
     @JoinColumn(name = "created_by_user_id", nullable = false)
     private User createdBy;
 
+    @Column(name = "deleted_at")
+    private OffsetDateTime deletedAt;
+
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ContentCacheConfig.COURSE_LEVELS_REGION)
     @OrderBy("orderPosition ASC, id ASC")
     private List<Level> levels = new ArrayList<>();
 
@@ -87,6 +97,14 @@ public class Course extends BaseEntity {
         this.createdBy = createdBy;
     }
 
+    public OffsetDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(OffsetDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
     public List<Level> getLevels() {
         return levels;
     }
@@ -1,13 +1,20 @@
 package com.example.flashcards.model;
 
+import com.example.flashcards.common.AnswerText;
+import com.example.flashcards.config.ContentCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ContentCacheConfig.FLASHCARD_REGION)
 @Table(name = "flashcards")
 public class Flashcard extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flashcards_id_seq")
+    @SequenceGenerator(name = "flashcards_id_seq", sequenceName = "flashcards_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -20,6 +27,9 @@ public class Flashcard extends BaseEntity {
     @Column(name = "side_b", nullable = false, columnDefinition = "text")
     private String sideB;
 
+    @Column(name = "side_b_normalized", columnDefinition = "text")
+    private String sideBNormalized;
+
     @Column(name = "image_url")
     private String imageUrl;
 
@@ -58,6 +68,12 @@ public class Flashcard extends BaseEntity {
 
     public void setSideB(String sideB) {
         this.sideB = sideB;
+        this.sideBNormalized = AnswerText.answerKey(sideB);
+    }
+
+    /** Accepted answers for {@link #getSideB()}, see {@link AnswerText#answerKey(String)}; null for rows not yet keyed. */
+    public String getSideBNormalized() {
+        return sideBNormalized;
     }
 
     public String getImageUrl() {
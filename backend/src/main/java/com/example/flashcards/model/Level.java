@@ -1,11 +1,16 @@
 package com.example.flashcards.model;
 
+import com.example.flashcards.config.ContentCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ContentCacheConfig.LEVEL_REGION)
 @Table(name = "levels")
 public class Level extends BaseEntity {
 
@@ -26,6 +31,7 @@ public class Level extends BaseEntity {
     private Integer orderPosition;
 
     @OneToMany(mappedBy = "level", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ContentCacheConfig.LEVEL_FLASHCARDS_REGION)
     @OrderBy("orderPosition ASC, id ASC")
     private List<Flashcard> flashcards = new ArrayList<>();
 
@@ -0,0 +1,72 @@
+package com.example.flashcards.model;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+/** A grant letting a user read a course that is neither public nor theirs. */
+@Entity
+@Table(name = "user_course_access")
+public class UserCourseAccess {
+
+    public enum AccessType {
+        STUDENT,
+        TEACHER
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "course_id", nullable = false)
+    private Course course;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "access_type", nullable = false)
+    private AccessType accessType;
+
+    @Column(name = "granted_at", nullable = false)
+    private OffsetDateTime grantedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.grantedAt = OffsetDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Course getCourse() {
+        return course;
+    }
+
+    public void setCourse(Course course) {
+        this.course = course;
+    }
+
+    public AccessType getAccessType() {
+        return accessType;
+    }
+
+    public void setAccessType(AccessType accessType) {
+        this.accessType = accessType;
+    }
+
+    public OffsetDateTime getGrantedAt() {
+        return grantedAt;
+    }
+}
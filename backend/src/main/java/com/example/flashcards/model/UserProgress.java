@@ -0,0 +1,137 @@
+package com.example.flashcards.model;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+@Entity
+@Table(name = "user_progress")
+public class UserProgress extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "flashcard_id", nullable = false)
+    private Flashcard flashcard;
+
+    @Column(name = "flashcard_id", insertable = false, updatable = false)
+    private Long flashcardId;
+
+    @Column(name = "times_seen", nullable = false)
+    private int timesSeen;
+
+    @Column(name = "correct_answers", nullable = false)
+    private int correctAnswers;
+
+    @Column(name = "incorrect_answers", nullable = false)
+    private int incorrectAnswers;
+
+    @Column(name = "last_reviewed")
+    private OffsetDateTime lastReviewed;
+
+    @Column(name = "next_review")
+    private OffsetDateTime nextReview;
+
+    @Column(name = "ease_factor")
+    private Float easeFactor;
+
+    @Column(name = "interval_days", nullable = false)
+    private int intervalDays;
+
+    @Column(nullable = false)
+    private int repetitions;
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Flashcard getFlashcard() {
+        return flashcard;
+    }
+
+    public void setFlashcard(Flashcard flashcard) {
+        this.flashcard = flashcard;
+    }
+
+    public Long getFlashcardId() {
+        return flashcardId;
+    }
+
+    public int getTimesSeen() {
+        return timesSeen;
+    }
+
+    public void setTimesSeen(int timesSeen) {
+        this.timesSeen = timesSeen;
+    }
+
+    public int getCorrectAnswers() {
+        return correctAnswers;
+    }
+
+    public void setCorrectAnswers(int correctAnswers) {
+        this.correctAnswers = correctAnswers;
+    }
+
+    public int getIncorrectAnswers() {
+        return incorrectAnswers;
+    }
+
+    public void setIncorrectAnswers(int incorrectAnswers) {
+        this.incorrectAnswers = incorrectAnswers;
+    }
+
+    public OffsetDateTime getLastReviewed() {
+        return lastReviewed;
+    }
+
+    public void setLastReviewed(OffsetDateTime lastReviewed) {
+        this.lastReviewed = lastReviewed;
+    }
+
+    public OffsetDateTime getNextReview() {
+        return nextReview;
+    }
+
+    public void setNextReview(OffsetDateTime nextReview) {
+        this.nextReview = nextReview;
+    }
+
+    public Float getEaseFactor() {
+        return easeFactor;
+    }
+
+    public void setEaseFactor(Float easeFactor) {
+        this.easeFactor = easeFactor;
+    }
+
+    public int getIntervalDays() {
+        return intervalDays;
+    }
+
+    public void setIntervalDays(int intervalDays) {
+        this.intervalDays = intervalDays;
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    public void setRepetitions(int repetitions) {
+        this.repetitions = repetitions;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.flashcards.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Copies a course, its levels and its flashcards with one {@code INSERT ... SELECT} per table, so
+ * the rows never leave the database. Level ids are drawn from the sequence up front, which gives the
+ * old-to-new mapping the flashcard copy joins against.
+ */
+@Repository
+public class CourseCloneRepository {
+    private static final String COURSE_SQL = """
+            insert into courses (name, description, taught_language, learning_language, is_public, created_by_user_id)
+            select coalesce(?, c.name), c.description, c.taught_language, c.learning_language, ?, u.id
+            from courses c
+            join users u on u.id = ?
+            where c.id = ? and c.deleted_at is null
+              and (c.is_public or c.created_by_user_id = u.id
+                   or exists (select 1 from user_course_access a where a.user_id = u.id and a.course_id = c.id))
+            returning id, name, description, taught_language, learning_language, is_public, created_by_user_id
+            """;
+    private static final String LEVELS_SQL = """
+            with source as (
+                select id, name, description, order_position, nextval('levels_id_seq') as new_id
+                from levels
+                where course_id = ?
+            ), copied as (
+                insert into levels (id, course_id, name, description, order_position)
+                select new_id, ?, name, description, order_position
+                from source
+            )
+            select id, new_id, name, order_position
+            from source
+            order by order_position, id
+            """;
+    // the answer key comes along, so cloned cards grade without recomputing it
+    private static final String FLASHCARDS_SQL = """
+            insert into flashcards (level_id, side_a, side_b, side_b_normalized, image_url, audio_mp3_url, example_sentence, order_position)
+            select m.new_id, f.side_a, f.side_b, f.side_b_normalized, f.image_url, f.audio_mp3_url, f.example_sentence, f.order_position
+            from flashcards f
+            join unnest(?::bigint[], ?::bigint[]) as m(old_id, new_id) on f.level_id = m.old_id
+            """;
+
+    public record CourseRow(long id, String name, String description, String taughtLanguage, String learningLanguage,
+                            boolean isPublic, long createdByUserId) {}
+
+    public record LevelMapping(long sourceId, long id, String name, Integer orderPosition) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CourseCloneRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Empty when the source course or the new owner does not exist, or the owner may not read the source. */
+    public Optional<CourseRow> copyCourse(long sourceId, long ownerId, String name, boolean isPublic) {
+        return jdbcTemplate.query(COURSE_SQL, (rs, i) -> new CourseRow(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getString("taught_language"),
+                rs.getString("learning_language"),
+                rs.getBoolean("is_public"),
+                rs.getLong("created_by_user_id")
+        ), name, isPublic, ownerId, sourceId).stream().findFirst();
+    }
+
+    /** In display order. */
+    public List<LevelMapping> copyLevels(long sourceId, long targetId) {
+        return jdbcTemplate.query(LEVELS_SQL, (rs, i) -> new LevelMapping(
+                rs.getLong("id"),
+                rs.getLong("new_id"),
+                rs.getString("name"),
+                (Integer) rs.getObject("order_position")
+        ), sourceId, targetId);
+    }
+
+    /** Returns the number of flashcards copied. */
+    public int copyFlashcards(List<LevelMapping> levels) {
+        Long[] sourceIds = levels.stream().map(LevelMapping::sourceId).toArray(Long[]::new);
+        Long[] targetIds = levels.stream().map(LevelMapping::id).toArray(Long[]::new);
+        return jdbcTemplate.update(FLASHCARDS_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", sourceIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", targetIds));
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.flashcards.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/** The rows an offline course pack is built from, with the content versions that key its cached parts. */
+@Repository
+public class CoursePackRepository {
+    private static final String COURSE_SQL = """
+            select id, content_version, name, description, taught_language, learning_language, is_public, created_by_user_id
+            from courses
+            where id = ? and deleted_at is null
+            """;
+    private static final String LEVELS_SQL = """
+            select id, content_version, name, description, order_position
+            from levels
+            where course_id = ?
+            order by order_position, id
+            """;
+    private static final String FLASHCARDS_SQL = """
+            select id, level_id, side_a, side_b, image_url, audio_mp3_url, example_sentence, order_position
+            from flashcards
+            where level_id = any(?)
+            order by level_id, order_position, id
+            """;
+
+    public record CourseRow(long id, long contentVersion, String name, String description, String taughtLanguage,
+                            String learningLanguage, boolean isPublic, long createdByUserId) {}
+
+    public record LevelRow(long id, long contentVersion, String name, String description, Integer orderPosition) {}
+
+    public record FlashcardRow(long id, long levelId, String sideA, String sideB, String imageUrl, String audioMp3Url,
+                               String exampleSentence, Integer orderPosition) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CoursePackRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<CourseRow> findCourse(long courseId) {
+        return jdbcTemplate.query(COURSE_SQL, (rs, i) -> new CourseRow(
+                rs.getLong("id"),
+                rs.getLong("content_version"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getString("taught_language"),
+                rs.getString("learning_language"),
+                rs.getBoolean("is_public"),
+                rs.getLong("created_by_user_id")
+        ), courseId).stream().findFirst();
+    }
+
+    /** In display order. */
+    public List<LevelRow> findLevels(long courseId) {
+        return jdbcTemplate.query(LEVELS_SQL, (rs, i) -> new LevelRow(
+                rs.getLong("id"),
+                rs.getLong("content_version"),
+                rs.getString("name"),
+                rs.getString("description"),
+                nullableInt(rs, "order_position")
+        ), courseId);
+    }
+
+    /** Streams the flashcards level by level, each level's in display order; fetched in batches inside a transaction. */
+    public void forEachFlashcard(Collection<Long> levelIds, int fetchSize, Consumer<FlashcardRow> consumer) {
+        jdbcTemplate.query(FLASHCARDS_SQL,
+                ps -> {
+                    ps.setFetchSize(fetchSize);
+                    ps.setArray(1, ps.getConnection().createArrayOf("bigint", levelIds.toArray()));
+                },
+                rs -> {
+                    consumer.accept(new FlashcardRow(
+                            rs.getLong("id"),
+                            rs.getLong("level_id"),
+                            rs.getString("side_a"),
+                            rs.getString("side_b"),
+                            rs.getString("image_url"),
+                            rs.getString("audio_mp3_url"),
+                            rs.getString("example_sentence"),
+                            nullableInt(rs, "order_position")));
+                });
+    }
+
+    private static Integer nullableInt(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.flashcards.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Set-based course deletion. Levels, flashcards, progress, access grants and statistics all go with
+ * the course through their ON DELETE CASCADE foreign keys, so nothing is loaded to delete it.
+ */
+@Repository
+public class CoursePurgeRepository {
+    // stops counting past the limit, so deciding about a course with millions of progress rows stays cheap
+    private static final String COUNT_SQL = """
+            select (select count(*) from (
+                        select 1 from flashcards f join levels l on l.id = f.level_id
+                        where l.course_id = c.id
+                        union all
+                        select 1 from user_progress p join flashcards f on f.id = p.flashcard_id join levels l on l.id = f.level_id
+                        where l.course_id = c.id
+                        limit ?) r)
+            from courses c
+            where c.id = ? and c.deleted_at is null
+            """;
+    private static final String DELETE_PROGRESS_CHUNK_SQL = """
+            delete from user_progress
+            where id in (
+                select p.id from user_progress p join flashcards f on f.id = p.flashcard_id join levels l on l.id = f.level_id
+                where l.course_id = ?
+                limit ?)
+            """;
+    private static final String DELETE_CHUNK_SQL = """
+            delete from flashcards
+            where id in (
+                select f.id from flashcards f join levels l on l.id = f.level_id
+                where l.course_id = ?
+                limit ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CoursePurgeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * How many flashcard and progress rows deleting the course removes, counted up to {@code limit};
+     * empty when the course does not exist or is already scheduled for deletion.
+     */
+    public Optional<Long> countRows(long courseId, long limit) {
+        return jdbcTemplate.queryForList(COUNT_SQL, Long.class, limit, courseId).stream().findFirst();
+    }
+
+    public boolean deleteCourse(long courseId) {
+        return jdbcTemplate.update("delete from courses where id = ?", courseId) == 1;
+    }
+
+    /** Oldest first. */
+    public List<Long> findScheduled() {
+        return jdbcTemplate.queryForList("select id from courses where deleted_at is not null order by deleted_at, id", Long.class);
+    }
+
+    /** Deletes up to {@code chunkSize} progress rows on the course's flashcards; returns how many went. */
+    public int deleteProgressChunk(long courseId, int chunkSize) {
+        return jdbcTemplate.update(DELETE_PROGRESS_CHUNK_SQL, courseId, chunkSize);
+    }
+
+    /** Deletes up to {@code chunkSize} of the course's flashcards; returns how many went. */
+    public int deleteFlashcardChunk(long courseId, int chunkSize) {
+        return jdbcTemplate.update(DELETE_CHUNK_SQL, courseId, chunkSize);
+    }
+}
@@ -1,14 +1,40 @@
 package com.example.flashcards.repository;
 
 import com.example.flashcards.model.Course;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CourseRepository extends JpaRepository<Course, Long> {
-    List<Course> findByIsPublicTrue();
+    /** The content version and what an access check needs, in the one row read before a versioned response. */
+    interface VersionView {
+        Long getContentVersion();
+        Boolean getIsPublic();
+        Long getCreatedByUserId();
+    }
+
+    List<Course> findByIsPublicTrueAndDeletedAtIsNullAndIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @Query("""
+            select c from Course c
+            where c.id > :afterId and c.deletedAt is null
+              and (c.isPublic = true or c.createdBy.id = :userId or c.id in :grantedIds)
+            order by c.id asc
+            """)
+    List<Course> findVisibleTo(Long userId, Collection<Long> grantedIds, Long afterId, Limit limit);
 
     @EntityGraph(attributePaths = {"levels"})
     List<Course> findAll();
-}
\ No newline at end of file
+
+    @Query(value = """
+            select content_version as "contentVersion", is_public as "isPublic", created_by_user_id as "createdByUserId"
+            from courses
+            where id = :id and deleted_at is null
+            """, nativeQuery = true)
+    Optional<VersionView> findContentVersionById(Long id);
+}
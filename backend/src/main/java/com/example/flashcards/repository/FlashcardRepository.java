@@ -1,10 +1,44 @@
 package com.example.flashcards.repository;
 
 import com.example.flashcards.model.Flashcard;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 
 public interface FlashcardRepository extends JpaRepository<Flashcard, Long> {
+    interface SummaryView {
+        Long getLevelId();
+        Long getId();
+        String getSideA();
+        String getSideB();
+        Integer getOrderPosition();
+    }
+
     List<Flashcard> findByLevelIdOrderByOrderPositionAscIdAsc(Long levelId);
-}
\ No newline at end of file
+
+    @Query("""
+            select f.level.id as levelId, f.id as id, f.sideA as sideA, f.sideB as sideB, f.orderPosition as orderPosition
+            from Flashcard f
+            where f.level.course.id = :courseId
+            order by f.orderPosition asc, f.id asc
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<SummaryView> findSummariesByCourseId(Long courseId);
+
+    // Null positions are keyed as Integer.MAX_VALUE so the page is one range on idx_flashcards_level_order.
+    @Query("""
+            select f from Flashcard f
+            where f.level.id = :levelId
+              and (coalesce(f.orderPosition, 2147483647), f.id) > (:afterPosition, :afterId)
+            order by coalesce(f.orderPosition, 2147483647) asc, f.id asc
+            """)
+    List<Flashcard> findPageByLevelId(Long levelId, int afterPosition, long afterId, Limit limit);
+
+    @Query("select coalesce(max(f.orderPosition), 0) from Flashcard f where f.level.id = :levelId")
+    int findMaxOrderPositionByLevelId(Long levelId);
+}
@@ -0,0 +1,84 @@
+package com.example.flashcards.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Full-text search over flashcards.search_vector (changeset 007). The query is parsed once under
+ * every text search configuration in scope and OR-ed, so one search serves courses in different
+ * languages.
+ */
+@Repository
+public class FlashcardSearchRepository {
+
+    // search_flashcards (changeset 013) ranks every match exactly. ORs of plain lexemes walk each lexeme's
+    // postings in rank order and stop once no unread card can reach the page; other queries rank all matches.
+    private static final String SEARCH_SQL = """
+            select id, level_id, course_id, side_a, side_b, example_sentence, rank
+            from search_flashcards(cast(? as regconfig[]), ?, ?, ?, ?, ?)
+            """;
+
+    public record Hit(
+            long id,
+            long levelId,
+            long courseId,
+            String sideA,
+            String sideB,
+            String exampleSentence,
+            float rank
+    ) {}
+
+    public record CourseConfigs(List<String> configs, boolean isPublic, long createdByUserId) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FlashcardSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** The course's search configurations, with its visibility and owner for the access check. */
+    public Optional<CourseConfigs> findCourseSearchConfigs(long courseId) {
+        return jdbcTemplate.query("""
+                        select search_config_for(taught_language)::text, search_config_for(learning_language)::text,
+                               is_public, created_by_user_id
+                        from courses where id = ? and deleted_at is null
+                        """,
+                rs -> rs.next()
+                        ? Optional.of(new CourseConfigs(List.of(rs.getString(1), rs.getString(2)), rs.getBoolean(3), rs.getLong(4)))
+                        : Optional.empty(),
+                courseId);
+    }
+
+    public List<String> findPublicSearchConfigs() {
+        return jdbcTemplate.queryForList("""
+                select distinct config::text from courses c,
+                    unnest(array[search_config_for(c.taught_language), search_config_for(c.learning_language)]) config
+                where c.is_public and c.deleted_at is null
+                """, String.class);
+    }
+
+    public List<Hit> search(List<String> configs, String q, Long courseId, float afterRank, long afterId, int limit) {
+        return jdbcTemplate.query(SEARCH_SQL,
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("text", configs.toArray()));
+                    ps.setString(2, q);
+                    ps.setObject(3, courseId, Types.BIGINT);
+                    ps.setFloat(4, afterRank);
+                    ps.setLong(5, afterId);
+                    ps.setInt(6, limit);
+                },
+                (rs, rowNum) -> new Hit(
+                        rs.getLong("id"),
+                        rs.getLong("level_id"),
+                        rs.getLong("course_id"),
+                        rs.getString("side_a"),
+                        rs.getString("side_b"),
+                        rs.getString("example_sentence"),
+                        rs.getFloat("rank")
+                ));
+    }
+}
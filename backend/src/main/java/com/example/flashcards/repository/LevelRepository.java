@@ -1,10 +1,49 @@
 package com.example.flashcards.repository;
 
 import com.example.flashcards.model.Level;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface LevelRepository extends JpaRepository<Level, Long> {
+    interface SummaryView {
+        Long getCourseId();
+        Long getId();
+        String getName();
+        Integer getOrderPosition();
+    }
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Level> findByCourseIdOrderByOrderPositionAscIdAsc(Long courseId);
-}
\ No newline at end of file
+
+    Optional<Level> findByIdAndCourseDeletedAtIsNull(Long id);
+
+    @Query("""
+            select l.course.id as courseId, l.id as id, l.name as name, l.orderPosition as orderPosition
+            from Level l
+            where l.course.id in :courseIds
+            order by l.orderPosition asc, l.id asc
+            """)
+    List<SummaryView> findSummariesByCourseIdIn(Collection<Long> courseIds);
+
+    /** See {@link CourseRepository.VersionView}; the access fields are the course's. */
+    interface VersionView {
+        Long getContentVersion();
+        Long getCourseId();
+        Boolean getIsPublic();
+        Long getCreatedByUserId();
+    }
+
+    @Query(value = """
+            select l.content_version as "contentVersion", c.id as "courseId", c.is_public as "isPublic", c.created_by_user_id as "createdByUserId"
+            from levels l join courses c on c.id = l.course_id
+            where l.id = :id and c.deleted_at is null
+            """, nativeQuery = true)
+    Optional<VersionView> findContentVersionById(Long id);
+}
@@ -0,0 +1,122 @@
+package com.example.flashcards.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Display positions of levels within a course and flashcards within a level. Positions are spread
+ * {@value #GAP} apart, so a move writes one row: the moved one, at the midpoint of its new
+ * neighbours. When two neighbours have no room left between them, one statement spreads the whole
+ * parent out again.
+ */
+@Repository
+public class OrderPositionRepository {
+    public static final int GAP = 1024;
+
+    /**
+     * The ordered table, its parent, the sort key the parent's read index is built on, and the lock
+     * on the parent, which finds nothing once the parent's course is marked deleted.
+     */
+    public enum Scope {
+        // matches idx_flashcards_level_order, where NULL positions sort last as the largest int
+        FLASHCARDS("flashcards", "level_id", "coalesce(%s.order_position, 2147483647)", """
+                select 1 from levels p join courses c on c.id = p.course_id
+                where p.id = ? and c.deleted_at is null
+                for no key update of p
+                """),
+        // matches idx_levels_course_order; NULLs sort last and never compare
+        LEVELS("levels", "course_id", "%s.order_position",
+                "select 1 from courses where id = ? and deleted_at is null for no key update");
+
+        private final String lockSql;
+        private final String afterSql;
+        private final String beforeSql;
+        private final String updateSql;
+        private final String rebalanceSql;
+        private final String positionsSql;
+
+        Scope(String table, String parentColumn, String sortKey, String lockSql) {
+            String a = sortKey.formatted("a");
+            String f = sortKey.formatted("f");
+            this.lockSql = lockSql;
+            // the anchor's position and its nearest neighbour on one side, leaving out the row being moved
+            String neighbourSql = """
+                    select a.order_position as anchor,
+                           (select %1$s from %2$s f
+                            where f.%3$s = a.%3$s and f.id <> ? and (%1$s, f.id) %4$s (%5$s, a.id)
+                            order by %1$s %6$s, f.id %6$s
+                            limit 1) as neighbour
+                    from %2$s a
+                    where a.id = ? and a.%3$s = ?
+                    """;
+            this.afterSql = neighbourSql.formatted(f, table, parentColumn, ">", a, "asc");
+            this.beforeSql = neighbourSql.formatted(f, table, parentColumn, "<", a, "desc");
+            this.updateSql = "update " + table + " set order_position = ? where id = ? and " + parentColumn + " = ?";
+            this.rebalanceSql = """
+                    update %1$s t set order_position = (r.rank * %3$d)::int
+                    from (select id, row_number() over (order by order_position, id) as rank from %1$s where %2$s = ?) r
+                    where t.id = r.id and t.order_position is distinct from (r.rank * %3$d)::int
+                    """.formatted(table, parentColumn, GAP);
+            this.positionsSql = "select id, order_position from " + table + " where " + parentColumn + " = ? and id = any(?)";
+        }
+    }
+
+    /** The anchor's position and the neighbour's position, or sort key, either of which may be null. */
+    public record Slot(Integer anchor, Integer neighbour) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderPositionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Serializes reorders of one parent; false when the parent does not exist or its course is deleted. */
+    public boolean lockParent(Scope scope, long parentId) {
+        return !jdbcTemplate.queryForList(scope.lockSql, parentId).isEmpty();
+    }
+
+    /** Null when the anchor is not a child of the parent. */
+    public Slot findSlotAfter(Scope scope, long parentId, long anchorId, long movedId) {
+        return findSlot(scope.afterSql, parentId, anchorId, movedId);
+    }
+
+    /** Null when the anchor is not a child of the parent. */
+    public Slot findSlotBefore(Scope scope, long parentId, long anchorId, long movedId) {
+        return findSlot(scope.beforeSql, parentId, anchorId, movedId);
+    }
+
+    public boolean updatePosition(Scope scope, long parentId, long id, int position) {
+        return jdbcTemplate.update(scope.updateSql, position, id, parentId) == 1;
+    }
+
+    /** Respaces every child of the parent {@value #GAP} apart in display order; returns the rows that moved. */
+    public int rebalance(Scope scope, long parentId) {
+        return jdbcTemplate.update(scope.rebalanceSql, parentId);
+    }
+
+    public Map<Long, Integer> findPositions(Scope scope, long parentId, Collection<Long> ids) {
+        Map<Long, Integer> positions = new HashMap<>();
+        jdbcTemplate.query(scope.positionsSql,
+                ps -> {
+                    ps.setLong(1, parentId);
+                    ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+                },
+                rs -> {
+                    positions.put(rs.getLong("id"), rs.getInt("order_position"));
+                });
+        return positions;
+    }
+
+    private Slot findSlot(String sql, long parentId, long anchorId, long movedId) {
+        List<Slot> slots = jdbcTemplate.query(sql, (rs, i) -> new Slot(
+                (Integer) rs.getObject("anchor"),
+                (Integer) rs.getObject("neighbour")
+        ), movedId, anchorId, parentId);
+        return slots.isEmpty() ? null : slots.getFirst();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.flashcards.repository;
+
+import com.example.flashcards.model.UserCourseAccess;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserCourseAccessRepository extends JpaRepository<UserCourseAccess, Long> {
+    Optional<UserCourseAccess> findByUserIdAndCourseId(Long userId, Long courseId);
+
+    @Query("select a.course.id from UserCourseAccess a where a.user.id = :userId order by a.course.id")
+    List<Long> findCourseIdsByUserId(Long userId);
+
+    @Modifying
+    @Query("delete from UserCourseAccess a where a.user.id = :userId and a.course.id = :courseId")
+    int deleteByUserIdAndCourseId(Long userId, Long courseId);
+}
@@ -0,0 +1,95 @@
+package com.example.flashcards.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads user_course_stats, which the user_progress triggers of changeset 009 keep current, and runs
+ * its reconciliation one block of {@value #USERS_PER_BLOCK} user ids at a time.
+ */
+@Repository
+public class UserCourseStatsRepository {
+    public static final int USERS_PER_BLOCK = 1024;
+
+    // The users row is joined in so that an unknown user and a user without reviews differ in one statement.
+    private static final String FIND_SQL = """
+            select s.course_id, s.cards_seen, s.cards_learned, s.reviews, s.correct_answers, s.histogram_start,
+                   s.due_by_day, s.last_active_day, s.active_days, s.streak_days
+            from users u
+            left join user_course_stats s on s.user_id = u.id
+            where u.id = ?
+            order by s.course_id
+            """;
+
+    public record Row(
+            long courseId,
+            int cardsSeen,
+            int cardsLearned,
+            long reviews,
+            long correctAnswers,
+            LocalDate histogramStart,
+            int[] dueByDay,
+            LocalDate lastActiveDay,
+            long activeDays,
+            int streakDays
+    ) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserCourseStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Null for an unknown user; an empty list for a user with no reviews. */
+    public List<Row> findByUserId(long userId) {
+        return jdbcTemplate.query(FIND_SQL, rs -> {
+            if (!rs.next()) return null;
+            List<Row> rows = new ArrayList<>();
+            do {
+                if (rs.getObject("course_id") == null) continue;
+                Array array = rs.getArray("due_by_day");
+                Integer[] boxed = (Integer[]) array.getArray();
+                int[] dueByDay = new int[boxed.length];
+                for (int i = 0; i < boxed.length; i++) dueByDay[i] = boxed[i] != null ? boxed[i] : 0;
+                rows.add(new Row(
+                        rs.getLong("course_id"),
+                        rs.getInt("cards_seen"),
+                        rs.getInt("cards_learned"),
+                        rs.getLong("reviews"),
+                        rs.getLong("correct_answers"),
+                        rs.getObject("histogram_start", LocalDate.class),
+                        dueByDay,
+                        rs.getObject("last_active_day", LocalDate.class),
+                        rs.getLong("active_days"),
+                        rs.getInt("streak_days")
+                ));
+            } while (rs.next());
+            return rows;
+        }, userId);
+    }
+
+    /** Blocks spanning every existing user id, lowest first; empty when there are no users. */
+    public long[] userBlocks() {
+        return jdbcTemplate.query("select min(id), max(id) from users", rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            if (rs.wasNull()) return new long[0];
+            long first = min / USERS_PER_BLOCK;
+            long last = rs.getLong(2) / USERS_PER_BLOCK;
+            long[] blocks = new long[(int) (last - first + 1)];
+            for (int i = 0; i < blocks.length; i++) blocks[i] = first + i;
+            return blocks;
+        });
+    }
+
+    /** Rebuilds the block in one transaction; returns the number of stats rows written or removed. */
+    public int reconcile(long block) {
+        Integer written = jdbcTemplate.queryForObject("select user_course_stats_reconcile(?)", Integer.class, block);
+        return written != null ? written : 0;
+    }
+}
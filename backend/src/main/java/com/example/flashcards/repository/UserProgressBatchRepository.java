@@ -0,0 +1,156 @@
+package com.example.flashcards.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Set-based access to user_progress for review batches; bypasses the persistence context so
+ * a batch of N answers costs one locking read and one JDBC batch regardless of N.
+ */
+@Repository
+public class UserProgressBatchRepository {
+
+    private static final String SELECT_SQL = """
+            select flashcard_id, times_seen, correct_answers, incorrect_answers, last_reviewed,
+                   next_review, ease_factor, interval_days, repetitions
+            from user_progress
+            where user_id = ? and flashcard_id = any(?)
+            order by flashcard_id
+            """;
+    private static final String LOCK_SQL = SELECT_SQL + "for update";
+
+    // The WHERE guard makes a replayed or older write a no-op even if another batch committed in between.
+    private static final String UPSERT_SQL = """
+            insert into user_progress (user_id, flashcard_id, times_seen, correct_answers, incorrect_answers,
+                                       last_reviewed, next_review, ease_factor, interval_days, repetitions)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict on constraint uq_up_user_flashcard do update set
+                times_seen = excluded.times_seen,
+                correct_answers = excluded.correct_answers,
+                incorrect_answers = excluded.incorrect_answers,
+                last_reviewed = excluded.last_reviewed,
+                next_review = excluded.next_review,
+                ease_factor = excluded.ease_factor,
+                interval_days = excluded.interval_days,
+                repetitions = excluded.repetitions,
+                updated_at = now()
+            where user_progress.last_reviewed is null or user_progress.last_reviewed < excluded.last_reviewed
+            """;
+
+    public record ProgressState(
+            long flashcardId,
+            int timesSeen,
+            int correctAnswers,
+            int incorrectAnswers,
+            OffsetDateTime lastReviewed,
+            OffsetDateTime nextReview,
+            Float easeFactor,
+            int intervalDays,
+            int repetitions
+    ) {}
+
+    public record FlashcardCourse(long flashcardId, long courseId, boolean isPublic, long createdByUserId) {}
+
+    public record UserProgressState(long userId, ProgressState state) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserProgressBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Set<Long> findExistingFlashcardIds(Collection<Long> flashcardIds) {
+        Set<Long> existing = new HashSet<>();
+        jdbcTemplate.query("select id from flashcards where id = any(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", flashcardIds.toArray())),
+                rs -> { existing.add(rs.getLong(1)); });
+        return existing;
+    }
+
+    /** The flashcards that exist in a live course, with the course's visibility and owner for access checks. */
+    public List<FlashcardCourse> findFlashcardCourses(Collection<Long> flashcardIds) {
+        return jdbcTemplate.query("""
+                        select f.id, c.id as course_id, c.is_public, c.created_by_user_id
+                        from flashcards f
+                        join levels l on l.id = f.level_id
+                        join courses c on c.id = l.course_id
+                        where f.id = any(?) and c.deleted_at is null
+                        """,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", flashcardIds.toArray())),
+                (rs, i) -> new FlashcardCourse(rs.getLong("id"), rs.getLong("course_id"), rs.getBoolean("is_public"),
+                        rs.getLong("created_by_user_id")));
+    }
+
+    public List<ProgressState> lockForUpdate(long userId, Collection<Long> flashcardIds) {
+        return query(LOCK_SQL, userId, flashcardIds);
+    }
+
+    /** Current states without locking, for callers that serialize a user's writes themselves. */
+    public List<ProgressState> findStates(long userId, Collection<Long> flashcardIds) {
+        return query(SELECT_SQL, userId, flashcardIds);
+    }
+
+    private List<ProgressState> query(String sql, long userId, Collection<Long> flashcardIds) {
+        return jdbcTemplate.query(sql,
+                ps -> {
+                    ps.setLong(1, userId);
+                    ps.setArray(2, ps.getConnection().createArrayOf("bigint", flashcardIds.toArray()));
+                },
+                (rs, rowNum) -> new ProgressState(
+                        rs.getLong("flashcard_id"),
+                        rs.getInt("times_seen"),
+                        rs.getInt("correct_answers"),
+                        rs.getInt("incorrect_answers"),
+                        rs.getObject("last_reviewed", OffsetDateTime.class),
+                        rs.getObject("next_review", OffsetDateTime.class),
+                        (Float) rs.getObject("ease_factor"),
+                        rs.getInt("interval_days"),
+                        rs.getInt("repetitions")
+                ));
+    }
+
+    public void upsertAll(long userId, List<ProgressState> states) {
+        upsertAll(states.stream().map(s -> new UserProgressState(userId, s)).toList());
+    }
+
+    /** One JDBC batch across users; rows are written in (user, card) order so concurrent batches lock consistently. */
+    public void upsertAll(List<UserProgressState> rows) {
+        if (rows.isEmpty()) return;
+        List<UserProgressState> sorted = rows.stream()
+                .sorted(Comparator.comparingLong(UserProgressState::userId).thenComparingLong(r -> r.state().flashcardId()))
+                .toList();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ProgressState s = sorted.get(i).state();
+                ps.setLong(1, sorted.get(i).userId());
+                ps.setLong(2, s.flashcardId());
+                ps.setInt(3, s.timesSeen());
+                ps.setInt(4, s.correctAnswers());
+                ps.setInt(5, s.incorrectAnswers());
+                ps.setObject(6, s.lastReviewed());
+                ps.setObject(7, s.nextReview());
+                if (s.easeFactor() != null) ps.setFloat(8, s.easeFactor());
+                else ps.setNull(8, Types.REAL);
+                ps.setInt(9, s.intervalDays());
+                ps.setInt(10, s.repetitions());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return sorted.size();
+            }
+        });
+    }
+}
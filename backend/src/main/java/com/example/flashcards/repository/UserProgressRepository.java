@@ -0,0 +1,45 @@
+package com.example.flashcards.repository;
+
+import com.example.flashcards.model.UserProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface UserProgressRepository extends JpaRepository<UserProgress, Long> {
+    // Native so the row-value comparison stays on user_progress columns and is a single range on idx_up_user_next_review.
+    // Cards of courses the user can no longer read, or that are being deleted, are left out.
+    @Query(value = """
+            select p.* from user_progress p
+            join flashcards f on f.id = p.flashcard_id
+            join levels l on l.id = f.level_id
+            join courses c on c.id = l.course_id
+            where p.user_id = :userId
+              and p.next_review <= :now
+              and (p.next_review, p.flashcard_id) > (:afterReview, :afterFlashcardId)
+              and c.deleted_at is null
+              and (c.is_public or c.created_by_user_id = p.user_id
+                   or exists (select 1 from user_course_access a where a.user_id = p.user_id and a.course_id = c.id))
+            order by p.next_review, p.flashcard_id
+            limit :limit
+            """, nativeQuery = true)
+    List<UserProgress> findDue(Long userId, OffsetDateTime now, OffsetDateTime afterReview, long afterFlashcardId, int limit);
+
+    @Query(value = """
+            select p.* from user_progress p
+            join flashcards f on f.id = p.flashcard_id
+            join levels l on l.id = f.level_id
+            join courses c on c.id = l.course_id
+            where p.user_id = :userId
+              and p.next_review <= :now
+              and (p.next_review, p.flashcard_id) > (:afterReview, :afterFlashcardId)
+              and l.course_id = :courseId
+              and c.deleted_at is null
+              and (c.is_public or c.created_by_user_id = p.user_id
+                   or exists (select 1 from user_course_access a where a.user_id = p.user_id and a.course_id = c.id))
+            order by p.next_review, p.flashcard_id
+            limit :limit
+            """, nativeQuery = true)
+    List<UserProgress> findDueInCourse(Long userId, Long courseId, OffsetDateTime now, OffsetDateTime afterReview, long afterFlashcardId, int limit);
+}
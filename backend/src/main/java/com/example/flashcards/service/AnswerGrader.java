@@ -0,0 +1,109 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.common.AnswerText;
+import com.example.flashcards.dto.FlashcardDtos.Verdict;
+
+/**
+ * Grades a typed answer against a card's answer key (see {@link AnswerText#answerKey(String)}).
+ * The answer is normalized on the fly and compared to each alternative with a bit-parallel edit
+ * distance (Myers/Hyyrö), so grading a typical answer allocates nothing.
+ */
+public final class AnswerGrader {
+
+    /** Verdict plus the edit distance to the closest alternative, capped at {@code MAX_TYPOS + 1}. */
+    public record Result(Verdict verdict, int distance) {}
+
+    private static final int MAX_TYPOS = 3;
+
+    private AnswerGrader() {
+    }
+
+    /** Typos tolerated for an alternative of the given normalized length: none up to 3 characters, then one per 4, at most 3. */
+    public static int allowedTypos(int length) {
+        return length <= 3 ? 0 : Math.min(MAX_TYPOS, length / 4);
+    }
+
+    public static Result grade(String answerKey, CharSequence answer) {
+        int answerLength = AnswerText.normalizedLength(answer);
+        int best = Integer.MAX_VALUE;
+        boolean close = false;
+        int from = 0;
+        while (from <= answerKey.length()) {
+            int to = answerKey.indexOf(AnswerText.ALTERNATIVE_SEPARATOR, from);
+            if (to < 0) to = answerKey.length();
+            int allowed = allowedTypos(to - from);
+            int distance = distance(answerKey, from, to, answer, answerLength, MAX_TYPOS);
+            if (distance == 0) return new Result(Verdict.EXACT, 0);
+            if (distance <= allowed) close = true;
+            best = Math.min(best, distance);
+            from = to + 1;
+        }
+        return new Result(close ? Verdict.CLOSE : Verdict.WRONG, best);
+    }
+
+    /**
+     * Levenshtein distance between {@code key[from, to)} and the normal form of {@code answer}, or
+     * {@code max + 1} once it is known to exceed {@code max}.
+     */
+    static int distance(String key, int from, int to, CharSequence answer, int answerLength, int max) {
+        int m = to - from;
+        if (Math.abs(m - answerLength) > max) return max + 1;
+        if (m == 0) return answerLength;
+        if (m > Long.SIZE) return boundedDistance(key.substring(from, to), AnswerText.normalize(answer), max);
+
+        long vp = m == Long.SIZE ? -1L : (1L << m) - 1;
+        long vn = 0;
+        long last = 1L << (m - 1);
+        int score = m;
+        int remaining = answerLength;
+        for (long c = AnswerText.next(answer, 0); c != AnswerText.END; c = AnswerText.next(answer, c)) {
+            char ch = AnswerText.charAt(c);
+            long eq = 0;
+            for (int i = 0; i < m; i++) {
+                if (key.charAt(from + i) == ch) eq |= 1L << i;
+            }
+            long xv = eq | vn;
+            long xh = (((eq & vp) + vp) ^ vp) | eq;
+            long hp = vn | ~(xh | vp);
+            long hn = vp & xh;
+            if ((hp & last) != 0) score++;
+            else if ((hn & last) != 0) score--;
+            hp = (hp << 1) | 1;
+            hn <<= 1;
+            vp = hn | ~(xv | hp);
+            vn = hp & xv;
+            // the final distance can drop by at most one per answer character still to come
+            if (score - --remaining > max) return max + 1;
+        }
+        return score;
+    }
+
+    /** Fallback for alternatives longer than 64 characters: two-row DP limited to a diagonal band of width 2·max+1. */
+    private static int boundedDistance(String a, String b, int max) {
+        int n = b.length();
+        int[] prev = new int[n + 1];
+        int[] curr = new int[n + 1];
+        int infinity = max + 1;
+        for (int j = 0; j <= n; j++) prev[j] = Math.min(j, infinity);
+        for (int i = 1; i <= a.length(); i++) {
+            int lo = Math.max(1, i - max);
+            int hi = Math.min(n, i + max);
+            curr[0] = Math.min(i, infinity);
+            if (lo > 1) curr[lo - 1] = infinity;
+            int rowMin = curr[0];
+            char ca = a.charAt(i - 1);
+            for (int j = lo; j <= hi; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(prev[j - 1] + cost, Math.min(prev[j] + 1, curr[j - 1] + 1));
+                curr[j] = Math.min(d, infinity);
+                rowMin = Math.min(rowMin, curr[j]);
+            }
+            if (hi < n) curr[hi + 1] = infinity;
+            if (rowMin > max) return infinity;
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return prev[n];
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.config.ContentCacheConfig;
+import com.example.flashcards.config.ContentCacheInvalidationListener;
+import com.example.flashcards.dto.CacheDtos;
+import org.springframework.stereotype.Service;
+
+import javax.cache.CacheManager;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class CacheStatsService {
+
+    private final CacheManager contentCacheManager;
+    private final ContentCacheInvalidationListener invalidationListener;
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    public CacheStatsService(CacheManager contentCacheManager, ContentCacheInvalidationListener invalidationListener) {
+        this.contentCacheManager = contentCacheManager;
+        this.invalidationListener = invalidationListener;
+    }
+
+    public CacheDtos.Stats stats() {
+        List<String> names = new ArrayList<>(ContentCacheConfig.BOUNDED_REGIONS);
+        names.add(ContentCacheConfig.UPDATE_TIMESTAMPS_REGION);
+        List<CacheDtos.RegionStats> regions = new ArrayList<>(names.size());
+        for (String name : names) {
+            regions.add(regionStats(name));
+        }
+        return new CacheDtos.Stats(regions, new CacheDtos.Invalidation(
+                invalidationListener.isListening(),
+                invalidationListener.getMessagesReceived(),
+                invalidationListener.getEntriesEvicted(),
+                invalidationListener.getFullEvictions()));
+    }
+
+    private CacheDtos.RegionStats regionStats(String region) {
+        long size = 0;
+        for (var ignored : contentCacheManager.getCache(region)) size++;
+        try {
+            // Caffeine publishes the JSR-107 statistics MXBean under the manager URI and cache name,
+            // each with ',', ':', '=' and newlines replaced by '.'.
+            ObjectName name = new ObjectName("javax.cache:type=CacheStatistics,CacheManager=%s,Cache=%s"
+                    .formatted(sanitize(contentCacheManager.getURI().toString()), sanitize(region)));
+            return new CacheDtos.RegionStats(region, size,
+                    (Long) mBeanServer.getAttribute(name, "CacheHits"),
+                    (Long) mBeanServer.getAttribute(name, "CacheMisses"),
+                    (Long) mBeanServer.getAttribute(name, "CachePuts"),
+                    (Long) mBeanServer.getAttribute(name, "CacheRemovals"),
+                    (Long) mBeanServer.getAttribute(name, "CacheEvictions"));
+        } catch (JMException ex) {
+            throw new IllegalStateException("Statistics unavailable for cache region " + region, ex);
+        }
+    }
+
+    private static String sanitize(String value) {
+        return value.replaceAll("[,:=\n]", ".");
+    }
+}
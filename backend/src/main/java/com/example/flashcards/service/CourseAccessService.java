@@ -0,0 +1,151 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.common.AccessDeniedException;
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.model.Course;
+import com.example.flashcards.model.User;
+import com.example.flashcards.model.UserCourseAccess;
+import com.example.flashcards.repository.CourseRepository;
+import com.example.flashcards.repository.UserCourseAccessRepository;
+import com.example.flashcards.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides who may read a course: anyone when it is public, otherwise its creator and the users it
+ * has been granted to. The reads already fetch the course's visibility and owner, so the only other
+ * input, the user's granted course ids, is kept in memory as a sorted array per user. A grant or
+ * revoke drops the user's array here once it commits, and the notify_content_cache() trigger on
+ * user_course_access drops it on every other node.
+ */
+@Service
+public class CourseAccessService {
+    private static final long[] NONE = new long[0];
+
+    private final UserCourseAccessRepository accessRepository;
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final Cache<Long, long[]> granted;
+    // bumped by every invalidation, so a load that raced one is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CourseAccessService(UserCourseAccessRepository accessRepository, CourseRepository courseRepository,
+                               UserRepository userRepository, MeterRegistry registry,
+                               @Value("${flashcards.access.cache-size:100000}") long cacheSize) {
+        this.accessRepository = accessRepository;
+        this.courseRepository = courseRepository;
+        this.userRepository = userRepository;
+        this.granted = Caffeine.newBuilder().maximumSize(cacheSize).recordStats().build();
+        CaffeineCacheMetrics.monitor(registry, granted, "course_entitlements");
+    }
+
+    /** Throws the same not-found error as a missing course, so private courses do not reveal that they exist. */
+    public void checkRead(Long viewerId, long courseId, boolean isPublic, long ownerId) {
+        if (!canRead(viewerId, courseId, isPublic, ownerId)) throw new EntityNotFoundException("Course not found: " + courseId);
+    }
+
+    public boolean canRead(Long viewerId, long courseId, boolean isPublic, long ownerId) {
+        return isPublic || viewerId != null && (viewerId == ownerId || Arrays.binarySearch(grantedCourseIds(viewerId), courseId) >= 0);
+    }
+
+    public void checkRead(Long viewerId, Course course) {
+        if (course.getDeletedAt() != null) throw new EntityNotFoundException("Course not found: " + course.getId());
+        checkRead(viewerId, course.getId(), course.isPublic(), course.getCreatedBy().getId());
+    }
+
+    /**
+     * A user's own listings, which name their private courses, are for that user only; to anyone else
+     * the user does not exist.
+     */
+    public void checkSelf(Long viewerId, Long userId) {
+        if (!userId.equals(viewerId)) throw new EntityNotFoundException("User not found: " + userId);
+    }
+
+    /** Ascending. */
+    public long[] grantedCourseIds(long userId) {
+        long[] ids = granted.getIfPresent(userId);
+        if (ids != null) return ids;
+        long generation = invalidations.get();
+        // not Cache.get: the loader runs a query, which must not hold a map lock or pin a virtual thread
+        List<Long> loaded = accessRepository.findCourseIdsByUserId(userId);
+        ids = loaded.isEmpty() ? NONE : loaded.stream().mapToLong(Long::longValue).toArray();
+        if (invalidations.get() == generation) granted.put(userId, ids);
+        return ids;
+    }
+
+    /** The course's creator or one of its teachers may grant access, as {@code actorId}. */
+    @Transactional
+    public CourseDtos.Access grant(Long courseId, Long userId, UserCourseAccess.AccessType accessType, Long actorId) {
+        Course course = getManaged(courseId, actorId);
+        User user = userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found: " + userId));
+        UserCourseAccess access = accessRepository.findByUserIdAndCourseId(userId, courseId).orElseGet(() -> {
+            UserCourseAccess created = new UserCourseAccess();
+            created.setUser(user);
+            created.setCourse(course);
+            return created;
+        });
+        access.setAccessType(accessType != null ? accessType : UserCourseAccess.AccessType.STUDENT);
+        access = accessRepository.save(access);
+        invalidateAfterCommit(userId);
+        return new CourseDtos.Access(courseId, userId, access.getAccessType(), access.getGrantedAt());
+    }
+
+    @Transactional
+    public void revoke(Long courseId, Long userId, Long actorId) {
+        getManaged(courseId, actorId);
+        if (accessRepository.deleteByUserIdAndCourseId(userId, courseId) == 0) {
+            throw new EntityNotFoundException("User " + userId + " has no access to course " + courseId);
+        }
+        invalidateAfterCommit(userId);
+    }
+
+    // someone who cannot even read the course gets the same 404 as for a missing one
+    private Course getManaged(Long courseId, Long actorId) {
+        Course course = courseRepository.findById(courseId)
+                .filter(c -> c.getDeletedAt() == null)
+                .orElseThrow(() -> new EntityNotFoundException("Course not found: " + courseId));
+        if (actorId != null && actorId.equals(course.getCreatedBy().getId())) return course;
+        boolean teacher = actorId != null && accessRepository.findByUserIdAndCourseId(actorId, courseId)
+                .filter(a -> a.getAccessType() == UserCourseAccess.AccessType.TEACHER)
+                .isPresent();
+        if (teacher) return course;
+        checkRead(actorId, course);
+        throw new AccessDeniedException("Only the creator or a teacher of course " + courseId + " may manage access to it");
+    }
+
+    // before the commit, a concurrent load would still read the old grants and cache them again
+    private void invalidateAfterCommit(long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(userId);
+            }
+        });
+    }
+
+    public void invalidate(long userId) {
+        invalidations.incrementAndGet();
+        granted.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        granted.invalidateAll();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.repository.CourseCloneRepository;
+import com.example.flashcards.repository.CourseCloneRepository.CourseRow;
+import com.example.flashcards.repository.CourseCloneRepository.LevelMapping;
+import com.example.flashcards.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Forks a course for a new owner inside the database: three statements regardless of its size, and
+ * no entities loaded. Reviews and other per-user state stay with the source.
+ */
+@Service
+public class CourseCloneService {
+    private static final Logger log = LoggerFactory.getLogger(CourseCloneService.class);
+
+    private final CourseCloneRepository courseCloneRepository;
+    private final UserRepository userRepository;
+
+    public CourseCloneService(CourseCloneRepository courseCloneRepository, UserRepository userRepository) {
+        this.courseCloneRepository = courseCloneRepository;
+        this.userRepository = userRepository;
+    }
+
+    // one snapshot for all three copies, so a level added meanwhile is either copied with its cards or not at all
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public CourseDtos.Response clone(Long sourceId, CourseDtos.Clone req) {
+        if (req.name() != null && req.name().isBlank()) {
+            throw new IllegalArgumentException("name must not be blank");
+        }
+        long started = System.nanoTime();
+        CourseRow course = courseCloneRepository.copyCourse(sourceId, req.createdByUserId(), req.name(), Boolean.TRUE.equals(req.isPublic()))
+                .orElseThrow(() -> userRepository.existsById(req.createdByUserId())
+                        ? new EntityNotFoundException("Course not found: " + sourceId)
+                        : new EntityNotFoundException("User not found: " + req.createdByUserId()));
+        List<LevelMapping> levels = courseCloneRepository.copyLevels(sourceId, course.id());
+        int flashcards = levels.isEmpty() ? 0 : courseCloneRepository.copyFlashcards(levels);
+        log.info("Cloned course {} as {}: {} levels, {} flashcards in {} ms",
+                sourceId, course.id(), levels.size(), flashcards, (System.nanoTime() - started) / 1_000_000);
+        return new CourseDtos.Response(
+                course.id(),
+                course.name(),
+                course.description(),
+                course.taughtLanguage(),
+                course.learningLanguage(),
+                course.isPublic(),
+                course.createdByUserId(),
+                levels.stream().map(l -> new CourseDtos.LevelSummary(l.id(), l.name(), l.orderPosition())).toList()
+        );
+    }
+}
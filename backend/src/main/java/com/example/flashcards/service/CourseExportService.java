@@ -0,0 +1,164 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.model.Course;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a course as NDJSON: one {@code course} line, then every level followed by its
+ * flashcards in display order. Rows come from a server-side cursor (pgjdbc only honours the
+ * fetch size inside a transaction), so heap use does not depend on the size of the course.
+ */
+@Service
+public class CourseExportService {
+    public static final int FORMAT_VERSION = 1;
+
+    private static final String ROWS_SQL = """
+            select l.id as level_id, l.name as level_name, l.description as level_description,
+                   l.order_position as level_order_position,
+                   f.id, f.side_a, f.side_b, f.image_url, f.audio_mp3_url, f.example_sentence, f.order_position
+            from levels l
+            left join flashcards f on f.level_id = l.id
+            where l.course_id = ?
+            order by l.order_position, l.id, f.order_position, f.id
+            """;
+
+    private final CourseService courseService;
+    private final CourseAccessService courseAccessService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public CourseExportService(CourseService courseService,
+                               CourseAccessService courseAccessService,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               @Value("${flashcards.export.fetch-size:1000}") int fetchSize) {
+        this.courseService = courseService;
+        this.courseAccessService = courseAccessService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /** Resolves the course eagerly so a missing course is a 404 before any bytes are streamed. */
+    public StreamingResponseBody export(Long courseId, boolean gzip, Long viewerId) {
+        CourseHeader header = readOnlyTransaction.execute(status -> {
+            Course c = courseService.getByIdEntity(courseId);
+            courseAccessService.checkRead(viewerId, c);
+            return new CourseHeader(c.getId(), c.getName(), c.getDescription(), c.getTaughtLanguage(),
+                    c.getLearningLanguage(), c.isPublic(), c.getCreatedBy().getId());
+        });
+        return out -> {
+            if (gzip) {
+                try (GZIPOutputStream zipped = new GZIPOutputStream(out, 64 * 1024)) {
+                    write(header, zipped);
+                }
+            } else {
+                write(header, out);
+            }
+        };
+    }
+
+    private void write(CourseHeader course, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            json.writeStartObject();
+            json.writeStringField("type", "course");
+            json.writeNumberField("formatVersion", FORMAT_VERSION);
+            json.writeNumberField("id", course.id());
+            json.writeStringField("name", course.name());
+            json.writeStringField("description", course.description());
+            json.writeStringField("taughtLanguage", course.taughtLanguage());
+            json.writeStringField("learningLanguage", course.learningLanguage());
+            json.writeBooleanField("isPublic", course.isPublic());
+            json.writeNumberField("createdByUserId", course.createdByUserId());
+            json.writeEndObject();
+            json.writeRaw('\n');
+
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(ROWS_SQL,
+                    ps -> {
+                        ps.setFetchSize(fetchSize);
+                        ps.setLong(1, course.id());
+                    },
+                    new RowWriter(json)));
+            json.flush();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private record CourseHeader(Long id, String name, String description, String taughtLanguage,
+                                String learningLanguage, boolean isPublic, Long createdByUserId) {}
+
+    private static final class RowWriter implements RowCallbackHandler {
+        private final JsonGenerator json;
+        private long currentLevelId = -1;
+
+        private RowWriter(JsonGenerator json) {
+            this.json = json;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long levelId = rs.getLong("level_id");
+                if (levelId != currentLevelId) {
+                    currentLevelId = levelId;
+                    json.writeStartObject();
+                    json.writeStringField("type", "level");
+                    json.writeNumberField("id", levelId);
+                    json.writeStringField("name", rs.getString("level_name"));
+                    json.writeStringField("description", rs.getString("level_description"));
+                    writeNullableInt("orderPosition", rs, "level_order_position");
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                }
+                long flashcardId = rs.getLong("id");
+                if (rs.wasNull()) return;
+                json.writeStartObject();
+                json.writeStringField("type", "flashcard");
+                json.writeNumberField("id", flashcardId);
+                json.writeNumberField("levelId", levelId);
+                json.writeStringField("sideA", rs.getString("side_a"));
+                json.writeStringField("sideB", rs.getString("side_b"));
+                json.writeStringField("imageUrl", rs.getString("image_url"));
+                json.writeStringField("audioMp3Url", rs.getString("audio_mp3_url"));
+                json.writeStringField("exampleSentence", rs.getString("example_sentence"));
+                writeNullableInt("orderPosition", rs, "order_position");
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private void writeNullableInt(String field, ResultSet rs, String column) throws SQLException, IOException {
+            int value = rs.getInt(column);
+            if (rs.wasNull()) json.writeNullField(field);
+            else json.writeNumberField(field, value);
+        }
+    }
+}
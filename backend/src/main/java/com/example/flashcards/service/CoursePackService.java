@@ -0,0 +1,266 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.repository.CoursePackRepository;
+import com.example.flashcards.repository.CoursePackRepository.CourseRow;
+import com.example.flashcards.repository.CoursePackRepository.FlashcardRow;
+import com.example.flashcards.repository.CoursePackRepository.LevelRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Offline course packs (see {@link CoursePackWriter} for the format), built on first request and
+ * kept on disk under the course's content version. Each level's section is cached under the level's
+ * own version, so after an edit only the changed levels are read and compressed again; the rest of
+ * the pack is copied from the previous build.
+ */
+@Service
+public class CoursePackService {
+    public static final String CONTENT_TYPE = "application/vnd.flashcards.course-pack";
+
+    private static final Logger log = LoggerFactory.getLogger(CoursePackService.class);
+    private static final int STRIPES = 64;
+    private static final Pattern PACK_NAME = Pattern.compile("pack-(\\d+)\\.fcpk");
+
+    private final CoursePackRepository repository;
+    private final CourseAccessService courseAccessService;
+    private final Path root;
+    private final int fetchSize;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final Timer buildTimer;
+    private final DistributionSummary packSize;
+    private final Counter levelsBuilt;
+    private final Counter levelsReused;
+
+    public CoursePackService(CoursePackRepository repository,
+                             CourseAccessService courseAccessService,
+                             MeterRegistry registry,
+                             @Value("${flashcards.packs.dir:data/packs}") Path root,
+                             @Value("${flashcards.export.fetch-size:1000}") int fetchSize) {
+        this.repository = repository;
+        this.courseAccessService = courseAccessService;
+        this.root = root;
+        this.fetchSize = fetchSize;
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+        this.buildTimer = Timer.builder("course.pack.build")
+                .description("Time to build an offline course pack, including the levels it had to rebuild")
+                .register(registry);
+        this.packSize = DistributionSummary.builder("course.pack.size")
+                .baseUnit("bytes")
+                .description("Size of built offline course packs")
+                .register(registry);
+        this.levelsBuilt = Counter.builder("course.pack.levels").tag("source", "built").register(registry);
+        this.levelsReused = Counter.builder("course.pack.levels").tag("source", "cached").register(registry);
+    }
+
+    /** A built pack; the file stays in place at least until the pack after the next one is built. */
+    public record Pack(Path file, String etag) {}
+
+    // Repeatable read, so the course version, the levels and their cards come from one snapshot.
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Pack get(Long courseId, Long viewerId) {
+        CourseRow course = repository.findCourse(courseId)
+                .orElseThrow(() -> new EntityNotFoundException("Course not found: " + courseId));
+        courseAccessService.checkRead(viewerId, courseId, course.isPublic(), course.createdByUserId());
+        Path dir = root.resolve(Long.toString(courseId));
+        Path file = dir.resolve("pack-" + course.contentVersion() + ".fcpk");
+        if (!Files.exists(file)) {
+            ReentrantLock lock = stripes[Math.floorMod(Long.hashCode(courseId), STRIPES)];
+            lock.lock();
+            try {
+                if (!Files.exists(file)) buildTimer.record(() -> build(course, dir, file));
+            } finally {
+                lock.unlock();
+            }
+        }
+        return new Pack(file, "\"pack-" + courseId + "-v" + course.contentVersion() + "\"");
+    }
+
+    /**
+     * Drops the cached packs of a deleted course once the deletion commits; before that, a request
+     * could still read the course and build a pack that nothing would remove.
+     */
+    public void evict(Long courseId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deletePacks(courseId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deletePacks(courseId);
+            }
+        });
+    }
+
+    // under the course's build lock, so a build already under way finishes before its directory goes
+    private void deletePacks(Long courseId) {
+        ReentrantLock lock = stripes[Math.floorMod(Long.hashCode(courseId), STRIPES)];
+        lock.lock();
+        try {
+            FileSystemUtils.deleteRecursively(root.resolve(Long.toString(courseId)));
+        } catch (IOException ex) {
+            log.warn("Could not remove the cached packs of course {}: {}", courseId, ex.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void build(CourseRow course, Path dir, Path file) {
+        try {
+            Files.createDirectories(dir);
+            List<LevelRow> levels = repository.findLevels(course.id());
+            Map<Long, LevelRow> stale = new LinkedHashMap<>();
+            for (LevelRow level : levels) {
+                if (!Files.exists(segmentFile(dir, level))) stale.put(level.id(), level);
+            }
+            if (!stale.isEmpty()) {
+                LevelSegments segments = new LevelSegments(dir, stale);
+                repository.forEachFlashcard(stale.keySet(), fetchSize, segments);
+                segments.finish();
+            }
+
+            CoursePackWriter.Section courseSection = CoursePackWriter.course(course);
+            List<CoursePackWriter.Entry> entries = new ArrayList<>(levels.size() + 1);
+            entries.add(courseSection.entry());
+            for (LevelRow level : levels) entries.add(CoursePackWriter.readSegmentEntry(segmentFile(dir, level), level.id()));
+            Path temp = Files.createTempFile(dir, "pack-", ".tmp");
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+                    CoursePackWriter.writeHeader(out, course.id(), course.contentVersion(), entries);
+                    out.write(courseSection.compressed());
+                    for (LevelRow level : levels) {
+                        try (InputStream in = Files.newInputStream(segmentFile(dir, level))) {
+                            in.skipNBytes(CoursePackWriter.SEGMENT_DATA_OFFSET);
+                            in.transferTo(out);
+                        }
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+
+            long size = Files.size(file);
+            packSize.record(size);
+            levelsBuilt.increment(stale.size());
+            levelsReused.increment(levels.size() - stale.size());
+            log.info("Built pack of course {} v{}: {} bytes, {} levels, {} rebuilt",
+                    course.id(), course.contentVersion(), size, levels.size(), stale.size());
+            removeSuperseded(dir, levels, course.contentVersion());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Keeps the new pack and the one before it, which requests that read the older version may
+     * still be sending, and the sections the new pack was built from.
+     */
+    private static void removeSuperseded(Path dir, List<LevelRow> levels, long version) throws IOException {
+        Set<Path> keep = new HashSet<>();
+        for (LevelRow level : levels) keep.add(segmentFile(dir, level));
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.toList();
+        }
+        long previous = -1;
+        for (Path f : files) {
+            Matcher m = PACK_NAME.matcher(f.getFileName().toString());
+            if (m.matches() && Long.parseLong(m.group(1)) < version) previous = Math.max(previous, Long.parseLong(m.group(1)));
+        }
+        for (Path f : files) {
+            String name = f.getFileName().toString();
+            Matcher m = PACK_NAME.matcher(name);
+            boolean superseded = m.matches()
+                    ? Long.parseLong(m.group(1)) < previous
+                    : name.endsWith(".tmp") || name.startsWith("level-") && !keep.contains(f);
+            if (superseded) Files.deleteIfExists(f);
+        }
+    }
+
+    private static Path segmentFile(Path dir, LevelRow level) {
+        return dir.resolve("level-" + level.id() + "-" + level.contentVersion() + ".seg");
+    }
+
+    /** Collects the streamed cards of one level at a time and writes its section when the next level starts. */
+    private static final class LevelSegments implements Consumer<FlashcardRow> {
+        private final Path dir;
+        private final Map<Long, LevelRow> pending;
+        private final List<FlashcardRow> cards = new ArrayList<>();
+        private long levelId = -1;
+
+        private LevelSegments(Path dir, Map<Long, LevelRow> stale) {
+            this.dir = dir;
+            this.pending = new LinkedHashMap<>(stale);
+        }
+
+        @Override
+        public void accept(FlashcardRow row) {
+            if (row.levelId() != levelId) {
+                flushLevel();
+                levelId = row.levelId();
+            }
+            cards.add(row);
+        }
+
+        void finish() {
+            flushLevel();
+            // levels without cards never appear in the stream
+            for (LevelRow level : List.copyOf(pending.values())) write(level);
+        }
+
+        private void flushLevel() {
+            if (levelId < 0) return;
+            write(pending.get(levelId));
+            cards.clear();
+        }
+
+        private void write(LevelRow level) {
+            pending.remove(level.id());
+            CoursePackWriter.Section section = CoursePackWriter.level(level, cards);
+            try {
+                Path temp = Files.createTempFile(dir, "level-", ".tmp");
+                try {
+                    CoursePackWriter.writeSegment(temp, section);
+                    Files.move(temp, segmentFile(dir, level), StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.repository.CoursePackRepository.CourseRow;
+import com.example.flashcards.repository.CoursePackRepository.FlashcardRow;
+import com.example.flashcards.repository.CoursePackRepository.LevelRow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Encodes offline course packs. A pack is a header, an index and one zlib-compressed section for
+ * the course and for each level in display order. Sections are compressed independently, so the
+ * section of an unchanged level is copied from the previous build as is.
+ *
+ * <pre>
+ * pack:    "FCPK" u16 formatVersion  u64 courseId  u64 contentVersion  u32 sectionCount
+ *          sectionCount × (u8 type  u64 id  u32 length  u32 compressedLength)  then the sections
+ * section: varint stringCount  stringCount × (varint byteLength  UTF-8)  body
+ * course:  varint id  str name  str description  str taughtLanguage  str learningLanguage  u8 isPublic  varint createdByUserId
+ * level:   varint id  str name  str description  int orderPosition  varint cardCount
+ *          cardCount × (sint idDelta  str sideA  str sideB  str imageUrl  str audioMp3Url  str exampleSentence  int orderPosition)
+ * </pre>
+ * Fixed-width numbers are big-endian. {@code str} is a varint index + 1 into the section's string
+ * table, 0 for null; every distinct string is stored once per section. {@code int} is a nullable
+ * zigzag varint + 1, 0 for null; {@code sint} a zigzag varint.
+ */
+final class CoursePackWriter {
+    static final byte[] MAGIC = {'F', 'C', 'P', 'K'};
+    static final int FORMAT_VERSION = 1;
+    static final int COURSE_SECTION = 1;
+    static final int LEVEL_SECTION = 2;
+    static final int SEGMENT_DATA_OFFSET = 4;
+
+    private CoursePackWriter() {
+    }
+
+    /** An index entry: the section's type, id, and uncompressed and compressed lengths. */
+    record Entry(int type, long id, int length, int compressedLength) {}
+
+    record Section(Entry entry, byte[] compressed) {}
+
+    static Section course(CourseRow course) {
+        Encoder e = new Encoder();
+        e.varint(course.id());
+        e.string(course.name());
+        e.string(course.description());
+        e.string(course.taughtLanguage());
+        e.string(course.learningLanguage());
+        e.body.write(course.isPublic() ? 1 : 0);
+        e.varint(course.createdByUserId());
+        return e.finish(COURSE_SECTION, course.id());
+    }
+
+    static Section level(LevelRow level, List<FlashcardRow> flashcards) {
+        Encoder e = new Encoder();
+        e.varint(level.id());
+        e.string(level.name());
+        e.string(level.description());
+        e.nullableInt(level.orderPosition());
+        e.varint(flashcards.size());
+        long previousId = 0;
+        for (FlashcardRow f : flashcards) {
+            e.varint(zigzag(f.id() - previousId));
+            previousId = f.id();
+            e.string(f.sideA());
+            e.string(f.sideB());
+            e.string(f.imageUrl());
+            e.string(f.audioMp3Url());
+            e.string(f.exampleSentence());
+            e.nullableInt(f.orderPosition());
+        }
+        return e.finish(LEVEL_SECTION, level.id());
+    }
+
+    /** A cached level section: its uncompressed length, then the compressed bytes from {@link #SEGMENT_DATA_OFFSET}. */
+    static void writeSegment(Path file, Section section) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(section.entry().length());
+            out.write(section.compressed());
+        }
+    }
+
+    static Entry readSegmentEntry(Path file, long levelId) throws IOException {
+        long size = Files.size(file);
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return new Entry(LEVEL_SECTION, levelId, in.readInt(), (int) (size - SEGMENT_DATA_OFFSET));
+        }
+    }
+
+    /** Writes header and index; the section bytes are to follow in index order. */
+    static void writeHeader(OutputStream target, long courseId, long contentVersion, List<Entry> sections) throws IOException {
+        DataOutputStream out = new DataOutputStream(target);
+        out.write(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeLong(courseId);
+        out.writeLong(contentVersion);
+        out.writeInt(sections.size());
+        for (Entry e : sections) {
+            out.writeByte(e.type());
+            out.writeLong(e.id());
+            out.writeInt(e.length());
+            out.writeInt(e.compressedLength());
+        }
+        out.flush();
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static final class Encoder {
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        void string(String s) {
+            varint(s == null ? 0 : strings.computeIfAbsent(s, k -> strings.size()) + 1);
+        }
+
+        void nullableInt(Integer value) {
+            varint(value == null ? 0 : zigzag(value) + 1);
+        }
+
+        void varint(long value) {
+            writeVarint(body, value);
+        }
+
+        Section finish(int type, long id) {
+            ByteArrayOutputStream table = new ByteArrayOutputStream(strings.size() * 16 + 8);
+            writeVarint(table, strings.size());
+            for (String s : strings.keySet()) {
+                byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+                writeVarint(table, utf8.length);
+                table.writeBytes(utf8);
+            }
+            int length = table.size() + body.size();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 3 + 64);
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try (DeflaterOutputStream out = new DeflaterOutputStream(compressed, deflater, 8192)) {
+                table.writeTo(out);
+                body.writeTo(out);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            } finally {
+                deflater.end();
+            }
+            byte[] bytes = compressed.toByteArray();
+            return new Section(new Entry(type, id, length, bytes.length), bytes);
+        }
+
+        private static void writeVarint(ByteArrayOutputStream out, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+}
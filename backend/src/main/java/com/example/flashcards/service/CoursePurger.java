@@ -0,0 +1,63 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.repository.CoursePurgeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Removes courses that {@link CourseService#delete} marked deleted. The learners' progress rows go
+ * first, then the flashcards, a bounded chunk per statement and transaction, so no single delete
+ * holds locks or runs the statistics trigger over many rows for long; the course itself then takes
+ * its levels with it. Work left over by a restart is
+ * picked up on the next run, and a chunk deleted twice by two nodes is simply empty the second time.
+ */
+@Service
+public class CoursePurger {
+    private static final Logger log = LoggerFactory.getLogger(CoursePurger.class);
+
+    private final CoursePurgeRepository repository;
+    private final CoursePackService coursePackService;
+    private final int chunkSize;
+
+    public CoursePurger(CoursePurgeRepository repository, CoursePackService coursePackService,
+                        @Value("${flashcards.courses.delete.chunk-size:5000}") int chunkSize) {
+        this.repository = repository;
+        this.coursePackService = coursePackService;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${flashcards.courses.delete.interval:5s}")
+    public void purge() {
+        for (long courseId : repository.findScheduled()) {
+            try {
+                purge(courseId);
+            } catch (RuntimeException ex) {
+                log.warn("Deleting course {} failed, will retry: {}", courseId, ex.getMessage());
+            }
+        }
+    }
+
+    private void purge(long courseId) {
+        long startedAt = System.nanoTime();
+        long progress = 0;
+        long flashcards = 0;
+        int chunks = 0;
+        // a card's delete would cascade to every learner's progress on it, however many that is
+        for (int deleted; (deleted = repository.deleteProgressChunk(courseId, chunkSize)) > 0; chunks++) {
+            progress += deleted;
+        }
+        for (int deleted; (deleted = repository.deleteFlashcardChunk(courseId, chunkSize)) > 0; chunks++) {
+            flashcards += deleted;
+        }
+        repository.deleteCourse(courseId);
+        // a pack build that read the course before it was marked deleted may have finished since
+        coursePackService.evict(courseId);
+        log.info("Deleted course {}: {} progress rows and {} flashcards in {} chunks in {}",
+                courseId, progress, flashcards, chunks, Duration.ofNanos(System.nanoTime() - startedAt));
+    }
+}
@@ -1,28 +1,50 @@
 package com.example.flashcards.service;
 
+import com.example.flashcards.common.KeysetCursor;
 import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.PageDtos;
 import com.example.flashcards.model.Course;
 import com.example.flashcards.model.Level;
 import com.example.flashcards.model.User;
+import com.example.flashcards.repository.CoursePurgeRepository;
 import com.example.flashcards.repository.CourseRepository;
 import com.example.flashcards.repository.LevelRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class CourseService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final CourseRepository courseRepository;
     private final LevelRepository levelRepository;
     private final UserService userService;
+    private final CoursePackService coursePackService;
+    private final CoursePurgeRepository coursePurgeRepository;
+    private final CourseAccessService courseAccessService;
+    private final long asyncDeleteThreshold;
 
-    public CourseService(CourseRepository courseRepository, LevelRepository levelRepository, UserService userService) {
+    public CourseService(CourseRepository courseRepository, LevelRepository levelRepository, UserService userService,
+                         CoursePackService coursePackService, CoursePurgeRepository coursePurgeRepository,
+                         CourseAccessService courseAccessService,
+                         @Value("${flashcards.courses.delete.async-threshold:20000}") long asyncDeleteThreshold) {
         this.courseRepository = courseRepository;
         this.levelRepository = levelRepository;
         this.userService = userService;
+        this.coursePackService = coursePackService;
+        this.coursePurgeRepository = coursePurgeRepository;
+        this.courseAccessService = courseAccessService;
+        this.asyncDeleteThreshold = asyncDeleteThreshold;
     }
 
     @Transactional
@@ -40,13 +62,64 @@ public class CourseService {
     }
 
     @Transactional(readOnly = true)
-    public List<CourseDtos.Response> listPublic() {
-        return courseRepository.findByIsPublicTrue().stream().map(this::toResponse).collect(Collectors.toList());
+    public PageDtos.Page<CourseDtos.Response> listPublic(Integer limit, String after) {
+        int pageSize = KeysetCursor.limit(limit, DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        long afterId = after == null || after.isBlank() ? 0L : KeysetCursor.decode(after, 1)[0];
+        List<Course> courses = courseRepository.findByIsPublicTrueAndDeletedAtIsNullAndIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return toPage(courses, pageSize);
+    }
+
+    /**
+     * Public courses, the user's own and those granted to them. Only the user may list them; to
+     * anyone else the user does not exist, so their private courses are not revealed.
+     */
+    @Transactional(readOnly = true)
+    public PageDtos.Page<CourseDtos.Response> listForUser(Long userId, Long viewerId, Integer limit, String after) {
+        courseAccessService.checkSelf(viewerId, userId);
+        int pageSize = KeysetCursor.limit(limit, DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        long afterId = after == null || after.isBlank() ? 0L : KeysetCursor.decode(after, 1)[0];
+        userService.getByIdEntity(userId);
+        List<Long> grantedIds = Arrays.stream(courseAccessService.grantedCourseIds(userId)).boxed().toList();
+        List<Course> courses = courseRepository.findVisibleTo(userId, grantedIds, afterId, Limit.of(pageSize + 1));
+        return toPage(courses, pageSize);
+    }
+
+    private PageDtos.Page<CourseDtos.Response> toPage(List<Course> courses, int pageSize) {
+        String nextCursor = null;
+        if (courses.size() > pageSize) {
+            courses = courses.subList(0, pageSize);
+            nextCursor = KeysetCursor.encode(courses.get(pageSize - 1).getId());
+        }
+        if (courses.isEmpty()) return new PageDtos.Page<>(List.of(), null);
+
+        Map<Long, List<CourseDtos.LevelSummary>> levelsByCourse = levelRepository
+                .findSummariesByCourseIdIn(courses.stream().map(Course::getId).collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(LevelRepository.SummaryView::getCourseId,
+                        Collectors.mapping(l -> new CourseDtos.LevelSummary(l.getId(), l.getName(), l.getOrderPosition()), Collectors.toList())));
+        List<CourseDtos.Response> items = courses.stream()
+                .map(c -> toResponse(c, levelsByCourse.getOrDefault(c.getId(), List.of())))
+                .collect(Collectors.toList());
+        return new PageDtos.Page<>(items, nextCursor);
     }
 
     @Transactional(readOnly = true)
     public Course getByIdEntity(Long id) {
-        return courseRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Course not found: " + id));
+        return courseRepository.findById(id)
+                .filter(c -> c.getDeletedAt() == null)
+                .orElseThrow(() -> new EntityNotFoundException("Course not found: " + id));
+    }
+
+    /**
+     * Strong ETag for the course and everything under it, answered from the version column alone
+     * (bumped by triggers on any course, level or flashcard change). Throws not-found when the
+     * viewer may not read the course, so every read keyed by the ETag is checked here.
+     */
+    @Transactional(readOnly = true)
+    public String contentETag(Long id, Long viewerId) {
+        CourseRepository.VersionView course = courseRepository.findContentVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Course not found: " + id));
+        courseAccessService.checkRead(viewerId, id, course.getIsPublic(), course.getCreatedByUserId());
+        return "\"course-" + id + "-v" + course.getContentVersion() + "\"";
     }
 
     @Transactional(readOnly = true)
@@ -66,10 +139,25 @@ public class CourseService {
         return toResponse(c);
     }
 
+    /**
+     * Deletes the course and everything under it in one statement, through the database's cascades.
+     * A course whose flashcards and their progress rows number more than
+     * {@code flashcards.courses.delete.async-threshold} is only marked deleted, which hides it at
+     * once, and is removed by {@link CoursePurger}.
+     *
+     * @return true when the course is gone, false when its deletion was scheduled
+     */
     @Transactional
-    public void delete(Long id) {
-        if (!courseRepository.existsById(id)) throw new EntityNotFoundException("Course not found: " + id);
-        courseRepository.deleteById(id);
+    public boolean delete(Long id) {
+        long rows = coursePurgeRepository.countRows(id, asyncDeleteThreshold + 1)
+                .orElseThrow(() -> new EntityNotFoundException("Course not found: " + id));
+        coursePackService.evict(id);
+        if (rows <= asyncDeleteThreshold) {
+            coursePurgeRepository.deleteCourse(id);
+            return true;
+        }
+        getByIdEntity(id).setDeletedAt(OffsetDateTime.now());
+        return false;
     }
 
     @Transactional(readOnly = true)
@@ -78,10 +166,14 @@ public class CourseService {
         return levels.stream().map(l -> new CourseDtos.LevelSummary(l.getId(), l.getName(), l.getOrderPosition())).collect(Collectors.toList());
     }
 
-    private CourseDtos.Response toResponse(Course c) {
+    CourseDtos.Response toResponse(Course c) {
         List<CourseDtos.LevelSummary> levels = c.getLevels().stream()
                 .map(l -> new CourseDtos.LevelSummary(l.getId(), l.getName(), l.getOrderPosition()))
                 .collect(Collectors.toList());
+        return toResponse(c, levels);
+    }
+
+    CourseDtos.Response toResponse(Course c, List<CourseDtos.LevelSummary> levels) {
         return new CourseDtos.Response(
                 c.getId(),
                 c.getName(),
@@ -0,0 +1,219 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.ImportDtos;
+import com.example.flashcards.model.Flashcard;
+import com.example.flashcards.model.Level;
+import com.example.flashcards.repository.FlashcardRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams an upload into a level in fixed-size chunks. Each chunk is persisted, flushed as one
+ * JDBC batch and cleared from the persistence context in its own transaction, so heap use is
+ * bounded by the chunk size rather than the upload size.
+ */
+@Service
+public class FlashcardImportService {
+    private static final int READ_BUFFER_CHARS = 64 * 1024;
+
+    private final FlashcardRepository flashcardRepository;
+    private final LevelService levelService;
+    private final ImportJobRegistry importJobRegistry;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxRowChars;
+    private final int maxReportedErrors;
+
+    public FlashcardImportService(FlashcardRepository flashcardRepository,
+                                  LevelService levelService,
+                                  ImportJobRegistry importJobRegistry,
+                                  EntityManager entityManager,
+                                  TransactionTemplate transactionTemplate,
+                                  Validator validator,
+                                  ObjectMapper objectMapper,
+                                  @Value("${flashcards.import.chunk-size:500}") int chunkSize,
+                                  @Value("${flashcards.import.max-row-chars:65536}") int maxRowChars,
+                                  @Value("${flashcards.import.max-reported-errors:100}") int maxReportedErrors) {
+        this.flashcardRepository = flashcardRepository;
+        this.levelService = levelService;
+        this.importJobRegistry = importJobRegistry;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxRowChars = maxRowChars;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public ImportDtos.Report importInto(Long levelId, ImportDtos.Format format, InputStream body) {
+        levelService.getByIdEntity(levelId);
+        ImportRecordReader reader = new ImportRecordReader(
+                new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), READ_BUFFER_CHARS), maxRowChars);
+        RowSource source = format == ImportDtos.Format.CSV ? csvSource(reader) : ndjsonSource(reader);
+
+        ImportJobRegistry.Job job = importJobRegistry.start(levelId, format, maxReportedErrors);
+        try {
+            int nextPosition = flashcardRepository.findMaxOrderPositionByLevelId(levelId) + 1;
+            List<Flashcard> chunk = new ArrayList<>(chunkSize);
+            long rowNumber = 0;
+            while (true) {
+                ImportDtos.Row row;
+                rowNumber++;
+                try {
+                    row = source.next();
+                } catch (ImportRecordReader.RecordTooLongException | IllegalArgumentException ex) {
+                    job.rowRead();
+                    job.reject(rowNumber, ex.getMessage());
+                    continue;
+                }
+                if (row == null) break;
+                job.rowRead();
+
+                Set<ConstraintViolation<ImportDtos.Row>> violations = validator.validate(row);
+                if (!violations.isEmpty()) {
+                    job.reject(rowNumber, violations.stream()
+                            .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining(", ")));
+                    continue;
+                }
+                chunk.add(toEntity(row, row.orderPosition() != null ? row.orderPosition() : nextPosition++));
+                if (chunk.size() == chunkSize) {
+                    persistChunk(levelId, chunk);
+                    job.rowsImported(chunk.size());
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                persistChunk(levelId, chunk);
+                job.rowsImported(chunk.size());
+            }
+            job.complete();
+            return job.snapshot();
+        } catch (IOException ex) {
+            job.fail(ex.getMessage());
+            throw new UncheckedIOException(ex);
+        } catch (RuntimeException ex) {
+            job.fail(ex.getMessage());
+            throw ex;
+        }
+    }
+
+    private void persistChunk(Long levelId, List<Flashcard> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // bulk rows would only churn the second-level cache; readers load them on demand
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            Level level = entityManager.getReference(Level.class, levelId);
+            for (Flashcard f : chunk) {
+                f.setLevel(level);
+                entityManager.persist(f);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private static Flashcard toEntity(ImportDtos.Row row, int orderPosition) {
+        Flashcard f = new Flashcard();
+        f.setSideA(row.sideA());
+        f.setSideB(row.sideB());
+        f.setImageUrl(blankToNull(row.imageUrl()));
+        f.setAudioMp3Url(blankToNull(row.audioMp3Url()));
+        f.setExampleSentence(blankToNull(row.exampleSentence()));
+        f.setOrderPosition(orderPosition);
+        return f;
+    }
+
+    private RowSource ndjsonSource(ImportRecordReader reader) {
+        return () -> {
+            String line = reader.readLine();
+            if (line == null) return null;
+            try {
+                return objectMapper.readValue(line, ImportDtos.Row.class);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException("Invalid JSON: " + ex.getOriginalMessage());
+            }
+        };
+    }
+
+    private RowSource csvSource(ImportRecordReader reader) {
+        List<String> header;
+        try {
+            header = reader.readCsvRecord();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        if (header == null) throw new IllegalArgumentException("CSV body is empty");
+        List<String> columns = header.stream().map(FlashcardImportService::normalizeColumn).collect(Collectors.toList());
+        int sideA = columns.indexOf("sidea");
+        int sideB = columns.indexOf("sideb");
+        if (sideA < 0 || sideB < 0) throw new IllegalArgumentException("CSV header must contain sideA and sideB columns");
+        int imageUrl = columns.indexOf("imageurl");
+        int audioMp3Url = columns.indexOf("audiomp3url");
+        int exampleSentence = columns.indexOf("examplesentence");
+        int orderPosition = columns.indexOf("orderposition");
+        return () -> {
+            List<String> values = reader.readCsvRecord();
+            if (values == null) return null;
+            if (values.size() != columns.size()) {
+                throw new IllegalArgumentException("Expected " + columns.size() + " columns but got " + values.size());
+            }
+            String position = column(values, orderPosition);
+            Integer parsedPosition;
+            try {
+                parsedPosition = position == null || position.isBlank() ? null : Integer.valueOf(position.trim());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("orderPosition is not a number: " + position);
+            }
+            return new ImportDtos.Row(
+                    column(values, sideA),
+                    column(values, sideB),
+                    column(values, imageUrl),
+                    column(values, audioMp3Url),
+                    column(values, exampleSentence),
+                    parsedPosition
+            );
+        };
+    }
+
+    private static String column(List<String> values, int index) {
+        return index < 0 ? null : values.get(index);
+    }
+
+    private static String normalizeColumn(String name) {
+        return name.replace("_", "").replace(" ", "").replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        ImportDtos.Row next() throws IOException;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.common.KeysetCursor;
+import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.PageDtos;
+import com.example.flashcards.repository.FlashcardSearchRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class FlashcardSearchService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_QUERY_LENGTH = 200;
+
+    private final FlashcardSearchRepository flashcardSearchRepository;
+    private final CourseAccessService courseAccessService;
+
+    public FlashcardSearchService(FlashcardSearchRepository flashcardSearchRepository,
+                                  CourseAccessService courseAccessService) {
+        this.flashcardSearchRepository = flashcardSearchRepository;
+        this.courseAccessService = courseAccessService;
+    }
+
+    /**
+     * Ranked search within one course the viewer may read, or across all public courses when
+     * {@code courseId} is null.
+     * The cursor carries the last hit's rank and id, so pages stay stable without an offset.
+     */
+    @Transactional(readOnly = true)
+    public PageDtos.Page<FlashcardDtos.SearchHit> search(String q, Long courseId, Integer limit, String after, Long viewerId) {
+        if (q == null || q.isBlank()) throw new IllegalArgumentException("q must not be blank");
+        if (q.length() > MAX_QUERY_LENGTH) throw new IllegalArgumentException("q must be at most " + MAX_QUERY_LENGTH + " characters");
+        int pageSize = KeysetCursor.limit(limit, DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        float afterRank = Float.POSITIVE_INFINITY;
+        long afterId = 0L;
+        if (after != null && !after.isBlank()) {
+            long[] keys = KeysetCursor.decode(after, 2);
+            afterRank = Float.intBitsToFloat((int) keys[0]);
+            afterId = keys[1];
+        }
+
+        List<String> configs;
+        if (courseId != null) {
+            FlashcardSearchRepository.CourseConfigs course = flashcardSearchRepository.findCourseSearchConfigs(courseId)
+                    .orElseThrow(() -> new EntityNotFoundException("Course not found: " + courseId));
+            courseAccessService.checkRead(viewerId, courseId, course.isPublic(), course.createdByUserId());
+            configs = course.configs();
+        } else {
+            configs = flashcardSearchRepository.findPublicSearchConfigs();
+        }
+        if (configs.isEmpty()) return new PageDtos.Page<>(List.of(), null);
+
+        List<FlashcardSearchRepository.Hit> hits = flashcardSearchRepository.search(
+                configs.stream().distinct().toList(), q.trim(), courseId, afterRank, afterId, pageSize + 1);
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            FlashcardSearchRepository.Hit last = hits.get(pageSize - 1);
+            nextCursor = KeysetCursor.encode(Float.floatToIntBits(last.rank()), last.id());
+        }
+        return new PageDtos.Page<>(hits.stream()
+                .map(h -> new FlashcardDtos.SearchHit(h.id(), h.levelId(), h.courseId(), h.sideA(), h.sideB(), h.exampleSentence(), h.rank()))
+                .collect(Collectors.toList()), nextCursor);
+    }
+}
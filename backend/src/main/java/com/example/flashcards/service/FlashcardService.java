@@ -1,10 +1,14 @@
 package com.example.flashcards.service;
 
+import com.example.flashcards.common.AnswerText;
+import com.example.flashcards.common.KeysetCursor;
 import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.PageDtos;
 import com.example.flashcards.model.Flashcard;
 import com.example.flashcards.model.Level;
 import com.example.flashcards.repository.FlashcardRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,12 +17,17 @@ import java.util.stream.Collectors;
 
 @Service
 public class FlashcardService {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final FlashcardRepository flashcardRepository;
     private final LevelService levelService;
+    private final CourseAccessService courseAccessService;
 
-    public FlashcardService(FlashcardRepository flashcardRepository, LevelService levelService) {
+    public FlashcardService(FlashcardRepository flashcardRepository, LevelService levelService, CourseAccessService courseAccessService) {
         this.flashcardRepository = flashcardRepository;
         this.levelService = levelService;
+        this.courseAccessService = courseAccessService;
     }
 
     @Transactional
@@ -42,7 +51,12 @@ public class FlashcardService {
     }
 
     @Transactional(readOnly = true)
-    public FlashcardDtos.Response getById(Long id) { return toResponse(getByIdEntity(id)); }
+    public List<Flashcard> getByIdsEntity(List<Long> ids) {
+        return ids.isEmpty() ? List.of() : flashcardRepository.findAllById(ids);
+    }
+
+    @Transactional(readOnly = true)
+    public FlashcardDtos.Response getById(Long id, Long viewerId) { return toResponse(getReadable(id, viewerId)); }
 
     @Transactional
     public FlashcardDtos.Response update(Long id, FlashcardDtos.Update req) {
@@ -56,6 +70,22 @@ public class FlashcardService {
         return toResponse(f);
     }
 
+    /** Grades a typed answer against sideB; the answer key comes with the cached entity unless the row predates it. */
+    @Transactional(readOnly = true)
+    public FlashcardDtos.CheckResult check(Long id, String answer, Long viewerId) {
+        Flashcard f = getReadable(id, viewerId);
+        String key = f.getSideBNormalized() != null ? f.getSideBNormalized() : AnswerText.answerKey(f.getSideB());
+        AnswerGrader.Result result = AnswerGrader.grade(key, answer);
+        return new FlashcardDtos.CheckResult(result.verdict(), result.distance(), f.getSideB());
+    }
+
+    // the level and course usually come from the second-level cache, so the check costs no statement
+    private Flashcard getReadable(Long id, Long viewerId) {
+        Flashcard f = getByIdEntity(id);
+        courseAccessService.checkRead(viewerId, f.getLevel().getCourse());
+        return f;
+    }
+
     @Transactional
     public void delete(Long id) {
         if (!flashcardRepository.existsById(id)) throw new EntityNotFoundException("Flashcard not found: " + id);
@@ -63,11 +93,26 @@ public class FlashcardService {
     }
 
     @Transactional(readOnly = true)
-    public List<FlashcardDtos.Response> listByLevel(Long levelId) {
-        return flashcardRepository.findByLevelIdOrderByOrderPositionAscIdAsc(levelId).stream().map(this::toResponse).collect(Collectors.toList());
+    public PageDtos.Page<FlashcardDtos.Response> listByLevel(Long levelId, Integer limit, String after) {
+        int pageSize = KeysetCursor.limit(limit, DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        int afterPosition = Integer.MIN_VALUE;
+        long afterId = 0L;
+        if (after != null && !after.isBlank()) {
+            long[] keys = KeysetCursor.decode(after, 2);
+            afterPosition = (int) keys[0];
+            afterId = keys[1];
+        }
+        List<Flashcard> flashcards = flashcardRepository.findPageByLevelId(levelId, afterPosition, afterId, Limit.of(pageSize + 1));
+        String nextCursor = null;
+        if (flashcards.size() > pageSize) {
+            flashcards = flashcards.subList(0, pageSize);
+            Flashcard last = flashcards.get(pageSize - 1);
+            nextCursor = KeysetCursor.encode(last.getOrderPosition() != null ? last.getOrderPosition() : Integer.MAX_VALUE, last.getId());
+        }
+        return new PageDtos.Page<>(flashcards.stream().map(this::toResponse).collect(Collectors.toList()), nextCursor);
     }
 
-    private FlashcardDtos.Response toResponse(Flashcard f) {
+    FlashcardDtos.Response toResponse(Flashcard f) {
         return new FlashcardDtos.Response(
                 f.getId(),
                 f.getLevel().getId(),
@@ -0,0 +1,115 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.ImportDtos;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory view of running and recently finished imports so progress can be polled while
+ * the upload is still streaming. Only the importing thread writes to a job.
+ */
+@Component
+public class ImportJobRegistry {
+    private static final int MAX_FINISHED_JOBS = 50;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    Job start(Long levelId, ImportDtos.Format format, int maxReportedErrors) {
+        pruneFinished();
+        Job job = new Job(UUID.randomUUID().toString(), levelId, format, maxReportedErrors);
+        jobs.put(job.id, job);
+        return job;
+    }
+
+    public ImportDtos.Report get(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) throw new EntityNotFoundException("Import not found: " + jobId);
+        return job.snapshot();
+    }
+
+    public List<ImportDtos.Report> list() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((Job j) -> j.startedAt).reversed())
+                .map(Job::snapshot)
+                .collect(Collectors.toList());
+    }
+
+    private void pruneFinished() {
+        List<Job> finished = jobs.values().stream()
+                .filter(j -> j.status != ImportDtos.Status.RUNNING)
+                .sorted(Comparator.comparing((Job j) -> j.startedAt))
+                .collect(Collectors.toList());
+        for (int i = 0; i < finished.size() - MAX_FINISHED_JOBS; i++) {
+            jobs.remove(finished.get(i).id);
+        }
+    }
+
+    static final class Job {
+        private final String id;
+        private final Long levelId;
+        private final ImportDtos.Format format;
+        private final int maxReportedErrors;
+        private final OffsetDateTime startedAt = OffsetDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private final List<ImportDtos.RowError> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile ImportDtos.Status status = ImportDtos.Status.RUNNING;
+        private volatile long rowsRead;
+        private volatile long rowsImported;
+        private volatile long rowsRejected;
+        private volatile long finishedNanos;
+        private volatile String failure;
+
+        private Job(String id, Long levelId, ImportDtos.Format format, int maxReportedErrors) {
+            this.id = id;
+            this.levelId = levelId;
+            this.format = format;
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        void rowRead() {
+            rowsRead++;
+        }
+
+        void rowsImported(int count) {
+            rowsImported += count;
+        }
+
+        void reject(long row, String message) {
+            rowsRejected++;
+            if (errors.size() < maxReportedErrors) errors.add(new ImportDtos.RowError(row, message));
+        }
+
+        void complete() {
+            finishedNanos = System.nanoTime();
+            status = ImportDtos.Status.COMPLETED;
+        }
+
+        void fail(String message) {
+            finishedNanos = System.nanoTime();
+            failure = message;
+            status = ImportDtos.Status.FAILED;
+        }
+
+        ImportDtos.Report snapshot() {
+            long end = status == ImportDtos.Status.RUNNING ? System.nanoTime() : finishedNanos;
+            long elapsedMillis = (end - startedNanos) / 1_000_000;
+            double rowsPerSecond = elapsedMillis == 0 ? 0 : rowsImported * 1000.0 / elapsedMillis;
+            List<ImportDtos.RowError> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = List.copyOf(errors);
+            }
+            return new ImportDtos.Report(id, levelId, format, status, startedAt, rowsRead, rowsImported, rowsRejected,
+                    elapsedMillis, rowsPerSecond, errorsCopy, failure);
+        }
+    }
+}
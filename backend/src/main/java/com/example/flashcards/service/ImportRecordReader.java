@@ -0,0 +1,100 @@
+package com.example.flashcards.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pull-style reader over an upload body that never holds more than one record in memory.
+ * Records longer than {@code maxRecordChars} are consumed and reported instead of buffered.
+ */
+final class ImportRecordReader {
+
+    static final class RecordTooLongException extends RuntimeException {
+        RecordTooLongException(int maxRecordChars) {
+            super("Row exceeds " + maxRecordChars + " characters");
+        }
+    }
+
+    private final Reader in;
+    private final int maxRecordChars;
+    private final StringBuilder field = new StringBuilder();
+
+    ImportRecordReader(Reader in, int maxRecordChars) {
+        this.in = in;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /** Next non-empty line without its terminator, or {@code null} at end of input. */
+    String readLine() throws IOException {
+        while (true) {
+            field.setLength(0);
+            boolean tooLong = false;
+            int c;
+            while ((c = read()) != -1 && c != '\n') {
+                if (c == '\r') continue;
+                if (field.length() >= maxRecordChars) tooLong = true;
+                else field.append((char) c);
+            }
+            if (tooLong) throw new RecordTooLongException(maxRecordChars);
+            if (c == -1 && field.isEmpty()) return null;
+            if (!field.toString().isBlank()) return field.toString();
+        }
+    }
+
+    /** Next RFC 4180 record (quoted fields may contain commas, quotes and newlines), or {@code null} at end of input. */
+    List<String> readCsvRecord() throws IOException {
+        while (true) {
+            List<String> values = new ArrayList<>();
+            field.setLength(0);
+            int recordChars = 0;
+            boolean quoted = false;
+            boolean tooLong = false;
+            int c = read();
+            if (c == -1) return null;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) break;
+                    if (c == '"') {
+                        int next = read();
+                        if (next == '"') append('"', recordChars++);
+                        else {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    } else {
+                        append((char) c, recordChars++);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    break;
+                } else if (c != '\r') {
+                    append((char) c, recordChars++);
+                }
+                if (recordChars > maxRecordChars) tooLong = true;
+                c = read();
+            }
+            if (tooLong) throw new RecordTooLongException(maxRecordChars);
+            values.add(field.toString());
+            if (values.size() == 1 && values.get(0).isBlank()) {
+                if (c == -1) return null;
+                continue;
+            }
+            return values;
+        }
+    }
+
+    private void append(char ch, int recordChars) {
+        if (recordChars < maxRecordChars) field.append(ch);
+    }
+
+    private int read() throws IOException {
+        return in.read();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.flashcards.service;
 
+import com.example.flashcards.dto.CourseDtos;
 import com.example.flashcards.dto.LevelDtos;
 import com.example.flashcards.model.Course;
 import com.example.flashcards.model.Flashcard;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,11 +20,14 @@ public class LevelService {
     private final LevelRepository levelRepository;
     private final FlashcardRepository flashcardRepository;
     private final CourseService courseService;
+    private final CourseAccessService courseAccessService;
 
-    public LevelService(LevelRepository levelRepository, FlashcardRepository flashcardRepository, CourseService courseService) {
+    public LevelService(LevelRepository levelRepository, FlashcardRepository flashcardRepository, CourseService courseService,
+                        CourseAccessService courseAccessService) {
         this.levelRepository = levelRepository;
         this.flashcardRepository = flashcardRepository;
         this.courseService = courseService;
+        this.courseAccessService = courseAccessService;
     }
 
     @Transactional
@@ -37,24 +42,62 @@ public class LevelService {
         return toResponse(saved);
     }
 
+    /** For writes: a level of a course marked deleted is not found. */
     @Transactional(readOnly = true)
     public Level getByIdEntity(Long id) {
-        return levelRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Level not found: " + id));
+        return levelRepository.findByIdAndCourseDeletedAtIsNull(id)
+                .orElseThrow(() -> new EntityNotFoundException("Level not found: " + id));
     }
 
+    /** Strong ETag for the level and its flashcards; see {@link CourseService#contentETag}. */
+    @Transactional(readOnly = true)
+    public String contentETag(Long id, Long viewerId) {
+        LevelRepository.VersionView level = levelRepository.findContentVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Level not found: " + id));
+        courseAccessService.checkRead(viewerId, level.getCourseId(), level.getIsPublic(), level.getCreatedByUserId());
+        return "\"level-" + id + "-v" + level.getContentVersion() + "\"";
+    }
+
+    // contentETag has already turned away a deleted course
     @Transactional(readOnly = true)
     public LevelDtos.Response getById(Long id) {
-        return toResponse(getByIdEntity(id));
+        return toResponse(levelRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Level not found: " + id)));
     }
 
     @Transactional(readOnly = true)
     public List<LevelDtos.Response> listByCourse(Long courseId) {
-        return levelRepository.findByCourseIdOrderByOrderPositionAscIdAsc(courseId).stream().map(this::toResponse).collect(Collectors.toList());
+        List<Level> levels = levelRepository.findByCourseIdOrderByOrderPositionAscIdAsc(courseId);
+        if (levels.isEmpty()) return List.of();
+        Map<Long, List<LevelDtos.FlashcardSummary>> flashcardsByLevel = flashcardRepository.findSummariesByCourseId(courseId).stream()
+                .collect(Collectors.groupingBy(FlashcardRepository.SummaryView::getLevelId,
+                        Collectors.mapping(f -> new LevelDtos.FlashcardSummary(f.getId(), f.getSideA(), f.getSideB(), f.getOrderPosition()), Collectors.toList())));
+        return levels.stream()
+                .map(l -> toResponse(l, courseId, flashcardsByLevel.getOrDefault(l.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public CourseDtos.Tree getCourseTree(Long courseId) {
+        Course c = courseService.getByIdEntity(courseId);
+        return new CourseDtos.Tree(
+                c.getId(),
+                c.getName(),
+                c.getDescription(),
+                c.getTaughtLanguage(),
+                c.getLearningLanguage(),
+                c.isPublic(),
+                c.getCreatedBy() != null ? c.getCreatedBy().getId() : null,
+                listByCourse(courseId)
+        );
     }
 
     private LevelDtos.Response toResponse(Level level) {
         List<Flashcard> fcs = flashcardRepository.findByLevelIdOrderByOrderPositionAscIdAsc(level.getId());
         var flashcards = fcs.stream().map(f -> new LevelDtos.FlashcardSummary(f.getId(), f.getSideA(), f.getSideB(), f.getOrderPosition())).collect(Collectors.toList());
-        return new LevelDtos.Response(level.getId(), level.getCourse().getId(), level.getName(), level.getDescription(), level.getOrderPosition(), flashcards);
+        return toResponse(level, level.getCourse().getId(), flashcards);
+    }
+
+    LevelDtos.Response toResponse(Level level, Long courseId, List<LevelDtos.FlashcardSummary> flashcards) {
+        return new LevelDtos.Response(level.getId(), courseId, level.getName(), level.getDescription(), level.getOrderPosition(), flashcards);
     }
 }
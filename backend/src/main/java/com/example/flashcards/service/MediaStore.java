@@ -0,0 +1,276 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.MediaDtos;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store for flashcard images and audio. A file is named after the SHA-256 of its
+ * bytes, so uploading the same file for many cards keeps one copy, and a name never refers to
+ * different content: it doubles as the ETag and the file can be cached forever. Images get
+ * downscaled thumbnails, named after the original's hash and the thumbnail width.
+ */
+@Service
+public class MediaStore {
+    private static final Pattern NAME = Pattern.compile("([0-9a-f]{64})(?:-w([0-9]{1,5}))?\\.(jpg|png|gif|webp|mp3|ogg|wav)");
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif",
+            "image/webp", "webp",
+            "audio/mpeg", "mp3",
+            "audio/ogg", "ogg",
+            "audio/wav", "wav",
+            "audio/x-wav", "wav",
+            "audio/wave", "wav");
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", "image/jpeg",
+            "png", "image/png",
+            "gif", "image/gif",
+            "webp", "image/webp",
+            "mp3", "audio/mpeg",
+            "ogg", "audio/ogg",
+            "wav", "audio/wav");
+    private static final int SNIFF_BYTES = 12;
+    // Decoded size guard against images that are small on disk but huge in pixels.
+    private static final long MAX_PIXELS = 50_000_000L;
+
+    private final Path root;
+    private final String baseUrl;
+    private final long maxSize;
+    private final int[] thumbnailWidths;
+
+    public MediaStore(@Value("${flashcards.media.dir:data/media}") Path root,
+                      @Value("${flashcards.media.base-url:/api/media}") String baseUrl,
+                      @Value("${flashcards.media.max-size:20971520}") long maxSize,
+                      @Value("${flashcards.media.thumbnail-widths:160,320,640}") int[] thumbnailWidths) {
+        this.root = root;
+        this.baseUrl = baseUrl;
+        this.maxSize = maxSize;
+        this.thumbnailWidths = thumbnailWidths.clone();
+        Arrays.sort(this.thumbnailWidths);
+    }
+
+    /** A stored file ready to be served. */
+    public record StoredFile(Path path, String contentType, String etag) {}
+
+    public MediaDtos.Response store(String contentType, InputStream body) {
+        String extension = contentType == null ? null : EXTENSIONS.get(contentType.toLowerCase());
+        if (extension == null) {
+            throw new IllegalArgumentException("Unsupported media type: " + contentType + "; expected one of " + EXTENSIONS.keySet());
+        }
+        try {
+            Path incoming = incomingDir();
+            Path temp = Files.createTempFile(incoming, "upload-", ".tmp");
+            try {
+                byte[] head = new byte[SNIFF_BYTES];
+                String hash = copyAndHash(body, temp, head);
+                if (!matches(extension, head)) {
+                    throw new IllegalArgumentException("Content does not look like " + contentType);
+                }
+                String name = hash + "." + extension;
+                Path target = path(hash, name);
+                if (Files.exists(target)) return describe(hash, extension, target, true);
+                // Checked and thumbnailed before the name is published, so a rejected image never gets one.
+                MediaDtos.Response response = describe(hash, extension, temp, false);
+                publish(temp, target);
+                return response;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public StoredFile resolve(String name) {
+        Matcher m = NAME.matcher(name);
+        if (!m.matches()) throw new EntityNotFoundException("Media not found: " + name);
+        Path path = path(m.group(1), name);
+        if (!Files.isRegularFile(path)) throw new EntityNotFoundException("Media not found: " + name);
+        return new StoredFile(path, CONTENT_TYPES.get(m.group(3)), "\"" + name.substring(0, name.lastIndexOf('.')) + "\"");
+    }
+
+    private String copyAndHash(InputStream body, Path temp, byte[] head) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            int n;
+            while ((n = body.read(buffer)) > 0) {
+                if (total < SNIFF_BYTES) System.arraycopy(buffer, 0, head, (int) total, (int) Math.min(n, SNIFF_BYTES - total));
+                total += n;
+                if (total > maxSize) throw new IllegalArgumentException("Media larger than " + maxSize + " bytes");
+                digest.update(buffer, 0, n);
+                out.write(buffer, 0, n);
+            }
+        }
+        if (total == 0) throw new IllegalArgumentException("Empty media upload");
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private MediaDtos.Response describe(String hash, String extension, Path original, boolean deduplicated) throws IOException {
+        String contentType = CONTENT_TYPES.get(extension);
+        long size = Files.size(original);
+        String url = baseUrl + "/" + hash + "." + extension;
+        if (contentType.startsWith("audio/")) {
+            return new MediaDtos.Response(hash, MediaDtos.Kind.AUDIO, contentType, size, url, null, null, Map.of(), deduplicated);
+        }
+        Integer width = null;
+        Integer height = null;
+        Map<Integer, String> thumbnails = new LinkedHashMap<>();
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            // Formats without a reader (webp on a stock JDK) are stored and served without thumbnails.
+            if (readers.hasNext()) {
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(in, true, true);
+                    width = reader.getWidth(0);
+                    height = reader.getHeight(0);
+                    if ((long) width * height > MAX_PIXELS) {
+                        throw new IllegalArgumentException("Image has more than " + MAX_PIXELS + " pixels");
+                    }
+                    BufferedImage image = null;
+                    for (int w : thumbnailWidths) {
+                        if (w >= width) break;
+                        String thumbnail = existingThumbnail(hash, w);
+                        if (thumbnail == null) {
+                            if (image == null) image = reader.read(0);
+                            thumbnail = writeThumbnail(hash, image, w);
+                        }
+                        thumbnails.put(w, baseUrl + "/" + thumbnail);
+                    }
+                } catch (IIOException ex) {
+                    // Valid files the JDK cannot decode (CMYK JPEG, for one) are kept without thumbnails.
+                    thumbnails.clear();
+                } finally {
+                    reader.dispose();
+                }
+            }
+        }
+        return new MediaDtos.Response(hash, MediaDtos.Kind.IMAGE, contentType, size, url, width, height, thumbnails, deduplicated);
+    }
+
+    private String existingThumbnail(String hash, int width) {
+        for (String extension : new String[] {"jpg", "png"}) {
+            String name = hash + "-w" + width + "." + extension;
+            if (Files.exists(path(hash, name))) return name;
+        }
+        return null;
+    }
+
+    private String writeThumbnail(String hash, BufferedImage image, int width) throws IOException {
+        boolean alpha = image.getColorModel().hasAlpha();
+        String extension = alpha ? "png" : "jpg";
+        BufferedImage scaled = scale(image, width, alpha);
+        String name = hash + "-w" + width + "." + extension;
+        Path temp = Files.createTempFile(incomingDir(), "thumb-", ".tmp");
+        try {
+            if (!ImageIO.write(scaled, alpha ? "png" : "jpeg", temp.toFile())) {
+                throw new IllegalStateException("No image writer for " + extension);
+            }
+            publish(temp, path(hash, name));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return name;
+    }
+
+    /** Halves the size in bilinear steps before the last one, which keeps downscaled detail without area averaging. */
+    private static BufferedImage scale(BufferedImage image, int width, boolean alpha) {
+        int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+        BufferedImage current = image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage next = new BufferedImage(w, h, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    /** Files only appear under their final name complete; a concurrent upload of the same content wins or loses harmlessly. */
+    private static void publish(Path temp, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException ignored) {
+            // same name, same bytes
+        }
+    }
+
+    private Path incomingDir() throws IOException {
+        return Files.createDirectories(root.resolve("incoming"));
+    }
+
+    private Path path(String hash, String name) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(name);
+    }
+
+    private static boolean matches(String extension, byte[] h) {
+        return switch (extension) {
+            case "jpg" -> u(h[0]) == 0xFF && u(h[1]) == 0xD8 && u(h[2]) == 0xFF;
+            case "png" -> u(h[0]) == 0x89 && h[1] == 'P' && h[2] == 'N' && h[3] == 'G';
+            case "gif" -> h[0] == 'G' && h[1] == 'I' && h[2] == 'F' && h[3] == '8';
+            case "webp" -> ascii(h, 0, "RIFF") && ascii(h, 8, "WEBP");
+            case "wav" -> ascii(h, 0, "RIFF") && ascii(h, 8, "WAVE");
+            case "ogg" -> ascii(h, 0, "OggS");
+            // ID3 tag, or an MPEG audio frame sync
+            case "mp3" -> ascii(h, 0, "ID3") || (u(h[0]) == 0xFF && (u(h[1]) & 0xE0) == 0xE0);
+            default -> false;
+        };
+    }
+
+    private static boolean ascii(byte[] h, int at, String s) {
+        for (int i = 0; i < s.length(); i++) if (h[at + i] != s.charAt(i)) return false;
+        return true;
+    }
+
+    private static int u(byte b) {
+        return b & 0xFF;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.ReorderDtos;
+import com.example.flashcards.repository.OrderPositionRepository;
+import com.example.flashcards.repository.OrderPositionRepository.Scope;
+import com.example.flashcards.repository.OrderPositionRepository.Slot;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies move operations to flashcards within a level and levels within a course. Each move reads
+ * the anchor and its neighbour and writes the moved row alone; the parent is respaced only when a
+ * move finds no free position, or the anchor has none yet.
+ */
+@Service
+public class ReorderService {
+    // Integer.MAX_VALUE stands for "no position" in the flashcard read index, so it is never assigned
+    private static final long MAX_POSITION = Integer.MAX_VALUE - 1L;
+    private static final long MIN_POSITION = Integer.MIN_VALUE;
+
+    private final OrderPositionRepository orderPositionRepository;
+
+    public ReorderService(OrderPositionRepository orderPositionRepository) {
+        this.orderPositionRepository = orderPositionRepository;
+    }
+
+    @Transactional
+    public ReorderDtos.Result reorderFlashcards(Long levelId, ReorderDtos.Request req) {
+        return reorder(Scope.FLASHCARDS, levelId, req, "Level", "Flashcard");
+    }
+
+    @Transactional
+    public ReorderDtos.Result reorderLevels(Long courseId, ReorderDtos.Request req) {
+        return reorder(Scope.LEVELS, courseId, req, "Course", "Level");
+    }
+
+    private ReorderDtos.Result reorder(Scope scope, long parentId, ReorderDtos.Request req, String parentName, String childName) {
+        for (ReorderDtos.Move move : req.moves()) validate(move);
+        if (!orderPositionRepository.lockParent(scope, parentId)) {
+            throw new EntityNotFoundException(parentName + " not found: " + parentId);
+        }
+        Map<Long, Integer> positions = new LinkedHashMap<>();
+        boolean rebalanced = false;
+        for (ReorderDtos.Move move : req.moves()) {
+            Integer position = place(scope, parentId, move, childName);
+            if (position == null) {
+                orderPositionRepository.rebalance(scope, parentId);
+                rebalanced = true;
+                // freshly spaced neighbours always leave room
+                position = place(scope, parentId, move, childName);
+            }
+            if (!orderPositionRepository.updatePosition(scope, parentId, move.id(), position)) {
+                throw new EntityNotFoundException(childName + " not found in " + parentName.toLowerCase() + " " + parentId + ": " + move.id());
+            }
+            positions.put(move.id(), position);
+        }
+        if (rebalanced) {
+            // a rebalance after an earlier move shifts that move's position too
+            positions.putAll(orderPositionRepository.findPositions(scope, parentId, positions.keySet()));
+        }
+        List<ReorderDtos.Position> result = new ArrayList<>(positions.size());
+        positions.forEach((id, position) -> result.add(new ReorderDtos.Position(id, position)));
+        return new ReorderDtos.Result(result, rebalanced);
+    }
+
+    private Integer place(Scope scope, long parentId, ReorderDtos.Move move, String childName) {
+        boolean after = move.afterId() != null;
+        long anchorId = after ? move.afterId() : move.beforeId();
+        Slot slot = after
+                ? orderPositionRepository.findSlotAfter(scope, parentId, anchorId, move.id())
+                : orderPositionRepository.findSlotBefore(scope, parentId, anchorId, move.id());
+        if (slot == null) {
+            throw new EntityNotFoundException(childName + " not found: " + anchorId);
+        }
+        return after ? positionAfter(slot.anchor(), slot.neighbour()) : positionBefore(slot.anchor(), slot.neighbour());
+    }
+
+    /** A free position between the anchor and the next row, or null when the parent needs respacing. */
+    static Integer positionAfter(Integer anchor, Integer next) {
+        if (anchor == null) return null;
+        if (next == null) {
+            long position = (long) anchor + OrderPositionRepository.GAP;
+            return position <= MAX_POSITION ? (int) position : null;
+        }
+        return midpoint(anchor, next);
+    }
+
+    /** A free position between the previous row and the anchor, or null when the parent needs respacing. */
+    static Integer positionBefore(Integer anchor, Integer previous) {
+        if (anchor == null) return null;
+        if (previous == null) {
+            long position = (long) anchor - OrderPositionRepository.GAP;
+            return position >= MIN_POSITION ? (int) position : null;
+        }
+        return midpoint(previous, anchor);
+    }
+
+    private static Integer midpoint(long low, long high) {
+        if (high - low < 2) return null;
+        return (int) (low + (high - low) / 2);
+    }
+
+    private static void validate(ReorderDtos.Move move) {
+        if ((move.beforeId() == null) == (move.afterId() == null)) {
+            throw new IllegalArgumentException("Exactly one of beforeId and afterId must be set for move of " + move.id());
+        }
+        if (move.id().equals(move.beforeId()) || move.id().equals(move.afterId())) {
+            throw new IllegalArgumentException("Cannot move " + move.id() + " relative to itself");
+        }
+    }
+}
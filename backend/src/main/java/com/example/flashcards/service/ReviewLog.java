@@ -0,0 +1,227 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.repository.UserProgressBatchRepository.ProgressState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only redo log of progress states, kept in memory-mapped segment files of fixed 64-byte
+ * records. Segments are preallocated, so an unwritten record reads as zeros; a record whose
+ * checksum does not match was torn by a crash and ends its segment.
+ * <p>
+ * Appends are serialized; {@link #sync} forces everything appended so far, so callers that append
+ * concurrently share one flush to disk.
+ */
+final class ReviewLog implements AutoCloseable {
+    static final int RECORD_SIZE = 64;
+    private static final byte TYPE_PROGRESS = 1;
+    private static final String PREFIX = "reviews-";
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final int segmentSize;
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C crc = new CRC32C();
+    private final Object syncLock = new Object();
+
+    // guarded by this
+    private long sequence;
+    private MappedByteBuffer segment;
+    private int position;
+    private long appended;
+    private long segmentStart;
+
+    private volatile long durable;
+
+    ReviewLog(Path dir, long segmentSize) {
+        if (segmentSize < RECORD_SIZE || segmentSize % RECORD_SIZE != 0 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be a multiple of " + RECORD_SIZE + " bytes below 2GB: " + segmentSize);
+        }
+        this.dir = dir;
+        this.segmentSize = (int) segmentSize;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        List<Long> existing = segments();
+        sequence = existing.isEmpty() ? 0 : existing.get(existing.size() - 1);
+    }
+
+    /** Sequence numbers of the segments on disk, oldest first. */
+    List<Long> segments() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(PREFIX) && n.endsWith(SUFFIX))
+                    .map(n -> Long.parseLong(n, PREFIX.length(), n.length() - SUFFIX.length(), 10))
+                    .sorted()
+                    .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** Feeds every intact record of the segments up to {@code lastSequence} to the consumer, in append order. */
+    void replay(long lastSequence, BiConsumer<Long, ProgressState> consumer) {
+        for (long seq : segments()) {
+            if (seq > lastSequence) break;
+            try (FileChannel channel = FileChannel.open(path(seq), StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+                CRC32C check = new CRC32C();
+                for (int at = 0; at + RECORD_SIZE <= buffer.limit(); at += RECORD_SIZE) {
+                    if (buffer.get(at + 4) != TYPE_PROGRESS) break;
+                    check.reset();
+                    check.update(buffer.slice(at + 4, RECORD_SIZE - 4));
+                    if ((int) check.getValue() != buffer.getInt(at)) break;
+                    consumer.accept(buffer.getLong(at + 8), read(buffer, at));
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /** Appends the states without forcing them to disk; returns the position to pass to {@link #sync}. */
+    synchronized long append(long userId, Iterable<ProgressState> states) {
+        for (ProgressState s : states) {
+            if (segment == null || position == segmentSize) openNext();
+            write(userId, s);
+            segment.put(position, scratch, 0, RECORD_SIZE);
+            position += RECORD_SIZE;
+            appended += RECORD_SIZE;
+        }
+        return appended;
+    }
+
+    /** Forces the log to disk at least up to {@code upTo}. */
+    void sync(long upTo) {
+        if (durable >= upTo) return;
+        synchronized (syncLock) {
+            if (durable >= upTo) return;
+            MappedByteBuffer current;
+            long from;
+            long to;
+            long start;
+            synchronized (this) {
+                current = segment;
+                start = segmentStart;
+                from = Math.max(durable, start);
+                to = appended;
+            }
+            // A null segment was sealed, and sealing forced it.
+            if (current != null && to > from) current.force((int) (from - start), (int) (to - from));
+            durable = to;
+        }
+    }
+
+    /**
+     * Starts a new segment for subsequent appends and returns the sequence of the last one that may
+     * hold records, so that everything appended so far can be dropped with {@link #deleteThrough}.
+     */
+    synchronized long seal() {
+        long sealed = sequence;
+        if (segment != null && position > 0) {
+            segment.force();
+            segment = null;
+        }
+        return sealed;
+    }
+
+    void deleteThrough(long lastSequence) {
+        long open;
+        synchronized (this) {
+            open = segment != null ? sequence : Long.MAX_VALUE;
+        }
+        for (long seq : segments()) {
+            if (seq > lastSequence || seq == open) break;
+            try {
+                Files.deleteIfExists(path(seq));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (segment != null) segment.force();
+        segment = null;
+    }
+
+    private void openNext() {
+        if (segment != null) segment.force();
+        sequence++;
+        try (FileChannel channel = FileChannel.open(path(sequence),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        position = 0;
+        segmentStart = appended;
+        durable = Math.max(durable, segmentStart);
+    }
+
+    private Path path(long seq) {
+        return dir.resolve(PREFIX + String.format("%016d", seq) + SUFFIX);
+    }
+
+    private void write(long userId, ProgressState s) {
+        scratch.clear();
+        scratch.putInt(0)
+                .put(TYPE_PROGRESS).put((byte) 0).put((byte) 0).put((byte) 0)
+                .putLong(userId)
+                .putLong(s.flashcardId())
+                .putInt(s.timesSeen())
+                .putInt(s.correctAnswers())
+                .putInt(s.incorrectAnswers())
+                .putInt(s.intervalDays())
+                .putInt(s.repetitions())
+                .putInt(Float.floatToRawIntBits(s.easeFactor() != null ? s.easeFactor() : Float.NaN))
+                .putLong(micros(s.lastReviewed()))
+                .putLong(micros(s.nextReview()));
+        crc.reset();
+        crc.update(scratch.slice(4, RECORD_SIZE - 4));
+        scratch.putInt(0, (int) crc.getValue());
+    }
+
+    private static ProgressState read(ByteBuffer b, int at) {
+        float ease = Float.intBitsToFloat(b.getInt(at + 44));
+        return new ProgressState(
+                b.getLong(at + 16),
+                b.getInt(at + 24),
+                b.getInt(at + 28),
+                b.getInt(at + 32),
+                time(b.getLong(at + 48)),
+                time(b.getLong(at + 56)),
+                Float.isNaN(ease) ? null : ease,
+                b.getInt(at + 36),
+                b.getInt(at + 40)
+        );
+    }
+
+    private static long micros(OffsetDateTime t) {
+        return t == null ? Long.MIN_VALUE : ChronoUnit.MICROS.between(Instant.EPOCH, t.toInstant());
+    }
+
+    private static OffsetDateTime time(long micros) {
+        return micros == Long.MIN_VALUE ? null : OffsetDateTime.ofInstant(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.common.KeysetCursor;
+import com.example.flashcards.dto.ReviewDtos;
+import com.example.flashcards.model.UserProgress;
+import com.example.flashcards.repository.UserProgressBatchRepository;
+import com.example.flashcards.repository.UserProgressBatchRepository.ProgressState;
+import com.example.flashcards.repository.UserProgressRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Service
+public class ReviewService {
+    public static final int DEFAULT_DUE_LIMIT = 20;
+    public static final int MAX_DUE_LIMIT = 200;
+
+    private static final OffsetDateTime QUEUE_START = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private final UserProgressRepository userProgressRepository;
+    private final UserProgressBatchRepository userProgressBatchRepository;
+    private final UserService userService;
+    private final FlashcardService flashcardService;
+    private final CourseAccessService courseAccessService;
+    private final ReviewWriteBehindBuffer writeBehind;
+
+    public ReviewService(UserProgressRepository userProgressRepository, UserProgressBatchRepository userProgressBatchRepository,
+                         UserService userService, FlashcardService flashcardService, CourseAccessService courseAccessService,
+                         ObjectProvider<ReviewWriteBehindBuffer> writeBehind) {
+        this.userProgressRepository = userProgressRepository;
+        this.userProgressBatchRepository = userProgressBatchRepository;
+        this.userService = userService;
+        this.flashcardService = flashcardService;
+        this.courseAccessService = courseAccessService;
+        this.writeBehind = writeBehind.getIfAvailable();
+    }
+
+    @Transactional
+    public ReviewDtos.Result submit(Long userId, ReviewDtos.Submit req) {
+        OffsetDateTime answeredAt = req.answeredAt() != null ? req.answeredAt() : OffsetDateTime.now();
+        ReviewDtos.ItemResult result = submitBatch(userId, List.of(new ReviewDtos.BatchItem(req.flashcardId(), req.grade(), answeredAt))).results().get(0);
+        if (result.status() == ReviewDtos.ItemStatus.UNKNOWN_FLASHCARD) {
+            throw new EntityNotFoundException("Flashcard not found: " + req.flashcardId());
+        }
+        return result.schedule();
+    }
+
+    /**
+     * Applies answers in answeredAt order per card. An answer at or before the card's stored
+     * last_reviewed is reported instead of applied, which makes client retries idempotent.
+     * With write-behind enabled the new states are logged and buffered rather than upserted.
+     */
+    @Transactional
+    public ReviewDtos.BatchResult submitBatch(Long userId, List<ReviewDtos.BatchItem> items) {
+        userService.getByIdEntity(userId);
+        Set<Long> requestedIds = items.stream().map(ReviewDtos.BatchItem::flashcardId).collect(Collectors.toCollection(TreeSet::new));
+        // cards of courses the user may not read are reported as unknown, as if they did not exist
+        Set<Long> knownIds = userProgressBatchRepository.findFlashcardCourses(requestedIds).stream()
+                .filter(f -> courseAccessService.canRead(userId, f.courseId(), f.isPublic(), f.createdByUserId()))
+                .map(UserProgressBatchRepository.FlashcardCourse::flashcardId)
+                .collect(Collectors.toSet());
+        if (writeBehind == null) {
+            Map<Long, ProgressState> states = new HashMap<>();
+            for (ProgressState s : userProgressBatchRepository.lockForUpdate(userId, knownIds)) {
+                states.put(s.flashcardId(), s);
+            }
+            Map<Long, ProgressState> changed = new LinkedHashMap<>();
+            ReviewDtos.BatchResult result = applyAll(items, knownIds, states, changed);
+            userProgressBatchRepository.upsertAll(userId, new ArrayList<>(changed.values()));
+            return result;
+        }
+        try (ReviewWriteBehindBuffer.Session session = writeBehind.open(userId)) {
+            Map<Long, ProgressState> states = new HashMap<>();
+            for (ProgressState s : userProgressBatchRepository.findStates(userId, knownIds)) {
+                states.put(s.flashcardId(), s);
+            }
+            states.putAll(session.buffered(knownIds));
+            Map<Long, ProgressState> changed = new LinkedHashMap<>();
+            ReviewDtos.BatchResult result = applyAll(items, knownIds, states, changed);
+            session.record(changed.values());
+            return result;
+        }
+    }
+
+    private static ReviewDtos.BatchResult applyAll(List<ReviewDtos.BatchItem> items, Set<Long> knownIds,
+                                                   Map<Long, ProgressState> states, Map<Long, ProgressState> changed) {
+        List<Integer> order = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) order.add(i);
+        order.sort(Comparator.comparing(i -> items.get(i).answeredAt().toInstant()));
+
+        ReviewDtos.ItemResult[] results = new ReviewDtos.ItemResult[items.size()];
+        for (int i : order) {
+            ReviewDtos.BatchItem item = items.get(i);
+            Long flashcardId = item.flashcardId();
+            OffsetDateTime answeredAt = item.answeredAt().truncatedTo(ChronoUnit.MICROS);
+            if (!knownIds.contains(flashcardId)) {
+                results[i] = new ReviewDtos.ItemResult(flashcardId, answeredAt, ReviewDtos.ItemStatus.UNKNOWN_FLASHCARD, null);
+                continue;
+            }
+            ProgressState current = states.get(flashcardId);
+            if (current != null && current.lastReviewed() != null && !answeredAt.isAfter(current.lastReviewed())) {
+                ReviewDtos.ItemStatus status = answeredAt.isEqual(current.lastReviewed())
+                        ? ReviewDtos.ItemStatus.DUPLICATE
+                        : ReviewDtos.ItemStatus.OUT_OF_DATE;
+                results[i] = new ReviewDtos.ItemResult(flashcardId, answeredAt, status, toResult(current));
+                continue;
+            }
+            ProgressState next = apply(current, flashcardId, item.grade(), answeredAt);
+            states.put(flashcardId, next);
+            changed.put(flashcardId, next);
+            results[i] = new ReviewDtos.ItemResult(flashcardId, answeredAt, ReviewDtos.ItemStatus.APPLIED, toResult(next));
+        }
+        int applied = (int) Arrays.stream(results).filter(r -> r.status() == ReviewDtos.ItemStatus.APPLIED).count();
+        return new ReviewDtos.BatchResult(applied, Arrays.asList(results));
+    }
+
+    @Transactional(readOnly = true)
+    public ReviewDtos.DuePage listDue(Long userId, Long viewerId, Long courseId, Integer limit, String after) {
+        courseAccessService.checkSelf(viewerId, userId);
+        int pageSize = KeysetCursor.limit(limit, DEFAULT_DUE_LIMIT, MAX_DUE_LIMIT);
+        OffsetDateTime afterReview = QUEUE_START;
+        long afterFlashcardId = 0L;
+        if (after != null && !after.isBlank()) {
+            long[] keys = KeysetCursor.decode(after, 2);
+            afterReview = OffsetDateTime.ofInstant(Instant.EPOCH.plus(keys[0], ChronoUnit.MICROS), ZoneOffset.UTC);
+            afterFlashcardId = keys[1];
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        List<UserProgress> rows = courseId == null
+                ? userProgressRepository.findDue(userId, now, afterReview, afterFlashcardId, pageSize + 1)
+                : userProgressRepository.findDueInCourse(userId, courseId, now, afterReview, afterFlashcardId, pageSize + 1);
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            UserProgress last = rows.get(pageSize - 1);
+            nextCursor = KeysetCursor.encode(ChronoUnit.MICROS.between(Instant.EPOCH, last.getNextReview().toInstant()), last.getFlashcardId());
+        }
+        // One IN query puts every card of the page into the persistence context before mapping.
+        flashcardService.getByIdsEntity(rows.stream().map(UserProgress::getFlashcardId).collect(Collectors.toList()));
+
+        List<ReviewDtos.DueCard> cards = rows.stream()
+                .filter(p -> !rescheduled(userId, p, now))
+                .map(this::toDueCard)
+                .collect(Collectors.toList());
+        return new ReviewDtos.DuePage(cards, nextCursor);
+    }
+
+    /** A card answered since the last write-behind flush is no longer due, though the row still says so. */
+    private boolean rescheduled(Long userId, UserProgress p, OffsetDateTime now) {
+        if (writeBehind == null) return false;
+        ProgressState buffered = writeBehind.peek(userId, p.getFlashcardId());
+        return buffered != null && buffered.nextReview().isAfter(now);
+    }
+
+    private static ProgressState apply(ProgressState current, long flashcardId, int grade, OffsetDateTime answeredAt) {
+        Sm2Scheduler.State state = current == null || current.easeFactor() == null
+                ? Sm2Scheduler.State.NEW
+                : new Sm2Scheduler.State(current.repetitions(), current.intervalDays(), current.easeFactor());
+        Sm2Scheduler.State next = Sm2Scheduler.next(state, grade);
+        boolean correct = grade >= Sm2Scheduler.PASSING_GRADE;
+        return new ProgressState(
+                flashcardId,
+                (current == null ? 0 : current.timesSeen()) + 1,
+                (current == null ? 0 : current.correctAnswers()) + (correct ? 1 : 0),
+                (current == null ? 0 : current.incorrectAnswers()) + (correct ? 0 : 1),
+                answeredAt,
+                answeredAt.plusDays(next.intervalDays()),
+                next.easeFactor(),
+                next.intervalDays(),
+                next.repetitions()
+        );
+    }
+
+    private static ReviewDtos.Result toResult(ProgressState s) {
+        return new ReviewDtos.Result(
+                s.flashcardId(),
+                s.repetitions(),
+                s.intervalDays(),
+                s.easeFactor() != null ? s.easeFactor() : Sm2Scheduler.DEFAULT_EASE_FACTOR,
+                s.nextReview()
+        );
+    }
+
+    private ReviewDtos.DueCard toDueCard(UserProgress p) {
+        return new ReviewDtos.DueCard(
+                p.getFlashcardId(),
+                p.getFlashcard().getLevel().getId(),
+                p.getFlashcard().getSideA(),
+                p.getFlashcard().getSideB(),
+                p.getTimesSeen(),
+                p.getIntervalDays(),
+                p.getEaseFactor() != null ? p.getEaseFactor() : Sm2Scheduler.DEFAULT_EASE_FACTOR,
+                p.getNextReview()
+        );
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.config.ReviewWriteBehindProperties;
+import com.example.flashcards.repository.UserProgressBatchRepository;
+import com.example.flashcards.repository.UserProgressBatchRepository.ProgressState;
+import com.example.flashcards.repository.UserProgressBatchRepository.UserProgressState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds acknowledged review results in memory and writes them to user_progress in large batches.
+ * Repeated answers to the same card between flushes collapse into one row write. Every state is
+ * appended to a {@link ReviewLog} and forced to disk before the answer is acknowledged; the log
+ * is replayed into the database on startup, and a segment is deleted only once the rows it holds
+ * have been committed.
+ * <p>
+ * A user's reviews are serialized by a lock stripe instead of row locks, so a user must be served
+ * by a single node while this is enabled.
+ */
+public class ReviewWriteBehindBuffer implements SmartLifecycle, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(ReviewWriteBehindBuffer.class);
+    private static final int STRIPES = 64;
+
+    private final ReviewWriteBehindProperties properties;
+    private final UserProgressBatchRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private ReviewLog reviewLog;
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    // Swapped and merged only while holding every stripe; read under the caller's stripe.
+    private volatile Map<Long, Map<Long, ProgressState>> pending = new ConcurrentHashMap<>();
+    private volatile Map<Long, Map<Long, ProgressState>> inFlight = Map.of();
+
+    private Timer flushTimer;
+    private Counter rowsFlushed;
+    private Counter answersCoalesced;
+    private Counter flushFailures;
+
+    public ReviewWriteBehindBuffer(ReviewWriteBehindProperties properties, UserProgressBatchRepository repository,
+                                   TransactionTemplate transactionTemplate) {
+        this.properties = properties;
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+    }
+
+    @Override
+    public void start() {
+        reviewLog = new ReviewLog(properties.logDir(), properties.segmentSize().toBytes());
+        replay();
+        flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("review-write-behind").factory());
+        long interval = properties.flushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything this misses is still in the log and is written on the next start.
+        flushQuietly();
+        reviewLog.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Starts before the web server accepts requests and stops after it has drained them. */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /** Serializes one user's review submission against other submissions for that user and against flushes. */
+    public Session open(long userId) {
+        ReentrantLock stripe = stripes[Long.hashCode(userId) & (STRIPES - 1)];
+        stripe.lock();
+        return new Session(userId, stripe);
+    }
+
+    /** The unflushed state of the user's card, if any; for reads that must not wait for the next flush. */
+    public ProgressState peek(long userId, long flashcardId) {
+        ProgressState state = get(pending, userId, flashcardId);
+        return state != null ? state : get(inFlight, userId, flashcardId);
+    }
+
+    public int getPending() {
+        return pendingCount.get();
+    }
+
+    public final class Session implements AutoCloseable {
+        private final long userId;
+        private final ReentrantLock stripe;
+
+        private Session(long userId, ReentrantLock stripe) {
+            this.userId = userId;
+            this.stripe = stripe;
+        }
+
+        /** Unflushed states of the given cards, which take precedence over what the database holds. */
+        public Map<Long, ProgressState> buffered(Collection<Long> flashcardIds) {
+            Map<Long, ProgressState> result = new HashMap<>();
+            for (Long id : flashcardIds) {
+                ProgressState state = peek(userId, id);
+                if (state != null) result.put(id, state);
+            }
+            return result;
+        }
+
+        /** Returns once the states are durable in the log; they reach the database with a later flush. */
+        public void record(Collection<ProgressState> states) {
+            if (states.isEmpty()) return;
+            long position = reviewLog.append(userId, states);
+            if (properties.fsync()) reviewLog.sync(position);
+            Map<Long, ProgressState> cards = pending.computeIfAbsent(userId, k -> new ConcurrentHashMap<>());
+            for (ProgressState s : states) {
+                if (cards.put(s.flashcardId(), s) == null) pendingCount.incrementAndGet();
+                else answersCoalesced.increment();
+            }
+            if (pendingCount.get() >= properties.maxPending() && flushRequested.compareAndSet(false, true)) {
+                flusher.execute(this::flushEarly);
+            }
+        }
+
+        private void flushEarly() {
+            flushRequested.set(false);
+            flushQuietly();
+        }
+
+        @Override
+        public void close() {
+            stripe.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            flushFailures.increment();
+            log.warn("Review write-behind flush failed, keeping {} cards buffered: {}", pendingCount.get(), ex.getMessage());
+        }
+    }
+
+    void flush() {
+        flushLock.lock();
+        try {
+            long sealed;
+            Map<Long, Map<Long, ProgressState>> batch;
+            lockAll();
+            try {
+                if (pending.isEmpty()) return;
+                batch = pending;
+                inFlight = batch;
+                pending = new ConcurrentHashMap<>();
+                pendingCount.set(0);
+                sealed = reviewLog.seal();
+            } finally {
+                unlockAll();
+            }
+            try {
+                List<UserProgressState> rows = new ArrayList<>();
+                batch.forEach((userId, cards) -> cards.values().forEach(s -> rows.add(new UserProgressState(userId, s))));
+                flushTimer.record(() -> write(rows));
+                rowsFlushed.increment(rows.size());
+            } catch (RuntimeException ex) {
+                restore(batch);
+                throw ex;
+            }
+            lockAll();
+            try {
+                inFlight = Map.of();
+            } finally {
+                unlockAll();
+            }
+            reviewLog.deleteThrough(sealed);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /** Puts a failed batch back behind anything recorded since, so the next flush retries it. */
+    private void restore(Map<Long, Map<Long, ProgressState>> batch) {
+        lockAll();
+        try {
+            batch.forEach((userId, cards) -> {
+                Map<Long, ProgressState> current = pending.computeIfAbsent(userId, k -> new ConcurrentHashMap<>());
+                cards.forEach((id, s) -> {
+                    if (current.putIfAbsent(id, s) == null) pendingCount.incrementAndGet();
+                });
+            });
+            inFlight = Map.of();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /** Cards deleted since the answer was acknowledged are dropped rather than failing the batch. */
+    private void write(List<UserProgressState> rows) {
+        for (int from = 0; from < rows.size(); from += properties.flushBatchSize()) {
+            List<UserProgressState> chunk = rows.subList(from, Math.min(rows.size(), from + properties.flushBatchSize()));
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> ids = new HashSet<>();
+                chunk.forEach(r -> ids.add(r.state().flashcardId()));
+                Set<Long> existing = repository.findExistingFlashcardIds(ids);
+                repository.upsertAll(chunk.stream().filter(r -> existing.contains(r.state().flashcardId())).toList());
+            });
+        }
+    }
+
+    private void replay() {
+        long last = reviewLog.seal();
+        Map<Long, Map<Long, ProgressState>> latest = new HashMap<>();
+        int[] records = new int[1];
+        reviewLog.replay(last, (userId, state) -> {
+            records[0]++;
+            latest.computeIfAbsent(userId, k -> new HashMap<>()).merge(state.flashcardId(), state,
+                    (a, b) -> b.lastReviewed().isBefore(a.lastReviewed()) ? a : b);
+        });
+        if (records[0] == 0) {
+            reviewLog.deleteThrough(last);
+            return;
+        }
+        List<UserProgressState> rows = new ArrayList<>();
+        latest.forEach((userId, cards) -> cards.values().forEach(s -> rows.add(new UserProgressState(userId, s))));
+        write(rows);
+        reviewLog.deleteThrough(last);
+        log.info("Replayed {} logged reviews into {} progress rows", records[0], rows.size());
+    }
+
+    private void lockAll() {
+        for (ReentrantLock stripe : stripes) stripe.lock();
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) stripes[i].unlock();
+    }
+
+    private static ProgressState get(Map<Long, Map<Long, ProgressState>> buffer, long userId, long flashcardId) {
+        Map<Long, ProgressState> cards = buffer.get(userId);
+        return cards == null ? null : cards.get(flashcardId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("reviews.write_behind.pending", pendingCount, AtomicInteger::get)
+                .description("Cards with an acknowledged review not yet written to the database")
+                .register(registry);
+        flushTimer = Timer.builder("reviews.write_behind.flush")
+                .description("Time to write one flush of buffered progress rows")
+                .register(registry);
+        rowsFlushed = Counter.builder("reviews.write_behind.rows").register(registry);
+        answersCoalesced = Counter.builder("reviews.write_behind.coalesced")
+                .description("Answers that replaced a buffered state instead of adding a row write")
+                .register(registry);
+        flushFailures = Counter.builder("reviews.write_behind.failures").register(registry);
+    }
+}
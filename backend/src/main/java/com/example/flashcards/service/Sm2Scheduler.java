@@ -0,0 +1,38 @@
+package com.example.flashcards.service;
+
+/**
+ * SuperMemo-2 interval scheduling. Grades run from 0 (blackout) to 5 (perfect recall);
+ * anything below 3 resets the repetition streak.
+ */
+public final class Sm2Scheduler {
+
+    public static final int MIN_GRADE = 0;
+    public static final int MAX_GRADE = 5;
+    public static final int PASSING_GRADE = 3;
+    public static final float DEFAULT_EASE_FACTOR = 2.5f;
+    public static final float MIN_EASE_FACTOR = 1.3f;
+
+    public record State(int repetitions, int intervalDays, float easeFactor) {
+        public static final State NEW = new State(0, 0, DEFAULT_EASE_FACTOR);
+    }
+
+    private Sm2Scheduler() {
+    }
+
+    public static State next(State current, int grade) {
+        if (grade < MIN_GRADE || grade > MAX_GRADE) {
+            throw new IllegalArgumentException("Grade must be between " + MIN_GRADE + " and " + MAX_GRADE + ": " + grade);
+        }
+        int q = MAX_GRADE - grade;
+        float ease = Math.max(MIN_EASE_FACTOR, current.easeFactor() + (0.1f - q * (0.08f + q * 0.02f)));
+        if (grade < PASSING_GRADE) {
+            return new State(0, 1, ease);
+        }
+        int interval = switch (current.repetitions()) {
+            case 0 -> 1;
+            case 1 -> 6;
+            default -> Math.round(current.intervalDays() * current.easeFactor());
+        };
+        return new State(current.repetitions() + 1, interval, ease);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.UserDtos;
+import com.example.flashcards.repository.UserCourseStatsRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dashboard statistics served from user_course_stats. Review writes keep the table current through
+ * database triggers; a nightly job rebuilds it from user_progress in blocks of users, several at once,
+ * which also moves the due-card histograms forward to the current day.
+ */
+@Service
+public class UserStatsService {
+    private static final Logger log = LoggerFactory.getLogger(UserStatsService.class);
+
+    private final UserCourseStatsRepository repository;
+    private final CourseAccessService courseAccessService;
+    private final int reconcileParallelism;
+
+    public UserStatsService(UserCourseStatsRepository repository, CourseAccessService courseAccessService,
+                            @Value("${flashcards.stats.reconcile-parallelism:4}") int reconcileParallelism) {
+        this.repository = repository;
+        this.courseAccessService = courseAccessService;
+        this.reconcileParallelism = reconcileParallelism;
+    }
+
+    @Transactional(readOnly = true)
+    public UserDtos.Stats get(Long userId, Long viewerId) {
+        courseAccessService.checkSelf(viewerId, userId);
+        List<UserCourseStatsRepository.Row> rows = repository.findByUserId(userId);
+        if (rows == null) throw new EntityNotFoundException("User not found: " + userId);
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<UserDtos.CourseStats> courses = new ArrayList<>(rows.size());
+        int cardsSeen = 0;
+        int cardsLearned = 0;
+        int dueToday = 0;
+        long reviews = 0;
+        long correct = 0;
+        for (UserCourseStatsRepository.Row r : rows) {
+            int due = dueToday(r, today);
+            courses.add(new UserDtos.CourseStats(r.courseId(), r.cardsSeen(), r.cardsLearned(), due, r.reviews(),
+                    accuracy(r.correctAnswers(), r.reviews()), isCurrent(r, today) ? r.streakDays() : 0, r.lastActiveDay()));
+            cardsSeen += r.cardsSeen();
+            cardsLearned += r.cardsLearned();
+            dueToday += due;
+            reviews += r.reviews();
+            correct += r.correctAnswers();
+        }
+        int started = (int) rows.stream().filter(r -> r.cardsSeen() > 0).count();
+        return new UserDtos.Stats(userId, cardsSeen, cardsLearned, dueToday, reviews, accuracy(correct, reviews),
+                streakDays(rows, today), started, courses);
+    }
+
+    @Scheduled(cron = "${flashcards.stats.reconcile-cron:0 30 3 * * *}", zone = "UTC")
+    public void reconcile() {
+        long startedAt = System.nanoTime();
+        long[] blocks = repository.userBlocks();
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        try (ExecutorService pool = Executors.newFixedThreadPool(reconcileParallelism,
+                Thread.ofPlatform().name("stats-reconcile-", 0).factory())) {
+            for (long block : blocks) {
+                pool.execute(() -> {
+                    try {
+                        written.addAndGet(repository.reconcile(block));
+                    } catch (RuntimeException ex) {
+                        failed.incrementAndGet();
+                        log.warn("Reconciling user course stats failed for users from {}: {}",
+                                block * UserCourseStatsRepository.USERS_PER_BLOCK, ex.getMessage());
+                    }
+                });
+            }
+        }
+        log.info("Reconciled user course stats: {} blocks, {} rows written, {} blocks failed in {}",
+                blocks.length, written.get(), failed.get(), Duration.ofNanos(System.nanoTime() - startedAt));
+    }
+
+    /** Cards due on or before today; the first bucket also holds everything overdue at histogram_start. */
+    static int dueToday(UserCourseStatsRepository.Row r, LocalDate today) {
+        long days = ChronoUnit.DAYS.between(r.histogramStart(), today);
+        int last = (int) Math.min(Math.max(days, 0), r.dueByDay().length - 1);
+        int due = 0;
+        for (int i = 0; i <= last; i++) due += r.dueByDay()[i];
+        return due;
+    }
+
+    /**
+     * Consecutive days with answers in any course, ending today or, while today has none yet,
+     * yesterday. The day masks cover 64 days; longer streaks come from the per-course counters.
+     */
+    static int streakDays(List<UserCourseStatsRepository.Row> rows, LocalDate today) {
+        long merged = 0;
+        int longestCourseStreak = 0;
+        for (UserCourseStatsRepository.Row r : rows) {
+            if (r.lastActiveDay() == null) continue;
+            long age = Math.max(0, ChronoUnit.DAYS.between(r.lastActiveDay(), today));
+            if (age < 64) merged |= r.activeDays() << age;
+            if (isCurrent(r, today)) longestCourseStreak = Math.max(longestCourseStreak, r.streakDays());
+        }
+        int run = Long.numberOfTrailingZeros(~((merged & 1) != 0 ? merged : merged >>> 1));
+        return Math.max(run, longestCourseStreak);
+    }
+
+    private static boolean isCurrent(UserCourseStatsRepository.Row r, LocalDate today) {
+        return r.lastActiveDay() != null && !r.lastActiveDay().isBefore(today.minusDays(1));
+    }
+
+    private static double accuracy(long correct, long reviews) {
+        return reviews == 0 ? 0 : (double) correct / reviews;
+    }
+}
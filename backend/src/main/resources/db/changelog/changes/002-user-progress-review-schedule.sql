@@ -0,0 +1,11 @@
+--liquibase formatted sql
+
+--changeset marekborecki88:2
+-- SM-2 scheduling state kept alongside the existing USER_PROGRESS counters
+ALTER TABLE user_progress ADD COLUMN IF NOT EXISTS interval_days INT NOT NULL DEFAULT 0;
+ALTER TABLE user_progress ADD COLUMN IF NOT EXISTS repetitions INT NOT NULL DEFAULT 0;
+
+-- Due-card queue: one range scan per (user, next_review) page, cards never reviewed are not indexed
+CREATE INDEX IF NOT EXISTS idx_up_user_next_review
+    ON user_progress(user_id, next_review, flashcard_id)
+    WHERE next_review IS NOT NULL;
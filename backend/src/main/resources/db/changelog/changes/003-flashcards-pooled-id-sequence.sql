@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset marekborecki88:3
+-- Hibernate hands out ids from blocks of 50 (pooled optimizer) so flashcard inserts can be JDBC-batched.
+-- Plain DEFAULT nextval() inserts still work; they just skip ahead by a block.
+ALTER SEQUENCE flashcards_id_seq INCREMENT BY 50;
@@ -0,0 +1,14 @@
+--liquibase formatted sql
+
+--changeset marekborecki88:4
+-- Public catalog pages: WHERE is_public AND id > ? ORDER BY id
+CREATE INDEX IF NOT EXISTS idx_courses_public_id ON courses(id) WHERE is_public;
+
+-- Flashcard pages within a level; NULL positions sort last, matching ORDER BY order_position, id
+CREATE INDEX IF NOT EXISTS idx_flashcards_level_order
+    ON flashcards(level_id, (COALESCE(order_position, 2147483647)), id);
+DROP INDEX IF EXISTS idx_flashcards_level_id;
+
+-- Levels of a course in display order
+CREATE INDEX IF NOT EXISTS idx_levels_course_order ON levels(course_id, order_position, id);
+DROP INDEX IF EXISTS idx_levels_course_id;
@@ -0,0 +1,62 @@
+--liquibase formatted sql
+
+--changeset marekborecki88:5 splitStatements:false
+-- Publishes changed content rows on channel content_cache as "<table>|<ids>|<parent ids>" so every
+-- backend node can evict its second-level cache. Statement-level, so a bulk write sends one message;
+-- payloads that would exceed the NOTIFY limit collapse to "<table>|*|*" (evict the whole region).
+-- Inserts only report parents: new rows cannot be cached anywhere yet, but parent collections can.
+CREATE OR REPLACE FUNCTION notify_content_cache() RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    parent_column TEXT := TG_ARGV[0];
+    ids TEXT;
+    parents TEXT;
+    payload TEXT;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        IF parent_column IS NOT NULL THEN
+            EXECUTE format('SELECT string_agg(DISTINCT %I::text, '','') FROM new_rows', parent_column) INTO parents;
+        END IF;
+    ELSIF TG_OP = 'DELETE' THEN
+        SELECT string_agg(id::text, ',') INTO ids FROM old_rows;
+        IF parent_column IS NOT NULL THEN
+            EXECUTE format('SELECT string_agg(DISTINCT %I::text, '','') FROM old_rows', parent_column) INTO parents;
+        END IF;
+    ELSE
+        SELECT string_agg(id::text, ',') INTO ids FROM new_rows;
+        IF parent_column IS NOT NULL THEN
+            EXECUTE format('SELECT string_agg(DISTINCT p::text, '','') FROM (SELECT %1$I AS p FROM old_rows UNION SELECT %1$I FROM new_rows) changed', parent_column) INTO parents;
+        END IF;
+    END IF;
+    IF ids IS NULL AND parents IS NULL THEN
+        RETURN NULL;
+    END IF;
+    payload := TG_TABLE_NAME || '|' || coalesce(ids, '') || '|' || coalesce(parents, '');
+    IF octet_length(payload) > 7900 THEN
+        payload := TG_TABLE_NAME || '|*|*';
+    END IF;
+    PERFORM pg_notify('content_cache', payload);
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_courses_cache_insert AFTER INSERT ON courses
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_content_cache();
+CREATE TRIGGER trg_courses_cache_update AFTER UPDATE ON courses
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_content_cache();
+CREATE TRIGGER trg_courses_cache_delete AFTER DELETE ON courses
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_content_cache();
+
+CREATE TRIGGER trg_levels_cache_insert AFTER INSERT ON levels
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_content_cache('course_id');
+CREATE TRIGGER trg_levels_cache_update AFTER UPDATE ON levels
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_content_cache('course_id');
+CREATE TRIGGER trg_levels_cache_delete AFTER DELETE ON levels
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_content_cache('course_id');
+
+CREATE TRIGGER trg_flashcards_cache_insert AFTER INSERT ON flashcards
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_content_cache('level_id');
+CREATE TRIGGER trg_flashcards_cache_update AFTER UPDATE ON flashcards
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_content_cache('level_id');
+CREATE TRIGGER trg_flashcards_cache_delete AFTER DELETE ON flashcards
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_content_cache('level_id');
@@ -0,0 +1,61 @@
+--liquibase formatted sql
+
+--changeset marekborecki88:6 splitStatements:false
+-- Aggregate content versions backing the ETags of course and level reads. A level's version bumps
+-- whenever the level or any of its flashcards changes; a course's whenever the course or any of its
+-- levels changes, which transitively includes flashcard changes because bumping a level updates it.
+ALTER TABLE courses ADD COLUMN content_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE levels ADD COLUMN content_version BIGINT NOT NULL DEFAULT 0;
+
+-- Direct edits of a row bump its own version; bumps made by the child triggers below are left as is.
+CREATE OR REPLACE FUNCTION bump_own_content_version() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF NEW.content_version = OLD.content_version THEN
+        NEW.content_version := OLD.content_version + 1;
+    END IF;
+    RETURN NEW;
+END;
+$$;
+
+-- Statement-level, so a bulk write bumps each affected parent once. TG_ARGV: parent table, parent
+-- column on this table. Parents deleted by the same cascade are simply no longer there to update.
+CREATE OR REPLACE FUNCTION bump_parent_content_version() RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    parent_table TEXT := TG_ARGV[0];
+    parent_column TEXT := TG_ARGV[1];
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        EXECUTE format('UPDATE %1$I SET content_version = content_version + 1 WHERE id IN (SELECT %2$I FROM new_rows)',
+                       parent_table, parent_column);
+    ELSIF TG_OP = 'DELETE' THEN
+        EXECUTE format('UPDATE %1$I SET content_version = content_version + 1 WHERE id IN (SELECT %2$I FROM old_rows)',
+                       parent_table, parent_column);
+    ELSE
+        EXECUTE format('UPDATE %1$I SET content_version = content_version + 1 WHERE id IN '
+                       || '(SELECT %2$I FROM old_rows UNION SELECT %2$I FROM new_rows)',
+                       parent_table, parent_column);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_courses_bump_version BEFORE UPDATE ON courses
+    FOR EACH ROW EXECUTE FUNCTION bump_own_content_version();
+CREATE TRIGGER trg_levels_bump_version BEFORE UPDATE ON levels
+    FOR EACH ROW EXECUTE FUNCTION bump_own_content_version();
+
+CREATE TRIGGER trg_levels_bump_course_insert AFTER INSERT ON levels
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_parent_content_version('courses', 'course_id');
+CREATE TRIGGER trg_levels_bump_course_update AFTER UPDATE ON levels
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_parent_content_version('courses', 'course_id');
+CREATE TRIGGER trg_levels_bump_course_delete AFTER DELETE ON levels
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_parent_content_version('courses', 'course_id');
+
+CREATE TRIGGER trg_flashcards_bump_level_insert AFTER INSERT ON flashcards
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_parent_content_version('levels', 'level_id');
+CREATE TRIGGER trg_flashcards_bump_level_update AFTER UPDATE ON flashcards
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_parent_content_version('levels', 'level_id');
+CREATE TRIGGER trg_flashcards_bump_level_delete AFTER DELETE ON flashcards
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_parent_content_version('levels', 'level_id');
@@ -0,0 +1,115 @@
+--liquibase formatted sql
+
+--changeset marekborecki88:7 splitStatements:false
+-- Full-text search over flashcards. side_a and example_sentence are in the course's taught language,
+-- side_b in its learning language; each is parsed with the matching text search configuration.
+-- Languages may be stored as ISO codes or English names; anything unknown falls back to 'simple'.
+CREATE OR REPLACE FUNCTION search_config_for(lang TEXT) RETURNS regconfig
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT coalesce((
+        SELECT m.config FROM (VALUES
+            ('ar', 'arabic'), ('arabic', 'arabic'),
+            ('ca', 'catalan'), ('catalan', 'catalan'),
+            ('da', 'danish'), ('danish', 'danish'),
+            ('de', 'german'), ('german', 'german'),
+            ('el', 'greek'), ('greek', 'greek'),
+            ('en', 'english'), ('english', 'english'),
+            ('es', 'spanish'), ('spanish', 'spanish'),
+            ('fi', 'finnish'), ('finnish', 'finnish'),
+            ('fr', 'french'), ('french', 'french'),
+            ('hu', 'hungarian'), ('hungarian', 'hungarian'),
+            ('id', 'indonesian'), ('indonesian', 'indonesian'),
+            ('it', 'italian'), ('italian', 'italian'),
+            ('lt', 'lithuanian'), ('lithuanian', 'lithuanian'),
+            ('nl', 'dutch'), ('dutch', 'dutch'),
+            ('no', 'norwegian'), ('nb', 'norwegian'), ('norwegian', 'norwegian'),
+            ('pt', 'portuguese'), ('portuguese', 'portuguese'),
+            ('ro', 'romanian'), ('romanian', 'romanian'),
+            ('ru', 'russian'), ('russian', 'russian'),
+            ('sr', 'serbian'), ('serbian', 'serbian'),
+            ('sv', 'swedish'), ('swedish', 'swedish'),
+            ('tr', 'turkish'), ('turkish', 'turkish')
+        ) AS m(code, config)
+        WHERE m.code = lower(trim(lang))), 'simple')::regconfig
+$$;
+
+-- OR of the query parsed under each configuration; immutable so a constant argument list can drive a GIN scan.
+CREATE OR REPLACE FUNCTION search_query(configs regconfig[], q TEXT) RETURNS tsquery
+LANGUAGE plpgsql IMMUTABLE PARALLEL SAFE AS $$
+DECLARE
+    config regconfig;
+    result tsquery;
+BEGIN
+    FOREACH config IN ARRAY configs LOOP
+        result := CASE WHEN result IS NULL THEN websearch_to_tsquery(config, q) ELSE result || websearch_to_tsquery(config, q) END;
+    END LOOP;
+    RETURN result;
+END;
+$$;
+
+ALTER TABLE flashcards
+    ADD COLUMN search_config_a regconfig NOT NULL DEFAULT 'simple',
+    ADD COLUMN search_config_b regconfig NOT NULL DEFAULT 'simple';
+
+UPDATE flashcards f
+SET search_config_a = search_config_for(c.taught_language),
+    search_config_b = search_config_for(c.learning_language)
+FROM levels l JOIN courses c ON c.id = l.course_id
+WHERE l.id = f.level_id;
+
+ALTER TABLE flashcards ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector(search_config_a, side_a), 'A')
+    || setweight(to_tsvector(search_config_b, side_b), 'A')
+    || setweight(to_tsvector(search_config_a, coalesce(example_sentence, '')), 'C')
+) STORED;
+
+CREATE INDEX idx_flashcards_search_vector ON flashcards USING GIN (search_vector);
+
+-- Keep the per-card configurations in step with the owning course's languages.
+CREATE OR REPLACE FUNCTION flashcards_set_search_config() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    SELECT search_config_for(c.taught_language), search_config_for(c.learning_language)
+    INTO NEW.search_config_a, NEW.search_config_b
+    FROM levels l JOIN courses c ON c.id = l.course_id
+    WHERE l.id = NEW.level_id;
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER trg_flashcards_search_config BEFORE INSERT OR UPDATE OF level_id ON flashcards
+    FOR EACH ROW EXECUTE FUNCTION flashcards_set_search_config();
+
+CREATE OR REPLACE FUNCTION courses_propagate_search_config() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE flashcards f
+    SET search_config_a = search_config_for(NEW.taught_language),
+        search_config_b = search_config_for(NEW.learning_language)
+    FROM levels l
+    WHERE l.course_id = NEW.id AND f.level_id = l.id;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_courses_search_config AFTER UPDATE OF taught_language, learning_language ON courses
+    FOR EACH ROW
+    WHEN (search_config_for(OLD.taught_language) IS DISTINCT FROM search_config_for(NEW.taught_language)
+       OR search_config_for(OLD.learning_language) IS DISTINCT FROM search_config_for(NEW.learning_language))
+    EXECUTE FUNCTION courses_propagate_search_config();
+
+CREATE OR REPLACE FUNCTION levels_propagate_search_config() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE flashcards f
+    SET search_config_a = search_config_for(c.taught_language),
+        search_config_b = search_config_for(c.learning_language)
+    FROM courses c
+    WHERE c.id = NEW.course_id AND f.level_id = NEW.id;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_levels_search_config AFTER UPDATE OF course_id ON levels
+    FOR EACH ROW WHEN (OLD.course_id IS DISTINCT FROM NEW.course_id)
+    EXECUTE FUNCTION levels_propagate_search_config();
@@ -0,0 +1,20 @@
+--liquibase formatted sql
+
+--changeset marekborecki88:8 splitStatements:false
+-- Normalized accepted answers for side_b, written by the application whenever side_b is set and
+-- used to grade typed answers. NULL means "not computed yet"; the grader then derives it on the fly.
+ALTER TABLE flashcards ADD COLUMN side_b_normalized TEXT;
+
+-- A side_b change that does not come with a new key (plain SQL, older nodes) drops the stale key.
+CREATE OR REPLACE FUNCTION flashcards_reset_answer_key() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF NEW.side_b IS DISTINCT FROM OLD.side_b AND NEW.side_b_normalized IS NOT DISTINCT FROM OLD.side_b_normalized THEN
+        NEW.side_b_normalized := NULL;
+    END IF;
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER trg_flashcards_reset_answer_key BEFORE UPDATE OF side_b ON flashcards
+    FOR EACH ROW EXECUTE FUNCTION flashcards_reset_answer_key();
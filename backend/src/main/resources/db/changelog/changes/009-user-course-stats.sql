@@ -0,0 +1,223 @@
+--liquibase formatted sql
+
+--changeset marekborecki88:9 splitStatements:false
+-- Per-user, per-course dashboard counters kept in step with user_progress by statement-level
+-- triggers, so reading a user's statistics never aggregates over their progress rows.
+-- Days are UTC. due_by_day[1] counts cards due on or before histogram_start, due_by_day[i] those
+-- due i - 1 days after it; cards due later are not counted until the nightly reconciliation moves
+-- histogram_start forward. active_days has bit i set when a card was answered i days before
+-- last_active_day; streak_days is the run of consecutive days with answers ending on last_active_day.
+CREATE TABLE user_course_stats (
+    user_id BIGINT NOT NULL,
+    course_id BIGINT NOT NULL,
+    cards_seen INT NOT NULL DEFAULT 0,
+    cards_learned INT NOT NULL DEFAULT 0,
+    reviews BIGINT NOT NULL DEFAULT 0,
+    correct_answers BIGINT NOT NULL DEFAULT 0,
+    histogram_start DATE NOT NULL DEFAULT (now() AT TIME ZONE 'UTC')::date,
+    due_by_day INT[] NOT NULL DEFAULT array_fill(0, ARRAY[60]),
+    last_active_day DATE,
+    active_days BIGINT NOT NULL DEFAULT 0,
+    streak_days INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT pk_user_course_stats PRIMARY KEY (user_id, course_id),
+    CONSTRAINT fk_ucs_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT fk_ucs_course FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_ucs_course_id ON user_course_stats(course_id);
+
+-- Two consecutive correct recalls; the card is then next shown six or more days later.
+CREATE OR REPLACE FUNCTION progress_is_learned(repetitions INT) RETURNS boolean
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT repetitions >= 2
+$$;
+
+CREATE OR REPLACE FUNCTION utc_day(t TIMESTAMPTZ) RETURNS date
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT (t AT TIME ZONE 'UTC')::date
+$$;
+
+-- Re-expresses an active_days mask anchored at from_day as one anchored at the later to_day.
+CREATE OR REPLACE FUNCTION shift_active_days(mask BIGINT, from_day DATE, to_day DATE) RETURNS bigint
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT CASE
+        WHEN from_day IS NULL OR to_day - from_day >= 64 THEN 0
+        ELSE mask << (to_day - from_day)
+    END
+$$;
+
+-- Answers of rows changed by one statement. Writers take a shared lock on each block of 1024 user
+-- ids they touch; the reconciliation takes it exclusively while it rebuilds the block.
+CREATE OR REPLACE FUNCTION user_course_stats_apply(removed user_progress[], added user_progress[]) RETURNS void
+LANGUAGE plpgsql AS $$
+DECLARE
+    r RECORD;
+BEGIN
+    PERFORM pg_advisory_xact_lock_shared(hashtext('user_course_stats'), b::int)
+    FROM (SELECT DISTINCT user_id >> 10 AS b FROM (SELECT user_id FROM unnest(removed) UNION ALL SELECT user_id FROM unnest(added)) u
+          ORDER BY 1) blocks;
+
+    -- Progress of cards deleted in the same statement can no longer be attributed to a course;
+    -- the nightly reconciliation drops it.
+    WITH changes AS (
+        SELECT p.user_id, l.course_id, -1 AS sign, p.times_seen, p.correct_answers, p.repetitions
+        FROM unnest(removed) p JOIN flashcards f ON f.id = p.flashcard_id JOIN levels l ON l.id = f.level_id
+        UNION ALL
+        SELECT p.user_id, l.course_id, 1, p.times_seen, p.correct_answers, p.repetitions
+        FROM unnest(added) p JOIN flashcards f ON f.id = p.flashcard_id JOIN levels l ON l.id = f.level_id
+    )
+    INSERT INTO user_course_stats AS s (user_id, course_id, cards_seen, cards_learned, reviews, correct_answers)
+    SELECT user_id, course_id,
+           sum(sign * (times_seen > 0)::int),
+           sum(sign * progress_is_learned(repetitions)::int),
+           sum(sign * times_seen),
+           sum(sign * correct_answers)
+    FROM changes
+    GROUP BY user_id, course_id
+    ORDER BY user_id, course_id
+    ON CONFLICT ON CONSTRAINT pk_user_course_stats DO UPDATE SET
+        cards_seen = s.cards_seen + excluded.cards_seen,
+        cards_learned = s.cards_learned + excluded.cards_learned,
+        reviews = s.reviews + excluded.reviews,
+        correct_answers = s.correct_answers + excluded.correct_answers,
+        updated_at = now();
+
+    FOR r IN
+        SELECT p.user_id, l.course_id, utc_day(p.next_review) AS day, sum(p.sign) AS cards
+        FROM (SELECT user_id, flashcard_id, next_review, -1 AS sign FROM unnest(removed)
+              UNION ALL
+              SELECT user_id, flashcard_id, next_review, 1 FROM unnest(added)) p
+        JOIN flashcards f ON f.id = p.flashcard_id JOIN levels l ON l.id = f.level_id
+        WHERE p.next_review IS NOT NULL
+        GROUP BY 1, 2, 3
+        HAVING sum(p.sign) <> 0
+    LOOP
+        UPDATE user_course_stats
+        SET due_by_day[greatest(r.day - histogram_start, 0) + 1] = due_by_day[greatest(r.day - histogram_start, 0) + 1] + r.cards
+        WHERE user_id = r.user_id AND course_id = r.course_id AND r.day - histogram_start < 60;
+    END LOOP;
+
+    FOR r IN
+        SELECT n.user_id, l.course_id, utc_day(n.last_reviewed) AS day
+        FROM unnest(added) n
+        LEFT JOIN unnest(removed) o ON o.id = n.id
+        JOIN flashcards f ON f.id = n.flashcard_id JOIN levels l ON l.id = f.level_id
+        WHERE n.last_reviewed IS NOT NULL AND n.last_reviewed IS DISTINCT FROM o.last_reviewed
+        GROUP BY 1, 2, 3
+        ORDER BY 1, 2, 3
+    LOOP
+        UPDATE user_course_stats
+        SET active_days = shift_active_days(active_days, last_active_day, greatest(last_active_day, r.day))
+                          | shift_active_days(1, r.day, greatest(last_active_day, r.day)),
+            streak_days = CASE
+                WHEN last_active_day IS NULL OR r.day > last_active_day + 1 THEN 1
+                WHEN r.day = last_active_day + 1 THEN streak_days + 1
+                ELSE streak_days
+            END,
+            last_active_day = greatest(last_active_day, r.day)
+        WHERE user_id = r.user_id AND course_id = r.course_id;
+    END LOOP;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION user_course_stats_on_progress() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM user_course_stats_apply('{}', ARRAY(SELECT n::user_progress FROM new_rows n));
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM user_course_stats_apply(ARRAY(SELECT o::user_progress FROM old_rows o), '{}');
+    ELSE
+        PERFORM user_course_stats_apply(ARRAY(SELECT o::user_progress FROM old_rows o), ARRAY(SELECT n::user_progress FROM new_rows n));
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_user_progress_stats_insert AFTER INSERT ON user_progress
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION user_course_stats_on_progress();
+CREATE TRIGGER trg_user_progress_stats_update AFTER UPDATE ON user_progress
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION user_course_stats_on_progress();
+CREATE TRIGGER trg_user_progress_stats_delete AFTER DELETE ON user_progress
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION user_course_stats_on_progress();
+
+-- Rebuilds the counters and due histograms of one block of 1024 user ids from user_progress and
+-- restarts the histograms at today. Activity is only merged in: user_progress keeps each card's
+-- last answer, so earlier days of a streak cannot be recovered from it. Returns the rows written.
+CREATE OR REPLACE FUNCTION user_course_stats_reconcile(block BIGINT) RETURNS int
+LANGUAGE plpgsql AS $$
+DECLARE
+    today DATE := utc_day(now());
+    written INT;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('user_course_stats'), block::int);
+
+    WITH progress AS (
+        SELECT p.user_id, l.course_id, p.times_seen, p.correct_answers, p.repetitions,
+               utc_day(p.next_review) AS due_day, utc_day(p.last_reviewed) AS reviewed_day
+        FROM user_progress p JOIN flashcards f ON f.id = p.flashcard_id JOIN levels l ON l.id = f.level_id
+        WHERE p.user_id BETWEEN block << 10 AND (block << 10) + 1023
+    ), totals AS (
+        SELECT user_id, course_id,
+               count(*) FILTER (WHERE times_seen > 0)::int AS cards_seen,
+               count(*) FILTER (WHERE progress_is_learned(repetitions))::int AS cards_learned,
+               sum(times_seen) AS reviews,
+               sum(correct_answers) AS correct_answers,
+               max(reviewed_day) AS last_active_day
+        FROM progress
+        GROUP BY user_id, course_id
+    ), activity AS (
+        SELECT t.user_id, t.course_id, bit_or(shift_active_days(1, p.reviewed_day, t.last_active_day)) AS active_days
+        FROM totals t JOIN progress p ON p.user_id = t.user_id AND p.course_id = t.course_id
+        WHERE p.reviewed_day IS NOT NULL
+        GROUP BY t.user_id, t.course_id
+    ), buckets AS (
+        SELECT user_id, course_id, greatest(due_day - today, 0) AS bucket, count(*)::int AS cards
+        FROM progress
+        WHERE due_day IS NOT NULL AND due_day - today < 60
+        GROUP BY 1, 2, 3
+    ), histograms AS (
+        SELECT t.user_id, t.course_id, array_agg(coalesce(b.cards, 0) ORDER BY g) AS due_by_day
+        FROM totals t CROSS JOIN generate_series(0, 59) g
+        LEFT JOIN buckets b ON b.user_id = t.user_id AND b.course_id = t.course_id AND b.bucket = g
+        GROUP BY t.user_id, t.course_id
+    ), upserted AS (
+        INSERT INTO user_course_stats AS s (user_id, course_id, cards_seen, cards_learned, reviews, correct_answers,
+                                            histogram_start, due_by_day, last_active_day, active_days, streak_days)
+        SELECT t.user_id, t.course_id, t.cards_seen, t.cards_learned, t.reviews, t.correct_answers,
+               today, h.due_by_day, t.last_active_day, coalesce(a.active_days, 0),
+               length(substring(coalesce(a.active_days, 0)::bit(64)::text FROM '1*$'))
+        FROM totals t
+        JOIN histograms h ON h.user_id = t.user_id AND h.course_id = t.course_id
+        LEFT JOIN activity a ON a.user_id = t.user_id AND a.course_id = t.course_id
+        ORDER BY t.user_id, t.course_id
+        ON CONFLICT ON CONSTRAINT pk_user_course_stats DO UPDATE SET
+            cards_seen = excluded.cards_seen,
+            cards_learned = excluded.cards_learned,
+            reviews = excluded.reviews,
+            correct_answers = excluded.correct_answers,
+            histogram_start = excluded.histogram_start,
+            due_by_day = excluded.due_by_day,
+            active_days = shift_active_days(s.active_days, s.last_active_day, greatest(s.last_active_day, excluded.last_active_day))
+                          | shift_active_days(excluded.active_days, excluded.last_active_day, greatest(s.last_active_day, excluded.last_active_day)),
+            streak_days = CASE
+                WHEN excluded.last_active_day > s.last_active_day OR s.last_active_day IS NULL THEN excluded.streak_days
+                ELSE s.streak_days
+            END,
+            last_active_day = greatest(s.last_active_day, excluded.last_active_day),
+            updated_at = now()
+        RETURNING 1
+    ), removed AS (
+        DELETE FROM user_course_stats s
+        WHERE s.user_id BETWEEN block << 10 AND (block << 10) + 1023
+          AND NOT EXISTS (SELECT 1 FROM totals t WHERE t.user_id = s.user_id AND t.course_id = s.course_id)
+        RETURNING 1
+    )
+    SELECT (SELECT count(*) FROM upserted) + (SELECT count(*) FROM removed) INTO written;
+    RETURN written;
+END;
+$$;
+
+-- Existing progress, one block of users at a time.
+SELECT user_course_stats_reconcile(b) FROM (SELECT DISTINCT user_id >> 10 AS b FROM user_progress) blocks;
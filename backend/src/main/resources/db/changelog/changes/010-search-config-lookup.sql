@@ -0,0 +1,35 @@
+--liquibase formatted sql
+
+--changeset marekborecki88:10 splitStatements:false
+-- search_config_for runs twice per inserted flashcard, from trg_flashcards_search_config. As a SQL
+-- function with a subquery it could not be inlined, so every call parsed and planned its body again
+-- (about 0.4 ms per row). A PL/pgSQL CASE over regconfig constants is planned once per session.
+CREATE OR REPLACE FUNCTION search_config_for(lang TEXT) RETURNS regconfig
+LANGUAGE plpgsql IMMUTABLE PARALLEL SAFE AS $$
+BEGIN
+    CASE lower(trim(lang))
+        WHEN 'ar', 'arabic' THEN RETURN 'arabic'::regconfig;
+        WHEN 'ca', 'catalan' THEN RETURN 'catalan'::regconfig;
+        WHEN 'da', 'danish' THEN RETURN 'danish'::regconfig;
+        WHEN 'de', 'german' THEN RETURN 'german'::regconfig;
+        WHEN 'el', 'greek' THEN RETURN 'greek'::regconfig;
+        WHEN 'en', 'english' THEN RETURN 'english'::regconfig;
+        WHEN 'es', 'spanish' THEN RETURN 'spanish'::regconfig;
+        WHEN 'fi', 'finnish' THEN RETURN 'finnish'::regconfig;
+        WHEN 'fr', 'french' THEN RETURN 'french'::regconfig;
+        WHEN 'hu', 'hungarian' THEN RETURN 'hungarian'::regconfig;
+        WHEN 'id', 'indonesian' THEN RETURN 'indonesian'::regconfig;
+        WHEN 'it', 'italian' THEN RETURN 'italian'::regconfig;
+        WHEN 'lt', 'lithuanian' THEN RETURN 'lithuanian'::regconfig;
+        WHEN 'nl', 'dutch' THEN RETURN 'dutch'::regconfig;
+        WHEN 'no', 'nb', 'norwegian' THEN RETURN 'norwegian'::regconfig;
+        WHEN 'pt', 'portuguese' THEN RETURN 'portuguese'::regconfig;
+        WHEN 'ro', 'romanian' THEN RETURN 'romanian'::regconfig;
+        WHEN 'ru', 'russian' THEN RETURN 'russian'::regconfig;
+        WHEN 'sr', 'serbian' THEN RETURN 'serbian'::regconfig;
+        WHEN 'sv', 'swedish' THEN RETURN 'swedish'::regconfig;
+        WHEN 'tr', 'turkish' THEN RETURN 'turkish'::regconfig;
+        ELSE RETURN 'simple'::regconfig;
+    END CASE;
+END;
+$$;
@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset marekborecki88:11
+-- Set when a course too large to delete within a request is scheduled for deletion. From then on the
+-- course is hidden from reads, and CoursePurger removes its flashcards in chunks and then the course.
+ALTER TABLE courses ADD COLUMN deleted_at TIMESTAMPTZ;
+
+CREATE INDEX idx_courses_deleted_at ON courses(deleted_at) WHERE deleted_at IS NOT NULL;
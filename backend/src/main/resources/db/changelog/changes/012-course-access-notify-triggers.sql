@@ -0,0 +1,10 @@
+--liquibase formatted sql
+
+--changeset marekborecki88:12
+-- Grants and revokes reach every node's in-memory entitlement cache as "user_course_access|<ids>|<user ids>".
+CREATE TRIGGER trg_user_course_access_cache_insert AFTER INSERT ON user_course_access
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_content_cache('user_id');
+CREATE TRIGGER trg_user_course_access_cache_update AFTER UPDATE ON user_course_access
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_content_cache('user_id');
+CREATE TRIGGER trg_user_course_access_cache_delete AFTER DELETE ON user_course_access
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_content_cache('user_id');
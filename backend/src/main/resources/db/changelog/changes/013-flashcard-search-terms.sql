@@ -0,0 +1,255 @@
+--liquibase formatted sql
+
+--changeset marekborecki88:13 splitStatements:false
+-- One row per lexeme of each flashcard's search_vector with the card's ts_rank_cd for that lexeme
+-- alone, kept in step by statement-level triggers. For a query that is an OR of plain lexemes,
+-- ts_rank_cd is the sum of those per-lexeme ranks, so reading each lexeme's postings in rank order
+-- bounds the rank of every card not read yet and lets a page be ranked without ranking every match.
+-- Rows of deleted cards go in one statement per delete rather than through a row-level cascade.
+CREATE TABLE flashcard_search_terms (
+    lexeme TEXT NOT NULL,
+    rank REAL NOT NULL,
+    flashcard_id BIGINT NOT NULL,
+    course_id BIGINT NOT NULL
+);
+
+-- The query for a single lexeme, quoted so the tsquery parser takes it verbatim.
+CREATE OR REPLACE FUNCTION search_term(lexeme TEXT) RETURNS tsquery
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT ('''' || replace(replace(lexeme, '\', '\\'), '''', '''''') || '''')::tsquery
+$$;
+
+CREATE OR REPLACE FUNCTION search_term_rank(v tsvector, lexeme TEXT) RETURNS real
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT ts_rank_cd(v, search_term(lexeme))
+$$;
+
+-- The distinct lexemes of a query that only ORs plain lexemes; an empty array when the query has
+-- none (only stop words), null when it has any other operator, prefix or weight restriction.
+CREATE OR REPLACE FUNCTION search_query_lexemes(query tsquery) RETURNS text[]
+LANGUAGE plpgsql IMMUTABLE PARALLEL SAFE AS $$
+DECLARE
+    lexemes TEXT[];
+BEGIN
+    IF numnode(query) = 0 THEN
+        RETURN '{}';
+    END IF;
+    SELECT array_agg(replace(replace(m[1], '''''', ''''), '\\', '\') ORDER BY n)
+    INTO lexemes
+    FROM regexp_matches(query::text, '''((?:[^'']|'''')*)''', 'g') WITH ORDINALITY AS t(m, n);
+    -- Rebuilding the query from its lexemes alone reproduces it only when nothing else was in it.
+    IF lexemes IS NULL OR array_to_string(ARRAY(SELECT search_term(x)::text FROM unnest(lexemes) x), ' | ') <> query::text THEN
+        RETURN NULL;
+    END IF;
+    RETURN ARRAY(SELECT DISTINCT x FROM unnest(lexemes) x ORDER BY 1);
+END;
+$$;
+
+INSERT INTO flashcard_search_terms (lexeme, rank, flashcard_id, course_id)
+SELECT x.lexeme, search_term_rank(f.search_vector, x.lexeme), f.id, l.course_id
+FROM flashcards f
+JOIN levels l ON l.id = f.level_id
+CROSS JOIN unnest(tsvector_to_array(f.search_vector)) AS x(lexeme);
+
+CREATE INDEX idx_flashcard_search_terms_lexeme ON flashcard_search_terms (lexeme, rank DESC, flashcard_id);
+CREATE INDEX idx_flashcard_search_terms_course ON flashcard_search_terms (course_id, lexeme, rank DESC, flashcard_id);
+CREATE INDEX idx_flashcard_search_terms_flashcard_id ON flashcard_search_terms (flashcard_id);
+
+ANALYZE flashcard_search_terms;
+
+-- Rewrites the rows of cards whose search_vector or level changed; other updates (reorders, answer
+-- keys) only pay for the comparison.
+CREATE OR REPLACE FUNCTION flashcards_sync_search_terms() RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    changed BIGINT[];
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        changed := ARRAY(SELECT o.id FROM old_rows o);
+    ELSIF TG_OP = 'UPDATE' THEN
+        changed := ARRAY(SELECT n.id FROM new_rows n JOIN old_rows o ON o.id = n.id
+                         WHERE n.search_vector IS DISTINCT FROM o.search_vector OR n.level_id IS DISTINCT FROM o.level_id);
+    ELSE
+        changed := ARRAY(SELECT n.id FROM new_rows n);
+    END IF;
+    IF cardinality(changed) = 0 THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP <> 'INSERT' THEN
+        DELETE FROM flashcard_search_terms WHERE flashcard_id = ANY (changed);
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        INSERT INTO flashcard_search_terms (lexeme, rank, flashcard_id, course_id)
+        SELECT x.lexeme, search_term_rank(n.search_vector, x.lexeme), n.id, l.course_id
+        FROM new_rows n
+        JOIN levels l ON l.id = n.level_id
+        CROSS JOIN unnest(tsvector_to_array(n.search_vector)) AS x(lexeme)
+        WHERE n.id = ANY (changed);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_flashcards_search_terms_insert AFTER INSERT ON flashcards
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION flashcards_sync_search_terms();
+CREATE TRIGGER trg_flashcards_search_terms_update AFTER UPDATE ON flashcards
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION flashcards_sync_search_terms();
+CREATE TRIGGER trg_flashcards_search_terms_delete AFTER DELETE ON flashcards
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION flashcards_sync_search_terms();
+
+CREATE OR REPLACE FUNCTION levels_move_search_terms() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE flashcard_search_terms t
+    SET course_id = NEW.course_id
+    FROM flashcards f
+    WHERE f.level_id = NEW.id AND t.flashcard_id = f.id AND t.course_id <> NEW.course_id;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_levels_search_terms AFTER UPDATE OF course_id ON levels
+    FOR EACH ROW WHEN (OLD.course_id IS DISTINCT FROM NEW.course_id)
+    EXECUTE FUNCTION levels_move_search_terms();
+
+-- Whether a page whose last hit is (page_rank, page_id) comes before every card ranked at most bound
+-- that, at bound, has an id above bound_id. Ranks are sums of the four weights, so distinct ranks
+-- differ by far more than the tolerance that absorbs rounding.
+CREATE OR REPLACE FUNCTION search_page_beats(page_rank REAL, page_id BIGINT, bound DOUBLE PRECISION, bound_id BIGINT) RETURNS boolean
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT page_rank > bound + 1e-5 OR (page_rank >= bound - 1e-5 AND page_id <= bound_id)
+$$;
+
+-- One page of matches in ts_rank_cd order after the (after_rank, after_id) cursor, within one
+-- course or, when scope_course is null, across public courses that are not deleted.
+-- A query that ORs plain lexemes reads the depth best postings of each lexeme after the cursor and
+-- ranks those cards exactly. A card none of the lexemes returned ranks at most the sum of the last
+-- ranks of the lexemes that had more postings, so once the page's last hit beats that sum the page
+-- is final. When it only beats each of those last ranks alone, the cards holding two or more of the
+-- lexemes are ranked as well, if there are at most depth of them. Otherwise depth grows fourfold.
+-- Other queries, and ORs of very common lexemes that outgrow max_depth, rank every match.
+CREATE OR REPLACE FUNCTION search_flashcards(configs regconfig[], q TEXT, scope_course BIGINT,
+                                             after_rank REAL, after_id BIGINT, page INT)
+RETURNS TABLE (id BIGINT, level_id BIGINT, course_id BIGINT, side_a TEXT, side_b TEXT,
+               example_sentence TEXT, rank REAL)
+LANGUAGE plpgsql STABLE AS $$
+DECLARE
+    max_depth CONSTANT INT := 16384;
+    query tsquery := search_query(configs, q);
+    lexemes TEXT[] := search_query_lexemes(query);
+    term_scope TEXT := CASE WHEN scope_course IS NULL
+        THEN 'EXISTS (SELECT 1 FROM courses c WHERE c.id = t.course_id AND c.is_public AND c.deleted_at IS NULL)'
+        ELSE 't.course_id = $3' END;
+    card_scope TEXT := CASE WHEN scope_course IS NULL
+        THEN 'c.is_public AND c.deleted_at IS NULL'
+        ELSE 'l.course_id = $2' END;
+    depth INT := page;
+    lexeme TEXT;
+    ids BIGINT[];
+    ranks REAL[];
+    candidates BIGINT[];
+    full_lexemes TEXT[];
+    last_ranks REAL[];
+    last_ids BIGINT[];
+    pairs BIGINT[];
+    pair_query tsquery;
+    page_ids BIGINT[];
+    page_ranks REAL[];
+    final BOOLEAN;
+BEGIN
+    WHILE lexemes IS NOT NULL AND depth <= max_depth LOOP
+        candidates := '{}';
+        full_lexemes := '{}';
+        last_ranks := '{}';
+        last_ids := '{}';
+        FOREACH lexeme IN ARRAY lexemes LOOP
+            EXECUTE format($sql$
+                SELECT array_agg(t.flashcard_id ORDER BY t.rank DESC, t.flashcard_id),
+                       array_agg(t.rank ORDER BY t.rank DESC, t.flashcard_id)
+                FROM (SELECT t.flashcard_id, t.rank
+                      FROM flashcard_search_terms t
+                      WHERE t.lexeme = $1 AND %s
+                        AND (t.rank < $4 OR (t.rank = $4 AND t.flashcard_id > $5))
+                      ORDER BY t.rank DESC, t.flashcard_id
+                      LIMIT $2) t
+                $sql$, term_scope)
+            INTO ids, ranks
+            USING lexeme, depth, scope_course, after_rank, after_id;
+            IF cardinality(ids) = depth THEN
+                full_lexemes := full_lexemes || lexeme;
+                last_ranks := last_ranks || ranks[depth];
+                last_ids := last_ids || ids[depth];
+            END IF;
+            candidates := candidates || coalesce(ids, '{}');
+        END LOOP;
+
+        pairs := NULL;
+        final := false;
+        LOOP
+            SELECT coalesce(array_agg(s.id ORDER BY s.rank DESC, s.id), '{}'), coalesce(array_agg(s.rank ORDER BY s.rank DESC, s.id), '{}')
+            INTO page_ids, page_ranks
+            FROM (SELECT r.id, r.rank
+                  FROM (SELECT f.id, ts_rank_cd(f.search_vector, query) AS rank
+                        FROM flashcards f WHERE f.id = ANY (candidates)) r
+                  WHERE r.rank < after_rank OR (r.rank = after_rank AND r.id > after_id)
+                  ORDER BY r.rank DESC, r.id
+                  LIMIT page) s;
+
+            IF cardinality(full_lexemes) = 0 OR pairs IS NOT NULL THEN
+                final := true;
+            ELSIF cardinality(page_ids) = page THEN
+                final := search_page_beats(page_ranks[page], page_ids[page],
+                                           (SELECT sum(x) FROM unnest(last_ranks) x), (SELECT max(x) FROM unnest(last_ids) x));
+            END IF;
+            EXIT WHEN final OR cardinality(page_ids) < page OR cardinality(full_lexemes) < 2
+                OR NOT (SELECT bool_and(search_page_beats(page_ranks[page], page_ids[page], r, i))
+                        FROM unnest(last_ranks, last_ids) AS b(r, i));
+
+            pair_query := NULL;
+            FOR i IN 1 .. cardinality(full_lexemes) - 1 LOOP
+                FOR j IN i + 1 .. cardinality(full_lexemes) LOOP
+                    pair_query := coalesce(pair_query || (search_term(full_lexemes[i]) && search_term(full_lexemes[j])),
+                                           search_term(full_lexemes[i]) && search_term(full_lexemes[j]));
+                END LOOP;
+            END LOOP;
+            EXECUTE format($sql$
+                SELECT ARRAY(SELECT f.id
+                             FROM flashcards f
+                             JOIN levels l ON l.id = f.level_id
+                             JOIN courses c ON c.id = l.course_id
+                             WHERE f.search_vector @@ $1 AND %s
+                             LIMIT $3)
+                $sql$, card_scope)
+            INTO pairs
+            USING pair_query, scope_course, depth + 1;
+            EXIT WHEN cardinality(pairs) > depth;
+            candidates := candidates || pairs;
+        END LOOP;
+
+        IF final THEN
+            RETURN QUERY
+            SELECT f.id, f.level_id, l.course_id, f.side_a, f.side_b, f.example_sentence, p.rank
+            FROM unnest(page_ids, page_ranks) WITH ORDINALITY AS p(id, rank, n)
+            JOIN flashcards f ON f.id = p.id
+            JOIN levels l ON l.id = f.level_id
+            ORDER BY p.n;
+            RETURN;
+        END IF;
+        depth := depth * 4;
+    END LOOP;
+
+    RETURN QUERY EXECUTE format($sql$
+        SELECT m.id, m.level_id, m.course_id, m.side_a, m.side_b, m.example_sentence, m.rank
+        FROM (SELECT f.id, f.level_id, l.course_id, f.side_a, f.side_b, f.example_sentence,
+                     ts_rank_cd(f.search_vector, $1) AS rank
+              FROM flashcards f
+              JOIN levels l ON l.id = f.level_id
+              JOIN courses c ON c.id = l.course_id
+              WHERE f.search_vector @@ $1 AND %s) m
+        WHERE m.rank < $3 OR (m.rank = $3 AND m.id > $4)
+        ORDER BY m.rank DESC, m.id
+        LIMIT $5
+        $sql$, card_scope)
+    USING query, scope_course, after_rank, after_id, page;
+END;
+$$;
@@ -0,0 +1,78 @@
+package com.example.flashcards.config;
+
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.UserDtos;
+import com.example.flashcards.model.UserCourseAccess;
+import com.example.flashcards.service.CourseAccessService;
+import com.example.flashcards.service.CourseService;
+import com.example.flashcards.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ContentCacheInvalidationListenerTest {
+
+    @Autowired
+    private ContentCacheInvalidationListener listener;
+    @Autowired
+    private CourseAccessService courseAccessService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ContentCacheProperties properties;
+
+    @Test
+    void accessChangeDropsTheUsersCachedGrants() throws InterruptedException {
+        Long ownerId = createUser();
+        Long studentId = createUser();
+        Long courseId = courseService.create(new CourseDtos.Create("Private", null, "en", "de", false, ownerId)).id();
+        try {
+            courseAccessService.grant(courseId, studentId, UserCourseAccess.AccessType.STUDENT, ownerId);
+            // the grant's own notification must not land between the two lookups below
+            awaitEarlierNotifications(courseId, ownerId);
+
+            long[] cached = courseAccessService.grantedCourseIds(studentId);
+            assertSame(cached, courseAccessService.grantedCourseIds(studentId));
+            listener.apply("user_course_access|" + Long.MAX_VALUE + "|" + studentId);
+            assertNotSame(cached, courseAccessService.grantedCourseIds(studentId));
+
+            cached = courseAccessService.grantedCourseIds(studentId);
+            listener.apply("user_course_access|*|*");
+            assertNotSame(cached, courseAccessService.grantedCourseIds(studentId));
+        } finally {
+            courseService.delete(courseId);
+        }
+    }
+
+    // notifications arrive in commit order, so once a marker user granted now has their grants dropped, every earlier one is applied too
+    private void awaitEarlierNotifications(Long courseId, Long ownerId) throws InterruptedException {
+        Long markerId = createUser();
+        courseAccessService.grant(courseId, markerId, UserCourseAccess.AccessType.STUDENT, ownerId);
+        long[] cached = courseAccessService.grantedCourseIds(markerId);
+        while (cached != courseAccessService.grantedCourseIds(markerId)) cached = courseAccessService.grantedCourseIds(markerId);
+        jdbcTemplate.execute("notify " + properties.channel() + ", 'user_course_access|0|" + markerId + "'");
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (cached == courseAccessService.grantedCourseIds(markerId)) {
+            assertTrue(System.nanoTime() < deadline, "the marker notification did not arrive");
+            Thread.sleep(20);
+        }
+    }
+
+    private Long createUser() {
+        String suffix = UUID.randomUUID().toString();
+        return userService.create(new UserDtos.Create("listener-" + suffix, suffix + "@example.com", "secret")).id();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.flashcards.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// with virtual threads and the replica both on, each pool is wrapped in an admission gate of its own
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "flashcards.datasource.replica.enabled=true",
+        "flashcards.datasource.replica.url=${spring.datasource.url}&options=-c%20default_transaction_read_only%3Don"})
+class JdbcAdmissionMetricsTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void eachPoolPublishesItsOwnGateMeters() {
+        for (String pool : List.of("primary", "replica")) {
+            assertNotNull(meterRegistry.find("jdbc.admission.queued").tag("pool", pool).gauge(), pool);
+            assertNotNull(meterRegistry.find("jdbc.admission.active").tag("pool", pool).gauge(), pool);
+            assertNotNull(meterRegistry.find("jdbc.admission.wait").tag("pool", pool).tag("outcome", "timeout").timer(), pool);
+        }
+
+        // a read-only transaction takes its permit from the replica's gate
+        long admitted = replicaAdmissions();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> jdbcTemplate.queryForObject("select 1", Integer.class));
+        assertTrue(replicaAdmissions() > admitted);
+    }
+
+    private long replicaAdmissions() {
+        return meterRegistry.get("jdbc.admission.wait").tag("pool", "replica").tag("outcome", "acquired").timer().count();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.flashcards.config;
+
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.dto.UserDtos;
+import com.example.flashcards.service.CourseService;
+import com.example.flashcards.service.LevelService;
+import com.example.flashcards.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Routes against a "replica" that is the primary database opened with read-only transactions, so
+ * any write that lands on a replica connection fails the way it would on a real standby.
+ */
+@SpringBootTest(properties = {
+        "flashcards.datasource.replica.enabled=true",
+        "flashcards.datasource.replica.url=${spring.datasource.url}&options=-c%20default_transaction_read_only%3Don"})
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private LevelService levelService;
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndOthersToThePrimary() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        assertEquals("on", readOnly.execute(status -> jdbcTemplate.queryForObject("show transaction_read_only", String.class)));
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        assertEquals("off", readWrite.execute(status -> jdbcTemplate.queryForObject("show transaction_read_only", String.class)));
+    }
+
+    // the import reads the level in a read-only transaction, then writes; the write must not reuse the replica connection
+    @Test
+    void writeAfterReadInOneRequestUsesThePrimary() throws Exception {
+        String suffix = UUID.randomUUID().toString();
+        Long userId = userService.create(new UserDtos.Create("replica-" + suffix, suffix + "@example.com", "secret")).id();
+        Long courseId = courseService.create(new CourseDtos.Create("Replica", null, "en", "de", true, userId)).id();
+        Long levelId = levelService.create(new LevelDtos.Create(courseId, "Level", null, 1)).id();
+        try {
+            MvcResult result = mockMvc.perform(post("/levels/{id}/flashcards:import", levelId).contentType("text/csv")
+                    .content("sideA,sideB\nder Hund,dog\ndie Katze,cat\n")).andReturn();
+            assertEquals(200, result.getResponse().getStatus(), result.getResponse().getContentAsString());
+            assertEquals(2, jdbcTemplate.queryForObject("select count(*) from flashcards where level_id = ?", Integer.class, levelId));
+        } finally {
+            courseService.delete(courseId);
+        }
+    }
+}
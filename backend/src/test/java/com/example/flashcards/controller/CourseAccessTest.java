@@ -0,0 +1,153 @@
+package com.example.flashcards.controller;
+
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.dto.ReviewDtos;
+import com.example.flashcards.dto.UserDtos;
+import com.example.flashcards.service.CourseService;
+import com.example.flashcards.service.FlashcardService;
+import com.example.flashcards.service.LevelService;
+import com.example.flashcards.service.ReviewService;
+import com.example.flashcards.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest(properties = {"flashcards.packs.dir=target/test-packs"})
+@AutoConfigureMockMvc
+class CourseAccessTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private LevelService levelService;
+    @Autowired
+    private FlashcardService flashcardService;
+    @Autowired
+    private ReviewService reviewService;
+
+    private Long ownerId;
+    private Long studentId;
+    private Long strangerId;
+    private Long courseId;
+    private Long levelId;
+    private Long cardId;
+
+    @BeforeEach
+    void seedPrivateCourse() {
+        ownerId = createUser("owner");
+        studentId = createUser("student");
+        strangerId = createUser("stranger");
+        courseId = courseService.create(new CourseDtos.Create("Private", null, "en", "de", false, ownerId)).id();
+        levelId = levelService.create(new LevelDtos.Create(courseId, "Level", null, 1)).id();
+        cardId = flashcardService.create(new FlashcardDtos.Create(levelId, "der Hund", "dog", null, null, null, 1)).id();
+        reviewService.submit(ownerId, new ReviewDtos.Submit(cardId, 0, OffsetDateTime.now().minusDays(30)));
+    }
+
+    @AfterEach
+    void deleteCourse() {
+        courseService.delete(courseId);
+    }
+
+    @Test
+    void privateCourseIsHiddenFromStrangersAndVisibleToOwnerAndGrantees() throws Exception {
+        assertReads(null, 404);
+        assertReads(strangerId, 404);
+        assertReads(studentId, 404);
+        assertReads(ownerId, 200);
+
+        assertEquals(200, status(put("/courses/{id}/access/{userId}", courseId, studentId).header(Viewer.HEADER, ownerId)));
+        assertReads(studentId, 200);
+        assertReads(strangerId, 404);
+
+        assertEquals(204, status(delete("/courses/{id}/access/{userId}", courseId, studentId).header(Viewer.HEADER, ownerId)));
+        assertReads(studentId, 404);
+    }
+
+    @Test
+    void onlyCreatorAndTeachersManageAccess() throws Exception {
+        assertEquals(404, status(put("/courses/{id}/access/{userId}", courseId, strangerId).header(Viewer.HEADER, strangerId)));
+        assertEquals(200, status(put("/courses/{id}/access/{userId}", courseId, studentId).header(Viewer.HEADER, ownerId)));
+        // a student can read the course but not hand it out
+        assertEquals(403, status(put("/courses/{id}/access/{userId}", courseId, strangerId).header(Viewer.HEADER, studentId)));
+        assertEquals(403, status(delete("/courses/{id}/access/{userId}", courseId, studentId).header(Viewer.HEADER, studentId)));
+
+        Long teacherId = createUser("teacher");
+        assertEquals(200, status(put("/courses/{id}/access/{userId}", courseId, teacherId).header(Viewer.HEADER, ownerId)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"accessType\":\"TEACHER\"}")));
+        assertEquals(200, status(put("/courses/{id}/access/{userId}", courseId, strangerId).header(Viewer.HEADER, teacherId)));
+        assertEquals(204, status(delete("/courses/{id}/access/{userId}", courseId, strangerId).header(Viewer.HEADER, teacherId)));
+    }
+
+    @Test
+    void onlyTheUserListsTheirCourses() throws Exception {
+        assertEquals(200, status(get("/users/{id}/courses", ownerId).header(Viewer.HEADER, ownerId)));
+        assertEquals(404, status(get("/users/{id}/courses", ownerId).header(Viewer.HEADER, strangerId)));
+        assertEquals(404, status(get("/users/{id}/courses", ownerId)));
+        String due = mockMvc.perform(get("/users/{id}/due", ownerId).header(Viewer.HEADER, ownerId)).andReturn().getResponse().getContentAsString();
+        assertTrue(due.contains("\"flashcardId\":" + cardId), due);
+    }
+
+    @Test
+    void strangersCannotReviewPrivateCards() throws Exception {
+        String review = "{\"flashcardId\":" + cardId + ",\"grade\":4}";
+        assertEquals(404, status(post("/users/{id}/reviews", strangerId).contentType(MediaType.APPLICATION_JSON).content(review)));
+        assertEquals(200, status(post("/users/{id}/reviews", ownerId).contentType(MediaType.APPLICATION_JSON).content(review)));
+    }
+
+    private void assertReads(Long viewerId, int expected) throws Exception {
+        Map<String, MockHttpServletRequestBuilder> reads = new LinkedHashMap<>();
+        reads.put("course", get("/courses/{id}", courseId));
+        reads.put("tree", get("/courses/{id}/tree", courseId));
+        reads.put("levels", get("/courses/{id}/levels", courseId));
+        reads.put("export", get("/courses/{id}/export", courseId));
+        reads.put("pack", get("/courses/{id}/pack", courseId));
+        reads.put("level", get("/levels/{id}", levelId));
+        reads.put("level flashcards", get("/levels/{id}/flashcards", levelId));
+        reads.put("flashcard", get("/flashcards/{id}", cardId));
+        reads.put("check", post("/flashcards/{id}/check", cardId).contentType(MediaType.APPLICATION_JSON).content("{\"answer\":\"dog\"}"));
+        reads.put("search", get("/search/flashcards").param("q", "dog").param("courseId", courseId.toString()));
+        for (Map.Entry<String, MockHttpServletRequestBuilder> read : reads.entrySet()) {
+            if (viewerId != null) read.getValue().header(Viewer.HEADER, viewerId);
+            assertEquals(expected, status(read.getValue()), read.getKey() + " as viewer " + viewerId);
+        }
+        // the owner answered the card, so their due cards and stats name the private course; a grant does not open them
+        Map<String, MockHttpServletRequestBuilder> ownerLists = new LinkedHashMap<>();
+        ownerLists.put("owner's courses", get("/users/{id}/courses", ownerId));
+        ownerLists.put("owner's due cards", get("/users/{id}/due", ownerId));
+        ownerLists.put("owner's stats", get("/users/{id}/stats", ownerId));
+        for (Map.Entry<String, MockHttpServletRequestBuilder> read : ownerLists.entrySet()) {
+            if (viewerId != null) read.getValue().header(Viewer.HEADER, viewerId);
+            assertEquals(ownerId.equals(viewerId) ? 200 : 404, status(read.getValue()), read.getKey() + " as viewer " + viewerId);
+        }
+    }
+
+    private int status(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+
+    private Long createUser(String role) {
+        String suffix = UUID.randomUUID().toString();
+        return userService.create(new UserDtos.Create(role + "-" + suffix, suffix + "@example.com", "secret")).id();
+    }
+}
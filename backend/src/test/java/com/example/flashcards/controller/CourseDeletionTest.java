@@ -0,0 +1,129 @@
+package com.example.flashcards.controller;
+
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.dto.UserDtos;
+import com.example.flashcards.repository.CoursePurgeRepository;
+import com.example.flashcards.service.CoursePurger;
+import com.example.flashcards.service.CourseService;
+import com.example.flashcards.service.FlashcardService;
+import com.example.flashcards.service.LevelService;
+import com.example.flashcards.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+// three cards and two progress rows are over the threshold, so DELETE only marks the course deleted
+@SpringBootTest(properties = {
+        "flashcards.packs.dir=target/test-packs",
+        "flashcards.courses.delete.async-threshold=2",
+        "flashcards.courses.delete.chunk-size=2",
+        "flashcards.courses.delete.interval=1h"})
+@AutoConfigureMockMvc
+class CourseDeletionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private LevelService levelService;
+    @Autowired
+    private FlashcardService flashcardService;
+    @Autowired
+    private CoursePurger coursePurger;
+    @Autowired
+    private CoursePurgeRepository coursePurgeRepository;
+
+    private Long userId;
+    private Long courseId;
+    private Long levelId;
+    private Long otherLevelId;
+    private List<Long> cardIds;
+
+    @BeforeEach
+    void seedCourse() throws Exception {
+        String suffix = UUID.randomUUID().toString();
+        userId = userService.create(new UserDtos.Create("deleter-" + suffix, suffix + "@example.com", "secret")).id();
+        courseId = courseService.create(new CourseDtos.Create("Doomed", null, "en", "de", true, userId)).id();
+        levelId = levelService.create(new LevelDtos.Create(courseId, "Level", null, 1)).id();
+        otherLevelId = levelService.create(new LevelDtos.Create(courseId, "Other", null, 2)).id();
+        cardIds = List.of(
+                flashcardService.create(new FlashcardDtos.Create(levelId, "der Hund", "dog", null, null, null, 1)).id(),
+                flashcardService.create(new FlashcardDtos.Create(levelId, "die Katze", "cat", null, null, null, 2)).id(),
+                flashcardService.create(new FlashcardDtos.Create(levelId, "das Pferd", "horse", null, null, null, 3)).id());
+        assertEquals(200, status(post("/users/{id}/reviews", userId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"flashcardId\":" + cardIds.get(0) + ",\"grade\":4}")));
+        assertEquals(200, status(post("/users/{id}/reviews", userId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"flashcardId\":" + cardIds.get(1) + ",\"grade\":2}")));
+        assertEquals(202, status(delete("/courses/{id}", courseId)));
+    }
+
+    @AfterEach
+    void purge() {
+        coursePurger.purge();
+    }
+
+    @Test
+    void markedCourseIsGoneFromTheApiBeforeItIsPurged() throws Exception {
+        Map<String, MockHttpServletRequestBuilder> requests = new LinkedHashMap<>();
+        requests.put("course", get("/courses/{id}", courseId));
+        requests.put("tree", get("/courses/{id}/tree", courseId));
+        requests.put("pack", get("/courses/{id}/pack", courseId));
+        requests.put("level", get("/levels/{id}", levelId));
+        requests.put("flashcard", get("/flashcards/{id}", cardIds.get(0)));
+        requests.put("create level", post("/courses/{id}/levels", courseId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"courseId\":" + courseId + ",\"name\":\"Late\",\"orderPosition\":2}"));
+        requests.put("create flashcard", post("/levels/{id}/flashcards", levelId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"levelId\":" + levelId + ",\"sideA\":\"die Kuh\",\"sideB\":\"cow\"}"));
+        requests.put("reorder flashcards", patch("/levels/{id}/flashcards:reorder", levelId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"moves\":[{\"id\":" + cardIds.get(0) + ",\"afterId\":" + cardIds.get(2) + "}]}"));
+        requests.put("reorder levels", patch("/courses/{id}/levels:reorder", courseId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"moves\":[{\"id\":" + levelId + ",\"afterId\":" + otherLevelId + "}]}"));
+        requests.put("delete again", delete("/courses/{id}", courseId));
+        for (Map.Entry<String, MockHttpServletRequestBuilder> request : requests.entrySet()) {
+            assertEquals(404, status(request.getValue()), request.getKey());
+        }
+    }
+
+    @Test
+    void purgerRemovesTheMarkedCourseAndEverythingUnderIt() {
+        // progress goes in chunks of its own, not through the cards' cascade
+        assertTrue(coursePurgeRepository.deleteProgressChunk(courseId, 1) <= 1);
+        coursePurger.purge();
+
+        assertEquals(0, count("select count(*) from courses where id = ?", courseId));
+        assertEquals(0, count("select count(*) from levels where course_id = ?", courseId));
+        assertEquals(0, count("select count(*) from flashcards where level_id = ?", levelId));
+        assertEquals(0, count("select count(*) from user_progress where user_id = ?", userId));
+    }
+
+    private int count(String sql, Long id) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, id);
+    }
+
+    private int status(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+}
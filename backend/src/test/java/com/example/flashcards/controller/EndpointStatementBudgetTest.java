@@ -0,0 +1,276 @@
+package com.example.flashcards.controller;
+
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.dto.UserDtos;
+import com.example.flashcards.service.CourseService;
+import com.example.flashcards.service.FlashcardService;
+import com.example.flashcards.service.LevelService;
+import com.example.flashcards.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.imageio.ImageIO;
+import javax.sql.DataSource;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Runs every endpoint once against a course with several levels, cards and reviews, and checks the
+ * statements it executed against its {@link StatementBudget}. The report lists the SQL of each
+ * overrun, so the extra query is easy to spot.
+ */
+// the recorder sees every thread, so the purger must not run in the middle of a request
+@SpringBootTest(properties = {"flashcards.media.dir=target/test-media", "flashcards.packs.dir=target/test-packs",
+        "flashcards.courses.delete.async-threshold=" + EndpointStatementBudgetTest.LEVELS * EndpointStatementBudgetTest.CARDS_PER_LEVEL,
+        "flashcards.courses.delete.interval=1h"})
+@AutoConfigureMockMvc
+class EndpointStatementBudgetTest {
+
+    static final int LEVELS = 4;
+    static final int CARDS_PER_LEVEL = 5;
+
+    @TestConfiguration
+    static class RecordingDataSourceConfig {
+        @Bean
+        static BeanPostProcessor sqlRecordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? SqlRecorder.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private LevelService levelService;
+    @Autowired
+    private FlashcardService flashcardService;
+
+    private final List<String> overruns = new ArrayList<>();
+    private final Set<Method> exercised = new HashSet<>();
+    private Long userId;
+    private Long courseId;
+    private final List<Long> levelIds = new ArrayList<>();
+    private final List<Long> cardIds = new ArrayList<>();
+
+    @BeforeEach
+    void seedCourse() {
+        String suffix = UUID.randomUUID().toString();
+        userId = userService.create(new UserDtos.Create("budget-" + suffix, suffix + "@example.com", "secret")).id();
+        courseId = courseService.create(new CourseDtos.Create("Budget " + suffix, null, "en", "de", true, userId)).id();
+        for (int l = 0; l < LEVELS; l++) {
+            Long levelId = levelService.create(new LevelDtos.Create(courseId, "Level " + l, null, l)).id();
+            levelIds.add(levelId);
+            for (int f = 0; f < CARDS_PER_LEVEL; f++) {
+                cardIds.add(flashcardService.create(new FlashcardDtos.Create(levelId, "budget a" + f, "budget b" + f, null, null, null, f)).id());
+            }
+        }
+    }
+
+    @AfterEach
+    void deleteCourse() {
+        courseService.delete(courseId);
+    }
+
+    @Test
+    void everyEndpointDeclaresABudget() {
+        List<String> missing = handlerMapping.getHandlerMethods().values().stream()
+                .filter(this::isApplicationHandler)
+                .filter(handler -> !handler.hasMethodAnnotation(StatementBudget.class))
+                .map(handler -> handler.getBeanType().getSimpleName() + "#" + handler.getMethod().getName())
+                .sorted()
+                .toList();
+        assertTrue(missing.isEmpty(), "handler methods without @StatementBudget: " + missing);
+    }
+
+    @Test
+    void endpointsStayWithinTheirBudgets() throws Exception {
+        Long levelId = levelIds.get(0);
+        Long cardId = cardIds.get(0);
+        OffsetDateTime now = OffsetDateTime.now();
+
+        perform(get("/cache/stats"));
+        perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                .content(json(new UserDtos.Create("budget-new-" + UUID.randomUUID(), UUID.randomUUID() + "@example.com", "secret"))));
+        perform(get("/users/{id}", userId));
+        for (int i = 0; i < 3; i++) {
+            perform(post("/users/{id}/reviews", userId).contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"flashcardId\":" + cardIds.get(i) + ",\"grade\":4}"));
+        }
+        StringBuilder batch = new StringBuilder("{\"items\":[");
+        for (int i = 3; i < 10; i++) {
+            if (i > 3) batch.append(',');
+            batch.append("{\"flashcardId\":").append(cardIds.get(i)).append(",\"grade\":3,\"answeredAt\":\"").append(now.minusDays(10)).append("\"}");
+        }
+        perform(post("/users/{id}/reviews:batch", userId).contentType(MediaType.APPLICATION_JSON).content(batch.append("]}").toString()));
+        perform(get("/users/{id}/due", userId).param("courseId", courseId.toString()).header(Viewer.HEADER, userId));
+        perform(get("/users/{id}/stats", userId).header(Viewer.HEADER, userId));
+
+        perform(get("/courses"));
+        MvcResult created = perform(post("/courses").contentType(MediaType.APPLICATION_JSON)
+                .content(json(new CourseDtos.Create("Budget extra", null, "en", "fr", false, userId))));
+        Long privateCourseId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+        Long studentId = userService.create(new UserDtos.Create("budget-student-" + UUID.randomUUID(), UUID.randomUUID() + "@example.com", "secret")).id();
+        perform(put("/courses/{id}/access/{userId}", privateCourseId, studentId).header(Viewer.HEADER, userId)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"accessType\":\"STUDENT\"}"));
+        perform(get("/users/{id}/courses", studentId).header(Viewer.HEADER, studentId));
+        perform(get("/courses/{id}", privateCourseId).header(Viewer.HEADER, studentId));
+        perform(delete("/courses/{id}/access/{userId}", privateCourseId, studentId).header(Viewer.HEADER, userId));
+        perform(get("/courses/{id}", courseId));
+        perform(put("/courses/{id}", courseId).contentType(MediaType.APPLICATION_JSON).content("{\"description\":\"updated\"}"));
+        perform(get("/courses/{id}/tree", courseId));
+        MvcResult cloned = perform(post("/courses/{id}/clone", courseId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"createdByUserId\":" + userId + ",\"name\":\"Budget clone\"}"));
+        courseService.delete(objectMapper.readTree(cloned.getResponse().getContentAsString()).get("id").asLong());
+        perform(get("/courses/{id}/export", courseId));
+        perform(get("/courses/{id}/pack", courseId));
+        perform(get("/courses/{id}/levels", courseId));
+        perform(post("/courses/{id}/levels", courseId).contentType(MediaType.APPLICATION_JSON)
+                .content(json(new LevelDtos.Create(courseId, "Level extra", null, LEVELS))));
+        perform(patch("/courses/{id}/levels:reorder", courseId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"moves\":[{\"id\":" + levelIds.get(3) + ",\"afterId\":" + levelIds.get(0) + "}]}"));
+
+        perform(get("/levels/{id}", levelId));
+        perform(get("/levels/{id}/flashcards", levelId));
+        perform(patch("/levels/{id}/flashcards:reorder", levelId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"moves\":[{\"id\":" + cardIds.get(4) + ",\"beforeId\":" + cardIds.get(0) + "},"
+                        + "{\"id\":" + cardIds.get(2) + ",\"afterId\":" + cardIds.get(4) + "},"
+                        + "{\"id\":" + cardIds.get(1) + ",\"beforeId\":" + cardIds.get(0) + "}]}"));
+        perform(post("/levels/{id}/flashcards", levelId).contentType(MediaType.APPLICATION_JSON)
+                .content(json(new FlashcardDtos.Create(levelId, "budget extra a", "budget extra b", null, null, null, null))));
+        MvcResult imported = perform(post("/levels/{id}/flashcards:import", levelId).contentType("text/csv")
+                .content("sideA,sideB\nimported a1,imported b1\nimported a2,imported b2\nimported a3,imported b3\n"));
+        String jobId = objectMapper.readTree(imported.getResponse().getContentAsString()).get("jobId").asText();
+        perform(get("/imports"));
+        perform(get("/imports/{jobId}", jobId));
+
+        perform(get("/search/flashcards").param("q", "budget").param("courseId", courseId.toString()));
+
+        MvcResult uploaded = perform(post("/media").contentType(MediaType.IMAGE_PNG).content(png()));
+        String mediaUrl = objectMapper.readTree(uploaded.getResponse().getContentAsString()).get("url").asText();
+        perform(get("/media/{name}", mediaUrl.substring(mediaUrl.lastIndexOf('/') + 1)).header("Range", "bytes=0-99"));
+
+        perform(get("/flashcards/{id}", cardId));
+        perform(put("/flashcards/{id}", cardId).contentType(MediaType.APPLICATION_JSON).content("{\"sideB\":\"budget changed\"}"));
+        perform(post("/flashcards/{id}/check", cardId).contentType(MediaType.APPLICATION_JSON).content("{\"answer\":\"budget changd\"}"));
+        perform(delete("/flashcards/{id}", cardIds.get(cardIds.size() - 1)));
+
+        JsonNode extra = objectMapper.readTree(perform(get("/courses").param("limit", "200")).getResponse().getContentAsString());
+        for (JsonNode course : extra.get("items")) {
+            if ("Budget extra".equals(course.get("name").asText())) perform(delete("/courses/{id}", course.get("id").asLong()));
+        }
+        // deleted at once, then one card over the threshold, which is only marked deleted
+        for (int overThreshold = 0; overThreshold <= 1; overThreshold++) {
+            Long spareCourse = courseService.create(new CourseDtos.Create("Budget spare", null, "en", "fr", false, userId)).id();
+            for (int l = 0; l < LEVELS; l++) {
+                Long spareLevel = levelService.create(new LevelDtos.Create(spareCourse, "Spare " + l, null, l)).id();
+                for (int f = 0; f < CARDS_PER_LEVEL + (l == 0 ? overThreshold : 0); f++) {
+                    flashcardService.create(new FlashcardDtos.Create(spareLevel, "spare a" + f, "spare b" + f, null, null, null, f));
+                }
+            }
+            perform(delete("/courses/{id}", spareCourse));
+        }
+
+        List<String> unexercised = handlerMapping.getHandlerMethods().values().stream()
+                .filter(this::isApplicationHandler)
+                .filter(handler -> !exercised.contains(handler.getMethod()))
+                .map(handler -> handler.getBeanType().getSimpleName() + "#" + handler.getMethod().getName())
+                .sorted()
+                .toList();
+        assertTrue(unexercised.isEmpty(), "endpoints not exercised by this test: " + unexercised);
+        if (!overruns.isEmpty()) fail("statement budgets exceeded:\n\n" + String.join("\n\n", overruns));
+    }
+
+    private static byte[] png() throws IOException {
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFF0000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        // budgets hold for a cold cache; anything cached would hide per-row queries
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        SqlRecorder.start();
+        List<String> statements;
+        MvcResult result;
+        try {
+            result = mockMvc.perform(request).andReturn();
+            if (result.getRequest().isAsyncStarted()) result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        } finally {
+            statements = SqlRecorder.stop();
+        }
+        String call = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+        int status = result.getResponse().getStatus();
+        assertTrue(status >= 200 && status < 300, call + " returned " + status + ": " + result.getResponse().getContentAsString());
+
+        HandlerMethod handler = (HandlerMethod) result.getHandler();
+        exercised.add(handler.getMethod());
+        StatementBudget budget = handler.getMethodAnnotation(StatementBudget.class);
+        // a missing budget is reported by everyEndpointDeclaresABudget; treating it as 0 shows the current count
+        int allowed = budget != null ? budget.value() : 0;
+        if (statements.size() > allowed) {
+            StringBuilder report = new StringBuilder(call).append(" (").append(handler.getBeanType().getSimpleName())
+                    .append('#').append(handler.getMethod().getName()).append("): ").append(statements.size())
+                    .append(" statements, budget ").append(allowed);
+            for (int i = 0; i < statements.size(); i++) report.append("\n  ").append(i + 1).append(". ").append(statements.get(i));
+            overruns.add(report.toString());
+        }
+        return result;
+    }
+
+    private boolean isApplicationHandler(HandlerMethod handler) {
+        return handler.getBeanType().getPackageName().equals(StatementBudget.class.getPackageName());
+    }
+
+    private String json(Object body) throws Exception {
+        return objectMapper.writeValueAsString(body);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.flashcards.controller;
+
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.dto.ReorderDtos;
+import com.example.flashcards.dto.UserDtos;
+import com.example.flashcards.service.CourseService;
+import com.example.flashcards.service.FlashcardService;
+import com.example.flashcards.service.LevelService;
+import com.example.flashcards.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+
+@SpringBootTest(properties = {"flashcards.packs.dir=target/test-packs"})
+@AutoConfigureMockMvc
+class FlashcardReorderTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private LevelService levelService;
+    @Autowired
+    private FlashcardService flashcardService;
+
+    private Long courseId;
+    private Long levelId;
+    private Long a;
+    private Long b;
+    private Long c;
+    private Long d;
+    private Long e;
+
+    // a, b and c sit at 1, 2 and 3 with no room between them; d and e have no position and sort last
+    @BeforeEach
+    void seedLevel() {
+        String suffix = UUID.randomUUID().toString();
+        Long userId = userService.create(new UserDtos.Create("reorder-" + suffix, suffix + "@example.com", "secret")).id();
+        courseId = courseService.create(new CourseDtos.Create("Reorder", null, "en", "de", true, userId)).id();
+        levelId = levelService.create(new LevelDtos.Create(courseId, "Level", null, 1)).id();
+        a = card("a", 1);
+        b = card("b", 2);
+        c = card("c", 3);
+        d = card("d", null);
+        e = card("e", null);
+    }
+
+    @AfterEach
+    void deleteCourse() {
+        courseService.delete(courseId);
+    }
+
+    @Test
+    void movesKeepTheListedOrderThroughRebalancesAndMissingPositions() throws Exception {
+        assertEquals(List.of(a, b, c, d, e), listed());
+
+        // a card without a position goes one gap before the first
+        assertFalse(reorder(new ReorderDtos.Move(d, a, null)).rebalanced());
+        assertEquals(List.of(d, a, b, c, e), listed());
+
+        // a and b are adjacent, so the level is respaced first, e included
+        assertTrue(reorder(new ReorderDtos.Move(c, null, a)).rebalanced());
+        assertEquals(List.of(d, a, c, b, e), listed());
+
+        // the second move is placed against the first one's new position
+        ReorderDtos.Result result = reorder(new ReorderDtos.Move(e, d, null), new ReorderDtos.Move(b, null, e));
+        assertFalse(result.rebalanced());
+        assertEquals(List.of(e, b, d, a, c), listed());
+        assertEquals(List.of(e, b), result.positions().stream().map(ReorderDtos.Position::id).toList());
+
+        // moving against an anchor without a position respaces too
+        Long f = card("f", null);
+        assertTrue(reorder(new ReorderDtos.Move(a, null, f)).rebalanced());
+        assertEquals(List.of(e, b, d, c, f, a), listed());
+    }
+
+    private Long card(String sideA, Integer orderPosition) {
+        return flashcardService.create(new FlashcardDtos.Create(levelId, sideA, sideA.toUpperCase(), null, null, null, orderPosition)).id();
+    }
+
+    private ReorderDtos.Result reorder(ReorderDtos.Move... moves) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(patch("/levels/{id}/flashcards:reorder", levelId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ReorderDtos.Request(List.of(moves))))).andReturn().getResponse();
+        assertEquals(200, response.getStatus(), response.getContentAsString());
+        return objectMapper.readValue(response.getContentAsString(), ReorderDtos.Result.class);
+    }
+
+    // in pages of two, so the cursor also steps over the cards without a position
+    private List<Long> listed() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        do {
+            assertTrue(ids.size() < 100, "the pages never ended: " + ids);
+            // in the URI, since cached responses are keyed on the query string
+            MockHttpServletRequestBuilder request = after == null
+                    ? get("/levels/{id}/flashcards?limit=2", levelId)
+                    : get("/levels/{id}/flashcards?limit=2&after={after}", levelId, after);
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request).andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+            after = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (after != null);
+        return ids;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.flashcards.controller;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records every statement executed through a wrapped DataSource between {@link #start()} and
+ * {@link #stop()}, from any thread, so streamed responses finished on an async thread count too.
+ * Unlike {@link com.example.flashcards.config.StatementCounter} this also sees JdbcTemplate.
+ */
+final class SqlRecorder {
+    private static final Set<String> EXECUTE = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate");
+    private static final Set<String> BATCH = Set.of("executeBatch", "executeLargeBatch");
+    private static final Set<String> PREPARE = Set.of("prepareStatement", "prepareCall");
+
+    private static volatile List<String> recorded;
+
+    private SqlRecorder() {
+    }
+
+    static void start() {
+        recorded = new ArrayList<>();
+    }
+
+    static List<String> stop() {
+        List<String> statements = recorded;
+        recorded = null;
+        synchronized (statements) {
+            return List.copyOf(statements);
+        }
+    }
+
+    static DataSource wrap(DataSource target) {
+        return proxy(DataSource.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection connection ? wrap(connection) : result;
+        });
+    }
+
+    private static Connection wrap(Connection target) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (!(result instanceof Statement statement)) return result;
+            String sql = PREPARE.contains(method.getName()) ? (String) args[0] : null;
+            return wrap(method.getReturnType(), statement, sql);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S> S wrap(Class<S> type, Object target, String preparedSql) {
+        return proxy(type, (S) target, (proxy, method, args) -> {
+            String name = method.getName();
+            if (EXECUTE.contains(name)) record(args != null && args.length > 0 && args[0] instanceof String sql ? sql : preparedSql);
+            else if (BATCH.contains(name)) record((preparedSql != null ? preparedSql : "<statement batch>") + " [batch]");
+            return invoke(target, method, args);
+        });
+    }
+
+    private static void record(String sql) {
+        List<String> statements = recorded;
+        if (statements == null) return;
+        synchronized (statements) {
+            statements.add(sql.strip().replaceAll("\\s+", " "));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlRecorder.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.flashcards.controller;
+
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.dto.ReviewDtos;
+import com.example.flashcards.dto.UserDtos;
+import com.example.flashcards.repository.UserCourseStatsRepository;
+import com.example.flashcards.service.CourseService;
+import com.example.flashcards.service.FlashcardService;
+import com.example.flashcards.service.LevelService;
+import com.example.flashcards.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// answers go straight to user_progress here, so the triggers have kept the counters by the time a request returns
+@SpringBootTest(properties = {"flashcards.packs.dir=target/test-packs"})
+@AutoConfigureMockMvc
+class UserStatsTest {
+
+    // everything but updated_at, which the reconciliation always bumps
+    private static final String STATS_SQL = """
+            select cards_seen, cards_learned, reviews, correct_answers, histogram_start, due_by_day::text,
+                   last_active_day, active_days, streak_days
+            from user_course_stats
+            where user_id = ? and course_id = ?
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserCourseStatsRepository userCourseStatsRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private LevelService levelService;
+    @Autowired
+    private FlashcardService flashcardService;
+
+    private Long userId;
+    private Long courseId;
+    private List<Long> cardIds;
+
+    @BeforeEach
+    void seedCourse() {
+        String suffix = UUID.randomUUID().toString();
+        userId = userService.create(new UserDtos.Create("learner-" + suffix, suffix + "@example.com", "secret")).id();
+        courseId = courseService.create(new CourseDtos.Create("Stats", null, "en", "de", true, userId)).id();
+        Long levelId = levelService.create(new LevelDtos.Create(courseId, "Level", null, 1)).id();
+        cardIds = List.of(
+                flashcardService.create(new FlashcardDtos.Create(levelId, "der Hund", "dog", null, null, null, 1)).id(),
+                flashcardService.create(new FlashcardDtos.Create(levelId, "die Katze", "cat", null, null, null, 2)).id(),
+                flashcardService.create(new FlashcardDtos.Create(levelId, "das Pferd", "horse", null, null, null, 3)).id());
+    }
+
+    @AfterEach
+    void deleteCourse() {
+        courseService.delete(courseId);
+    }
+
+    @Test
+    void countersFromSingleBatchAndRepeatedReviewsMatchAFreshReconciliation() throws Exception {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        OffsetDateTime yesterday = today.minusDays(1).atTime(12, 0).atOffset(ZoneOffset.UTC);
+        OffsetDateTime earlyToday = today.atStartOfDay().atOffset(ZoneOffset.UTC);
+        Long dog = cardIds.get(0);
+        Long cat = cardIds.get(1);
+        Long horse = cardIds.get(2);
+
+        assertEquals(200, status(post("/users/{id}/reviews", userId).contentType(MediaType.APPLICATION_JSON)
+                .content(json(new ReviewDtos.Submit(dog, 4, yesterday)))));
+        // the dog twice more and again at yesterday's time, the cat failed, the horse answered yesterday and due today
+        ReviewDtos.Batch batch = new ReviewDtos.Batch(List.of(
+                new ReviewDtos.BatchItem(dog, 5, earlyToday.plusMinutes(1)),
+                new ReviewDtos.BatchItem(cat, 2, earlyToday.plusMinutes(1)),
+                new ReviewDtos.BatchItem(horse, 4, yesterday),
+                new ReviewDtos.BatchItem(dog, 4, earlyToday.plusMinutes(2)),
+                new ReviewDtos.BatchItem(dog, 4, yesterday)));
+        assertEquals(4, submitBatch(batch).applied());
+        // a client retrying the whole batch changes nothing
+        assertEquals(0, submitBatch(batch).applied());
+        assertEquals(200, status(post("/users/{id}/reviews", userId).contentType(MediaType.APPLICATION_JSON)
+                .content(json(new ReviewDtos.Submit(cat, 5, earlyToday.plusMinutes(3))))));
+
+        Map<String, Object> kept = jdbcTemplate.queryForMap(STATS_SQL, userId, courseId);
+        userCourseStatsRepository.reconcile(userId / UserCourseStatsRepository.USERS_PER_BLOCK);
+        assertEquals(jdbcTemplate.queryForMap(STATS_SQL, userId, courseId), kept);
+
+        MockHttpServletResponse response = mockMvc.perform(get("/users/{id}/stats", userId).header(Viewer.HEADER, userId))
+                .andReturn().getResponse();
+        assertEquals(200, response.getStatus());
+        UserDtos.Stats stats = objectMapper.readValue(response.getContentAsString(), UserDtos.Stats.class);
+        // seen: all three; learned: the dog's three passes; reviews: dog 3, cat 2, horse 1 with the cat's fail wrong
+        assertEquals(userId, stats.userId());
+        assertEquals(3, stats.cardsSeen());
+        assertEquals(1, stats.cardsLearned());
+        assertEquals(1, stats.dueToday());
+        assertEquals(6, stats.reviews());
+        assertEquals(5.0 / 6, stats.accuracy(), 1e-9);
+        assertEquals(2, stats.streakDays());
+        assertEquals(1, stats.coursesStarted());
+        assertEquals(List.of(new UserDtos.CourseStats(courseId, 3, 1, 1, 6, 5.0 / 6, 2, today)), stats.courses());
+    }
+
+    private ReviewDtos.BatchResult submitBatch(ReviewDtos.Batch batch) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post("/users/{id}/reviews:batch", userId)
+                .contentType(MediaType.APPLICATION_JSON).content(json(batch))).andReturn().getResponse();
+        assertEquals(200, response.getStatus());
+        return objectMapper.readValue(response.getContentAsString(), ReviewDtos.BatchResult.class);
+    }
+
+    private String json(Object body) throws Exception {
+        return objectMapper.writeValueAsString(body);
+    }
+
+    private int status(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+}
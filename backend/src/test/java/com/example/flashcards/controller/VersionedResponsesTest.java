@@ -0,0 +1,123 @@
+package com.example.flashcards.controller;
+
+import com.example.flashcards.config.ContentCacheInvalidationListener;
+import com.example.flashcards.config.ContentCacheProperties;
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.dto.UserDtos;
+import com.example.flashcards.service.CourseService;
+import com.example.flashcards.service.FlashcardService;
+import com.example.flashcards.service.LevelService;
+import com.example.flashcards.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = {"flashcards.packs.dir=target/test-packs"})
+@AutoConfigureMockMvc
+class VersionedResponsesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ContentCacheProperties properties;
+    @Autowired
+    private ContentCacheInvalidationListener listener;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private LevelService levelService;
+    @Autowired
+    private FlashcardService flashcardService;
+
+    private Long courseId;
+    private Long levelId;
+    private Long cardId;
+
+    @BeforeEach
+    void seedCourse() {
+        String suffix = UUID.randomUUID().toString();
+        Long userId = userService.create(new UserDtos.Create("versioned-" + suffix, suffix + "@example.com", "secret")).id();
+        courseId = courseService.create(new CourseDtos.Create("Versioned", null, "en", "de", true, userId)).id();
+        levelId = levelService.create(new LevelDtos.Create(courseId, "Level", null, 1)).id();
+        cardId = flashcardService.create(new FlashcardDtos.Create(levelId, "der Hund", "dog", null, null, null, 1)).id();
+    }
+
+    @AfterEach
+    void deleteCourse() {
+        courseService.delete(courseId);
+    }
+
+    // the SQL bumps the versions at once, while the second-level cache hears of it only by notification;
+    // with the listener stopped that notification never comes
+    @Test
+    void setBasedWriteIsServedUnderItsNewVersion() throws Exception {
+        List<String> uris = List.of("/levels/" + levelId + "/flashcards", "/levels/" + levelId,
+                "/courses/" + courseId + "/tree", "/courses/" + courseId + "/levels");
+        String sideA = "der Hund";
+        listener.stop();
+        try {
+            for (String uri : uris) {
+                MockHttpServletResponse before = mockMvc.perform(get(uri)).andReturn().getResponse();
+                assertTrue(before.getContentAsString().contains(sideA), uri);
+                String next = "die Katze " + uri;
+                jdbcTemplate.update("update flashcards set side_a = ? where id = ?", next, cardId);
+                MockHttpServletResponse after = mockMvc.perform(get(uri)).andReturn().getResponse();
+                assertNotEquals(before.getHeader(HttpHeaders.ETAG), after.getHeader(HttpHeaders.ETAG), uri);
+                assertTrue(after.getContentAsString().contains(next), uri + " served " + after.getContentAsString());
+                sideA = next;
+            }
+        } finally {
+            listener.start();
+        }
+    }
+
+    @Test
+    void invalidationDropsTheCachedResponse() throws Exception {
+        String uri = "/levels/" + levelId;
+        // once a repeated read hits, the seed's own notifications have been applied
+        for (int attempt = 0; ; attempt++) {
+            assertTrue(attempt < 100, "the response was never served from the cache");
+            double hits = gets("hit");
+            mockMvc.perform(get(uri));
+            mockMvc.perform(get(uri));
+            if (gets("hit") > hits) break;
+        }
+
+        jdbcTemplate.execute("notify " + properties.channel() + ", 'flashcards|" + cardId + "|" + levelId + "'");
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        double misses = gets("miss");
+        while (gets("miss") == misses) {
+            assertTrue(System.nanoTime() < deadline, "the notification did not drop the cached response");
+            Thread.sleep(20);
+            mockMvc.perform(get(uri));
+        }
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "versioned_responses").tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.common.AnswerText;
+import com.example.flashcards.dto.FlashcardDtos.Verdict;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AnswerGraderTest {
+
+    @Test
+    void normalizationIgnoresCaseDiacriticsAndPunctuation() {
+        assertEquals("creme brulee", AnswerText.normalize("  Crème-Brûlée! "));
+        assertEquals("strasse", AnswerText.normalize("Straße"));
+        assertEquals("lukasz", AnswerText.normalize("Łukasz"));
+        assertEquals("dont", AnswerText.normalize("don’t"));
+    }
+
+    @Test
+    void answerKeyAcceptsListItemsAndDropsHints() {
+        assertEquals("house home\nhouse\nhome", AnswerText.answerKey("house, home"));
+        assertEquals("to go\ngo", AnswerText.answerKey("(to) go"));
+    }
+
+    @Test
+    void gradesExactCloseAndWrong() {
+        String key = AnswerText.answerKey("Zażółć gęślą jaźń");
+
+        assertEquals(Verdict.EXACT, AnswerGrader.grade(key, "zazolc gesla jazn").verdict());
+        assertEquals(new AnswerGrader.Result(Verdict.CLOSE, 1), AnswerGrader.grade(key, "zazolc gesla jaz"));
+        assertEquals(Verdict.WRONG, AnswerGrader.grade(key, "something else").verdict());
+    }
+
+    @Test
+    void shortAnswersMustBeExact() {
+        String key = AnswerText.answerKey("cat");
+
+        assertEquals(Verdict.WRONG, AnswerGrader.grade(key, "car").verdict());
+        assertEquals(Verdict.EXACT, AnswerGrader.grade(key, "Cat.").verdict());
+    }
+
+    @Test
+    void longAlternativesFallBackToBandedDistance() {
+        String text = "the quick brown fox jumps over the lazy dog while the cat sleeps soundly";
+        String key = AnswerText.answerKey(text);
+
+        assertEquals(new AnswerGrader.Result(Verdict.CLOSE, 2),
+                AnswerGrader.grade(key, "the quick brwn fox jumps over the lazy dog while the cat sleep soundly"));
+    }
+}
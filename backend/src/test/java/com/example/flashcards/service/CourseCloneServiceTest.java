@@ -0,0 +1,111 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.dto.UserDtos;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CourseCloneServiceTest {
+
+    // the level's name, then the card as the clone must reproduce it
+    private static final String CARDS_SQL = """
+            select l.name, f.side_a, f.side_b, f.side_b_normalized, f.order_position
+            from flashcards f join levels l on l.id = f.level_id
+            where l.course_id = ?
+            order by l.name, f.order_position
+            """;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private LevelService levelService;
+    @Autowired
+    private FlashcardService flashcardService;
+    @Autowired
+    private CourseCloneService courseCloneService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private Long teacherId;
+    private Long sourceId;
+    private final List<Long> courseIds = new ArrayList<>();
+
+    @BeforeEach
+    void seedCourse() {
+        ownerId = createUser("owner");
+        teacherId = createUser("teacher");
+        sourceId = courseService.create(new CourseDtos.Create("Source", null, "en", "de", true, ownerId)).id();
+        courseIds.add(sourceId);
+        Long first = levelService.create(new LevelDtos.Create(sourceId, "First", null, 1024)).id();
+        Long second = levelService.create(new LevelDtos.Create(sourceId, "Second", null, 2048)).id();
+        flashcardService.create(new FlashcardDtos.Create(first, "dog", "der Hund", null, null, null, 1024));
+        flashcardService.create(new FlashcardDtos.Create(first, "street", "die Straße", null, null, null, 512));
+        flashcardService.create(new FlashcardDtos.Create(second, "cheese", "der Käse", null, null, null, 3072));
+    }
+
+    @AfterEach
+    void deleteCourses() {
+        for (Long id : courseIds) courseService.delete(id);
+    }
+
+    @Test
+    void copiesLevelsAndCardsUnderTheNewLevelIds() {
+        CourseDtos.Response clone = courseCloneService.clone(sourceId, new CourseDtos.Clone(teacherId, "Fork", false));
+        courseIds.add(clone.id());
+
+        assertEquals("Fork", clone.name());
+        assertEquals(teacherId, clone.createdByUserId());
+        List<Map<String, Object>> sourceLevels = levels(sourceId);
+        List<Map<String, Object>> clonedLevels = levels(clone.id());
+        assertEquals(sourceLevels.stream().map(l -> List.of(l.get("name"), l.get("order_position"))).toList(),
+                clonedLevels.stream().map(l -> List.of(l.get("name"), l.get("order_position"))).toList());
+        List<Object> clonedLevelIds = clonedLevels.stream().map(l -> l.get("id")).toList();
+        assertTrue(Collections.disjoint(sourceLevels.stream().map(l -> l.get("id")).toList(), clonedLevelIds));
+        assertEquals(clonedLevelIds, clone.levels().stream().map(l -> (Object) l.id()).toList());
+
+        List<Map<String, Object>> cards = jdbcTemplate.queryForList(CARDS_SQL, clone.id());
+        assertEquals(jdbcTemplate.queryForList(CARDS_SQL, sourceId), cards);
+        assertEquals(3, cards.size());
+        assertTrue(cards.stream().allMatch(c -> c.get("side_b_normalized") != null), "answer keys were not copied");
+    }
+
+    @Test
+    void missingUserOrCourseIsNotFound() {
+        EntityNotFoundException user = assertThrows(EntityNotFoundException.class,
+                () -> courseCloneService.clone(sourceId, new CourseDtos.Clone(Long.MAX_VALUE, null, null)));
+        assertEquals("User not found: " + Long.MAX_VALUE, user.getMessage());
+        EntityNotFoundException course = assertThrows(EntityNotFoundException.class,
+                () -> courseCloneService.clone(Long.MAX_VALUE, new CourseDtos.Clone(teacherId, null, null)));
+        assertEquals("Course not found: " + Long.MAX_VALUE, course.getMessage());
+    }
+
+    private List<Map<String, Object>> levels(Long courseId) {
+        return jdbcTemplate.queryForList("select id, name, order_position from levels where course_id = ? order by order_position", courseId);
+    }
+
+    private Long createUser(String role) {
+        String suffix = UUID.randomUUID().toString();
+        return userService.create(new UserDtos.Create(role + "-" + suffix, suffix + "@example.com", "secret")).id();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.repository.CoursePackRepository.FlashcardRow;
+import com.example.flashcards.repository.CoursePackRepository.LevelRow;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CoursePackWriterTest {
+
+    @Test
+    void levelSectionStoresEachStringOnceAndDecodesBack() throws IOException {
+        List<FlashcardRow> cards = List.of(
+                new FlashcardRow(120, 7, "der Hund", "dog", null, "/api/media/a.mp3", "Der Hund bellt.", 0),
+                new FlashcardRow(118, 7, "die Katze", "cat", null, "/api/media/a.mp3", null, null),
+                new FlashcardRow(125, 7, "dog", "der Hund", null, null, null, -3));
+        CoursePackWriter.Section section = CoursePackWriter.level(new LevelRow(7, 3, "Animals", null, 2), cards);
+
+        InputStream in = new InflaterInputStream(new ByteArrayInputStream(section.compressed()));
+        byte[] raw = in.readAllBytes();
+        assertEquals(section.entry().length(), raw.length);
+        assertEquals(section.compressed().length, section.entry().compressedLength());
+
+        InputStream r = new ByteArrayInputStream(raw);
+        List<String> strings = new ArrayList<>();
+        long count = varint(r);
+        for (int i = 0; i < count; i++) strings.add(new String(r.readNBytes((int) varint(r)), StandardCharsets.UTF_8));
+        assertEquals(List.of("Animals", "der Hund", "dog", "/api/media/a.mp3", "Der Hund bellt.", "die Katze", "cat"), strings);
+
+        assertEquals(7, varint(r));
+        assertEquals("Animals", string(r, strings));
+        assertNull(string(r, strings));
+        assertEquals(2, nullableInt(r));
+        assertEquals(3, varint(r));
+        long id = 0;
+        List<String> decoded = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            id += unzigzag(varint(r));
+            decoded.add(id + " " + string(r, strings) + "|" + string(r, strings) + "|" + string(r, strings) + "|"
+                    + string(r, strings) + "|" + string(r, strings) + "|" + nullableInt(r));
+        }
+        assertEquals(List.of(
+                "120 der Hund|dog|null|/api/media/a.mp3|Der Hund bellt.|0",
+                "118 die Katze|cat|null|/api/media/a.mp3|null|null",
+                "125 dog|der Hund|null|null|null|-3"), decoded);
+        assertEquals(-1, r.read());
+    }
+
+    @Test
+    void headerIndexesSectionsInOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CoursePackWriter.writeHeader(out, 42, 9, List.of(
+                new CoursePackWriter.Entry(CoursePackWriter.COURSE_SECTION, 42, 30, 20),
+                new CoursePackWriter.Entry(CoursePackWriter.LEVEL_SECTION, 5, 1000, 300)));
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertArrayEquals(CoursePackWriter.MAGIC, in.readNBytes(4));
+        assertEquals(CoursePackWriter.FORMAT_VERSION, in.readUnsignedShort());
+        assertEquals(42, in.readLong());
+        assertEquals(9, in.readLong());
+        assertEquals(2, in.readInt());
+        assertEquals(List.of(1, 42L, 30, 20, 2, 5L, 1000, 300), List.of(
+                in.readUnsignedByte(), in.readLong(), in.readInt(), in.readInt(),
+                in.readUnsignedByte(), in.readLong(), in.readInt(), in.readInt()));
+        assertEquals(-1, in.read());
+    }
+
+    private static String string(InputStream in, List<String> strings) throws IOException {
+        long ref = varint(in);
+        return ref == 0 ? null : strings.get((int) ref - 1);
+    }
+
+    private static Integer nullableInt(InputStream in) throws IOException {
+        long value = varint(in);
+        return value == 0 ? null : (int) unzigzag(value - 1);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long varint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new IOException("Truncated varint");
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+}
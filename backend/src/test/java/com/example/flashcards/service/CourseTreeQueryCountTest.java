@@ -0,0 +1,84 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.dto.UserDtos;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CourseTreeQueryCountTest {
+
+    private static final int LEVELS = 20;
+    private static final int CARDS_PER_LEVEL = 5;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private LevelService levelService;
+    @Autowired
+    private FlashcardService flashcardService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long courseId;
+
+    @BeforeEach
+    void seedCourse() {
+        String suffix = UUID.randomUUID().toString();
+        Long userId = userService.create(new UserDtos.Create("tree-" + suffix, suffix + "@example.com", "secret")).id();
+        courseId = courseService.create(new CourseDtos.Create("Tree", null, "en", "de", true, userId)).id();
+        for (int l = 0; l < LEVELS; l++) {
+            Long levelId = levelService.create(new LevelDtos.Create(courseId, "Level " + l, null, l)).id();
+            for (int f = 0; f < CARDS_PER_LEVEL; f++) {
+                flashcardService.create(new FlashcardDtos.Create(levelId, "a" + f, "b" + f, null, null, null, CARDS_PER_LEVEL - f));
+            }
+        }
+    }
+
+    @AfterEach
+    void deleteCourse() {
+        courseService.delete(courseId);
+    }
+
+    @Test
+    void courseTreeUsesConstantNumberOfStatements() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        CourseDtos.Tree tree = levelService.getCourseTree(courseId);
+
+        assertEquals(LEVELS, tree.levels().size());
+        tree.levels().forEach(level -> assertEquals(CARDS_PER_LEVEL, level.flashcards().size()));
+        List<LevelDtos.FlashcardSummary> firstLevel = tree.levels().get(0).flashcards();
+        assertEquals(1, firstLevel.get(0).orderPosition());
+        assertTrue(stats.getPrepareStatementCount() <= 3, "statements: " + stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void listByCourseDoesNotQueryPerLevel() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        List<LevelDtos.Response> levels = levelService.listByCourse(courseId);
+
+        assertEquals(LEVELS, levels.size());
+        assertEquals(courseId, levels.get(LEVELS - 1).courseId());
+        assertTrue(stats.getPrepareStatementCount() <= 2, "statements: " + stats.getPrepareStatementCount());
+    }
+}
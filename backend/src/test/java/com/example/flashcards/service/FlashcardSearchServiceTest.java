@@ -0,0 +1,100 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.dto.PageDtos;
+import com.example.flashcards.dto.UserDtos;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class FlashcardSearchServiceTest {
+
+    // ranks differ and tie, some cards hold both "dog" and "hund" and one holds neither
+    private static final List<List<String>> CARDS = List.of(
+            List.of("the dog", "Hund"), List.of("dog and dog", "Katze"), List.of("the dog", "der Hund"),
+            List.of("a dog, a dog and a dog", "Hund"), List.of("the cat", "Hund Hund"), List.of("dog dog dog", "Katze"),
+            List.of("the dog", "Hund"), List.of("the bird", "Vogel"), List.of("dog", "Hund, Hund und Hund"));
+    // every match of the query in the course, ranked the way the search must return them
+    private static final String RANKED_SQL = """
+            select f.id
+            from flashcards f
+            join levels l on l.id = f.level_id
+            join courses c on c.id = l.course_id,
+                 search_query(array[search_config_for(c.taught_language), search_config_for(c.learning_language)], ?) q
+            where l.course_id = ? and f.search_vector @@ q
+            order by ts_rank_cd(f.search_vector, q) desc, f.id
+            """;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private LevelService levelService;
+    @Autowired
+    private FlashcardService flashcardService;
+    @Autowired
+    private FlashcardSearchService flashcardSearchService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long courseId;
+
+    @BeforeEach
+    void seedCourse() {
+        String suffix = UUID.randomUUID().toString();
+        Long userId = userService.create(new UserDtos.Create("search-" + suffix, suffix + "@example.com", "secret")).id();
+        courseId = courseService.create(new CourseDtos.Create("Search", null, "en", "de", true, userId)).id();
+        Long levelId = levelService.create(new LevelDtos.Create(courseId, "Level", null, 1)).id();
+        for (int i = 0; i < CARDS.size(); i++) {
+            flashcardService.create(new FlashcardDtos.Create(levelId, CARDS.get(i).get(0), CARDS.get(i).get(1), null, null, null, i));
+        }
+    }
+
+    @AfterEach
+    void deleteCourse() {
+        courseService.delete(courseId);
+    }
+
+    @Test
+    void pagesWalkEveryMatchInRankOrderWithoutRepeatsOrGaps() {
+        // one word, an OR of words stored per card, and an AND that ranks every match
+        for (String q : List.of("dog", "dog or hund", "the dog")) {
+            List<Long> expected = jdbcTemplate.queryForList(RANKED_SQL, Long.class, q, courseId);
+            assertTrue(expected.size() > 2, q);
+
+            List<FlashcardDtos.SearchHit> ranked = flashcardSearchService.search(q, courseId, 100, null, null).items();
+            assertEquals(expected, ranked.stream().map(FlashcardDtos.SearchHit::id).toList(), q);
+            for (int i = 1; i < ranked.size(); i++) {
+                FlashcardDtos.SearchHit previous = ranked.get(i - 1);
+                FlashcardDtos.SearchHit hit = ranked.get(i);
+                assertTrue(previous.rank() > hit.rank() || previous.rank() == hit.rank() && previous.id() < hit.id(),
+                        q + ": hit " + i + " is out of order");
+            }
+
+            for (int pageSize : List.of(1, 2)) {
+                List<Long> paged = new ArrayList<>();
+                String after = null;
+                do {
+                    PageDtos.Page<FlashcardDtos.SearchHit> page = flashcardSearchService.search(q, courseId, pageSize, after, null);
+                    page.items().forEach(hit -> paged.add(hit.id()));
+                    after = page.nextCursor();
+                } while (after != null);
+                assertEquals(expected, paged, q + " in pages of " + pageSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.flashcards.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImportRecordReaderTest {
+
+    @Test
+    void readsQuotedCsvFieldsAcrossLines() throws IOException {
+        ImportRecordReader reader = new ImportRecordReader(new StringReader("a,b\r\n\"x, y\",\"say \"\"hi\"\"\nthere\"\n\nlast,\n"), 1000);
+
+        assertEquals(List.of("a", "b"), reader.readCsvRecord());
+        assertEquals(List.of("x, y", "say \"hi\"\nthere"), reader.readCsvRecord());
+        assertEquals(List.of("last", ""), reader.readCsvRecord());
+        assertNull(reader.readCsvRecord());
+    }
+
+    @Test
+    void skipsOverlongRecordAndContinues() throws IOException {
+        ImportRecordReader reader = new ImportRecordReader(new StringReader("{\"sideA\":\"too long\"}\n{}\n"), 10);
+
+        assertThrows(ImportRecordReader.RecordTooLongException.class, reader::readLine);
+        assertEquals("{}", reader.readLine());
+        assertNull(reader.readLine());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.MediaDtos;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void storesImagesOnceWithThumbnailsNarrowerThanTheOriginal() throws IOException {
+        MediaStore store = new MediaStore(dir, "/api/media", 1 << 20, new int[] {640, 160, 320});
+        byte[] png = image(400, 200);
+
+        MediaDtos.Response first = store.store("image/png", new ByteArrayInputStream(png));
+        MediaDtos.Response second = store.store("image/png", new ByteArrayInputStream(png));
+
+        assertFalse(first.deduplicated());
+        assertTrue(second.deduplicated());
+        assertEquals(first.url(), second.url());
+        assertEquals("/api/media/" + first.id() + ".png", first.url());
+        assertEquals(List.of(160, 320), List.copyOf(first.thumbnails().keySet()));
+        assertEquals(first.thumbnails(), second.thumbnails());
+
+        MediaStore.StoredFile original = store.resolve(first.id() + ".png");
+        assertArrayEquals(png, Files.readAllBytes(original.path()));
+        assertEquals("\"" + first.id() + "\"", original.etag());
+        BufferedImage thumbnail = ImageIO.read(store.resolve(first.id() + "-w160.jpg").path().toFile());
+        assertEquals(160, thumbnail.getWidth());
+        assertEquals(80, thumbnail.getHeight());
+    }
+
+    @Test
+    void rejectsContentThatDoesNotMatchItsType() throws IOException {
+        MediaStore store = new MediaStore(dir, "/api/media", 1 << 20, new int[] {160});
+
+        assertThrows(IllegalArgumentException.class,
+                () -> store.store("audio/mpeg", new ByteArrayInputStream(image(10, 10))));
+        assertThrows(IllegalArgumentException.class,
+                () -> store.store("application/pdf", new ByteArrayInputStream(new byte[] {1})));
+    }
+
+    private static byte[] image(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(1, 1, 0x336699);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
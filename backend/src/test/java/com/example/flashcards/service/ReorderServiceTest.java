@@ -0,0 +1,29 @@
+package com.example.flashcards.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReorderServiceTest {
+
+    @Test
+    void placesBetweenNeighboursOrOneGapBeyondTheEnds() {
+        assertEquals(1536, ReorderService.positionAfter(1024, 2048));
+        assertEquals(2048, ReorderService.positionAfter(1024, null));
+        assertEquals(-1024, ReorderService.positionBefore(0, null));
+        assertEquals(-1, ReorderService.positionBefore(0, -2));
+        assertEquals(0, ReorderService.positionAfter(-1, 2));
+    }
+
+    @Test
+    void asksForRebalanceWhenThereIsNoRoom() {
+        assertNull(ReorderService.positionAfter(3, 4));
+        assertNull(ReorderService.positionBefore(4, 3));
+        assertNull(ReorderService.positionAfter(null, 5));
+        assertNull(ReorderService.positionAfter(Integer.MAX_VALUE - 1000, null));
+        assertNull(ReorderService.positionBefore(Integer.MIN_VALUE + 1000, null));
+        // a card without a position sorts as Integer.MAX_VALUE, which is never handed out
+        assertEquals(Integer.MAX_VALUE - 1, ReorderService.positionAfter(Integer.MAX_VALUE - 2, Integer.MAX_VALUE));
+    }
+}
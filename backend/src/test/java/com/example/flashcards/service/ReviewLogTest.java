@@ -0,0 +1,76 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.repository.UserProgressBatchRepository.ProgressState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReviewLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysAppendedStatesAcrossSegments() {
+        ProgressState first = state(1, null);
+        ProgressState second = state(2, 2.6f);
+        ProgressState third = state(3, 1.3f);
+        try (ReviewLog log = new ReviewLog(dir, 2 * ReviewLog.RECORD_SIZE)) {
+            log.sync(log.append(7, List.of(first, second)));
+            log.sync(log.append(8, List.of(third)));
+        }
+
+        ReviewLog reopened = new ReviewLog(dir, 2 * ReviewLog.RECORD_SIZE);
+        assertEquals(List.of(1L, 2L), reopened.segments());
+        assertEquals(List.of("7:" + first, "7:" + second, "8:" + third), replay(reopened));
+    }
+
+    @Test
+    void tornRecordEndsTheSegment() throws IOException {
+        try (ReviewLog log = new ReviewLog(dir, 1024)) {
+            log.append(7, List.of(state(1, 2.5f), state(2, 2.5f), state(3, 2.5f)));
+        }
+        try (Stream<Path> files = Files.list(dir);
+             FileChannel channel = FileChannel.open(files.findFirst().orElseThrow(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {42}), ReviewLog.RECORD_SIZE + 20);
+        }
+
+        assertEquals(List.of("7:" + state(1, 2.5f)), replay(new ReviewLog(dir, 1024)));
+    }
+
+    @Test
+    void sealedSegmentsAreDeletedWhileNewAppendsSurvive() {
+        try (ReviewLog log = new ReviewLog(dir, 1024)) {
+            log.append(7, List.of(state(1, 2.5f)));
+            long sealed = log.seal();
+            log.append(7, List.of(state(2, 2.5f)));
+            log.deleteThrough(sealed);
+        }
+
+        assertEquals(List.of("7:" + state(2, 2.5f)), replay(new ReviewLog(dir, 1024)));
+    }
+
+    private static List<String> replay(ReviewLog log) {
+        List<String> replayed = new ArrayList<>();
+        log.replay(Long.MAX_VALUE, (userId, s) -> replayed.add(userId + ":" + s));
+        return replayed;
+    }
+
+    private static ProgressState state(long flashcardId, Float ease) {
+        OffsetDateTime answeredAt = OffsetDateTime.of(2025, 3, 1, 10, 15, 30, 123456000, ZoneOffset.UTC);
+        return new ProgressState(flashcardId, 3, 2, 1, answeredAt, answeredAt.plusDays(6), ease, 6, 2);
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.config.ReviewWriteBehindProperties;
+import com.example.flashcards.dto.CourseDtos;
+import com.example.flashcards.dto.FlashcardDtos;
+import com.example.flashcards.dto.LevelDtos;
+import com.example.flashcards.dto.UserDtos;
+import com.example.flashcards.repository.UserProgressBatchRepository;
+import com.example.flashcards.repository.UserProgressBatchRepository.ProgressState;
+import com.example.flashcards.repository.UserProgressBatchRepository.UserProgressState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// the buffer is built by hand over the real database; the hour-long interval leaves every flush to the test
+@SpringBootTest
+class ReviewWriteBehindBufferTest {
+    private static final OffsetDateTime ANSWERED_AT = OffsetDateTime.of(2025, 3, 1, 10, 15, 30, 123456000, ZoneOffset.UTC);
+
+    @TempDir
+    Path logDir;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private LevelService levelService;
+    @Autowired
+    private FlashcardService flashcardService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Long userId;
+    private Long courseId;
+    private Long dog;
+    private Long cat;
+
+    @BeforeEach
+    void seedCourse() {
+        String suffix = UUID.randomUUID().toString();
+        userId = userService.create(new UserDtos.Create("buffered-" + suffix, suffix + "@example.com", "secret")).id();
+        courseId = courseService.create(new CourseDtos.Create("Buffered", null, "en", "de", true, userId)).id();
+        Long levelId = levelService.create(new LevelDtos.Create(courseId, "Level", null, 1)).id();
+        dog = flashcardService.create(new FlashcardDtos.Create(levelId, "der Hund", "dog", null, null, null, 1)).id();
+        cat = flashcardService.create(new FlashcardDtos.Create(levelId, "die Katze", "cat", null, null, null, 2)).id();
+    }
+
+    @AfterEach
+    void deleteCourse() {
+        courseService.delete(courseId);
+    }
+
+    @Test
+    void repeatedAnswersBetweenFlushesWriteOneRow() {
+        ReviewWriteBehindBuffer buffer = start(new UserProgressBatchRepository(jdbcTemplate));
+        try {
+            record(buffer, state(dog, 1));
+            record(buffer, state(dog, 2));
+            record(buffer, state(dog, 3));
+            assertEquals(1, buffer.getPending());
+            assertEquals(2, meterRegistry.get("reviews.write_behind.coalesced").counter().count());
+
+            buffer.flush();
+            assertEquals(0, buffer.getPending());
+            assertEquals(1, meterRegistry.get("reviews.write_behind.rows").counter().count());
+            assertEquals(List.of(state(dog, 3)), stored());
+        } finally {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    void failedFlushGoesBackBehindNewerAnswers() {
+        FailingRepository repository = new FailingRepository(jdbcTemplate);
+        ReviewWriteBehindBuffer buffer = start(repository);
+        try {
+            record(buffer, state(dog, 1));
+            record(buffer, state(cat, 1));
+            // the dog is answered again while its first answer is being written
+            repository.beforeFailure = () -> record(buffer, state(dog, 2));
+            assertThrows(DataAccessResourceFailureException.class, buffer::flush);
+
+            assertEquals(2, buffer.getPending());
+            assertEquals(state(dog, 2), buffer.peek(userId, dog));
+            assertEquals(state(cat, 1), buffer.peek(userId, cat));
+            assertEquals(List.of(), stored());
+
+            buffer.flush();
+            assertEquals(List.of(state(dog, 2), state(cat, 1)), stored());
+        } finally {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    void loggedAnswersAreWrittenOnRestart() {
+        // answers acknowledged by a node that went down before flushing, the dog's latest logged first
+        try (ReviewLog log = new ReviewLog(logDir, DataSize.ofKilobytes(64).toBytes())) {
+            log.sync(log.append(userId, List.of(state(dog, 2), state(cat, 1))));
+            log.sync(log.append(userId, List.of(state(dog, 1))));
+        }
+
+        ReviewWriteBehindBuffer buffer = start(new UserProgressBatchRepository(jdbcTemplate));
+        try {
+            assertEquals(0, buffer.getPending());
+            assertEquals(List.of(state(dog, 2), state(cat, 1)), stored());
+        } finally {
+            buffer.stop();
+        }
+        // the replayed segment is gone, so the next start writes nothing again
+        try (ReviewLog log = new ReviewLog(logDir, DataSize.ofKilobytes(64).toBytes())) {
+            assertEquals(List.of(), log.segments());
+        }
+    }
+
+    private ReviewWriteBehindBuffer start(UserProgressBatchRepository repository) {
+        ReviewWriteBehindProperties properties = new ReviewWriteBehindProperties(true, logDir, DataSize.ofKilobytes(64),
+                Duration.ofHours(1), 100_000, 5000, true);
+        ReviewWriteBehindBuffer buffer = new ReviewWriteBehindBuffer(properties, repository, transactionTemplate);
+        buffer.bindTo(meterRegistry);
+        buffer.start();
+        return buffer;
+    }
+
+    private void record(ReviewWriteBehindBuffer buffer, ProgressState state) {
+        try (ReviewWriteBehindBuffer.Session session = buffer.open(userId)) {
+            session.record(List.of(state));
+        }
+    }
+
+    private List<ProgressState> stored() {
+        return new UserProgressBatchRepository(jdbcTemplate).findStates(userId, List.of(dog, cat)).stream()
+                .sorted(Comparator.comparing(s -> s.flashcardId() == dog ? 0 : 1))
+                .toList();
+    }
+
+    // the nth answer to a card, each a day after the one before
+    private static ProgressState state(long flashcardId, int answers) {
+        OffsetDateTime answeredAt = ANSWERED_AT.plusDays(answers - 1);
+        return new ProgressState(flashcardId, answers, answers, 0, answeredAt, answeredAt.plusDays(answers), 2.5f, answers, answers);
+    }
+
+    /** Fails its first write after running {@link #beforeFailure}. */
+    private static class FailingRepository extends UserProgressBatchRepository {
+        private Runnable beforeFailure = () -> {};
+        private boolean failed;
+
+        FailingRepository(JdbcTemplate jdbcTemplate) {
+            super(jdbcTemplate);
+        }
+
+        @Override
+        public void upsertAll(List<UserProgressState> rows) {
+            if (!failed) {
+                failed = true;
+                beforeFailure.run();
+                throw new DataAccessResourceFailureException("database went away");
+            }
+            super.upsertAll(rows);
+        }
+    }
+}
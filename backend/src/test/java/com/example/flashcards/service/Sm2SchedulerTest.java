@@ -0,0 +1,38 @@
+package com.example.flashcards.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Sm2SchedulerTest {
+
+    @Test
+    void passingGradesGrowTheInterval() {
+        Sm2Scheduler.State first = Sm2Scheduler.next(Sm2Scheduler.State.NEW, 4);
+        Sm2Scheduler.State second = Sm2Scheduler.next(first, 4);
+        Sm2Scheduler.State third = Sm2Scheduler.next(second, 4);
+
+        assertEquals(1, first.intervalDays());
+        assertEquals(6, second.intervalDays());
+        assertEquals(15, third.intervalDays());
+        assertEquals(3, third.repetitions());
+        assertEquals(2.5f, third.easeFactor(), 1e-6);
+    }
+
+    @Test
+    void failingGradeResetsStreakButKeepsEaseFloor() {
+        Sm2Scheduler.State state = new Sm2Scheduler.State(5, 40, 1.35f);
+
+        Sm2Scheduler.State next = Sm2Scheduler.next(state, 0);
+
+        assertEquals(0, next.repetitions());
+        assertEquals(1, next.intervalDays());
+        assertEquals(Sm2Scheduler.MIN_EASE_FACTOR, next.easeFactor(), 1e-6);
+    }
+
+    @Test
+    void rejectsOutOfRangeGrade() {
+        assertThrows(IllegalArgumentException.class, () -> Sm2Scheduler.next(Sm2Scheduler.State.NEW, 6));
+    }
+}
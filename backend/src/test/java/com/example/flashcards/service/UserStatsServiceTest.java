@@ -0,0 +1,40 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.repository.UserCourseStatsRepository.Row;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserStatsServiceTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void dueTodayCountsBucketsUpToToday() {
+        int[] dueByDay = new int[60];
+        dueByDay[0] = 4;
+        dueByDay[1] = 2;
+        dueByDay[2] = 7;
+        dueByDay[3] = 1;
+
+        assertEquals(4, UserStatsService.dueToday(row(TODAY, dueByDay, null, 0, 0), TODAY));
+        assertEquals(13, UserStatsService.dueToday(row(TODAY.minusDays(2), dueByDay, null, 0, 0), TODAY));
+    }
+
+    @Test
+    void streakSpansCoursesAndSurvivesUntilTheDayIsOver() {
+        // course 1 answered 3, 4 and 5 days ago; course 2 yesterday and 2 days ago
+        Row first = row(TODAY, new int[60], TODAY.minusDays(3), 0b111, 3);
+        Row second = row(TODAY, new int[60], TODAY.minusDays(1), 0b11, 2);
+
+        assertEquals(5, UserStatsService.streakDays(List.of(first, second), TODAY));
+        assertEquals(0, UserStatsService.streakDays(List.of(first), TODAY));
+        assertEquals(6, UserStatsService.streakDays(List.of(first, second, row(TODAY, new int[60], TODAY, 1, 1)), TODAY));
+    }
+
+    private static Row row(LocalDate histogramStart, int[] dueByDay, LocalDate lastActiveDay, long activeDays, int streakDays) {
+        return new Row(1, 0, 0, 0, 0, histogramStart, dueByDay, lastActiveDay, activeDays, streakDays);
+    }
+}
@@ -0,0 +1,4 @@
+#!/bin/sh
+# Runs once, when the db volume is first initialised: lets the standby of the "replica" profile
+# stream WAL from this server.
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"